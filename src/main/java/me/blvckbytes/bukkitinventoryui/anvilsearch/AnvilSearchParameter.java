@@ -26,6 +26,8 @@ package me.blvckbytes.bukkitinventoryui.anvilsearch;
 
 import me.blvckbytes.bukkitinventoryui.base.AUIParameter;
 import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.base.DataSlotBinding;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Nullable;
 
@@ -35,7 +37,8 @@ import java.util.function.Consumer;
 public class AnvilSearchParameter<T extends Comparable<T>> extends AUIParameter<IAnvilSearchParameterProvider> {
 
   public final @Nullable ISearchFilterEnum<?, T> filterEnum;
-  public Collection<DataBoundUISlot<T>> slots;
+  public @Nullable Collection<DataBoundUISlot<T>> slots;
+  public final @Nullable SharedDataset<T> dataset;
   public final @Nullable Consumer<AnvilSearchUI<T>> backHandler;
   public final @Nullable Consumer<AnvilSearchUI<T>> newButtonHandler;
 
@@ -46,10 +49,50 @@ public class AnvilSearchParameter<T extends Comparable<T>> extends AUIParameter<
     @Nullable ISearchFilterEnum<?, T> filterEnum,
     @Nullable Consumer<AnvilSearchUI<T>> backHandler,
     @Nullable Consumer<AnvilSearchUI<T>> newButtonHandler
+  ) {
+    this(provider, viewer, slots, null, filterEnum, backHandler, newButtonHandler);
+  }
+
+  public AnvilSearchParameter(
+    IAnvilSearchParameterProvider provider,
+    Player viewer,
+    SharedDataset<T> dataset,
+    @Nullable ISearchFilterEnum<?, T> filterEnum,
+    @Nullable Consumer<AnvilSearchUI<T>> backHandler,
+    @Nullable Consumer<AnvilSearchUI<T>> newButtonHandler
+  ) {
+    this(provider, viewer, null, dataset, filterEnum, backHandler, newButtonHandler);
+  }
+
+  /**
+   * Search through plain entries, which are all rendered and handled by a single binding,
+   * where slots are only created for the results which are displayed
+   */
+  public AnvilSearchParameter(
+    IAnvilSearchParameterProvider provider,
+    Player viewer,
+    DataSlotBinding<T> binding,
+    Collection<T> entries,
+    @Nullable ISearchFilterEnum<?, T> filterEnum,
+    @Nullable Consumer<AnvilSearchUI<T>> backHandler,
+    @Nullable Consumer<AnvilSearchUI<T>> newButtonHandler
+  ) {
+    this(provider, viewer, null, new SharedDataset<>(binding, entries), filterEnum, backHandler, newButtonHandler);
+  }
+
+  private AnvilSearchParameter(
+    IAnvilSearchParameterProvider provider,
+    Player viewer,
+    @Nullable Collection<DataBoundUISlot<T>> slots,
+    @Nullable SharedDataset<T> dataset,
+    @Nullable ISearchFilterEnum<?, T> filterEnum,
+    @Nullable Consumer<AnvilSearchUI<T>> backHandler,
+    @Nullable Consumer<AnvilSearchUI<T>> newButtonHandler
   ) {
     super(provider, viewer);
     this.filterEnum = filterEnum;
     this.slots = slots;
+    this.dataset = dataset;
     this.backHandler = backHandler;
     this.newButtonHandler = newButtonHandler;
   }
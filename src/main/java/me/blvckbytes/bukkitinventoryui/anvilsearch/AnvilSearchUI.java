@@ -27,6 +27,11 @@ package me.blvckbytes.bukkitinventoryui.anvilsearch;
 import me.blvckbytes.bbconfigmapper.StringUtils;
 import me.blvckbytes.bukkitinventoryui.IInventoryRegistry;
 import me.blvckbytes.bukkitinventoryui.base.*;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetOrdering;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import me.blvckbytes.bukkitinventoryui.pageable.IPageSource;
 import me.blvckbytes.bukkitinventoryui.pageable.PageableInventoryUI;
 import me.blvckbytes.gpeee.interpreter.EvaluationEnvironmentBuilder;
 import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
@@ -38,7 +43,10 @@ import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 public class AnvilSearchUI<DataType extends Comparable<DataType>> implements IInventoryUI, IAnvilItemRenameHandler, ITickHandler {
 
@@ -47,20 +55,67 @@ public class AnvilSearchUI<DataType extends Comparable<DataType>> implements IIn
     KEY_BACK = "back",
     KEY_RESULT = "resultItem",
     KEY_SEARCH_ITEM = "searchItem",
-    KEY_NEW_BUTTON = "newButton";
+    KEY_NEW_BUTTON = "newButton",
+    KEY_ORDERING = "ordering";
+
+  // Name under which ordering by relevance is exposed to the ordering item
+  private static final String RELEVANCE_ORDERING_NAME = "relevance";
+
+  // Number of updated and added entries up to which new versions of the dataset are scored into a copy of the results,
+  // while versions with more changes are searched through anew, making use of patched indices, both on a worker
+  private static final int MAX_PATCHED_CHANGES = 256;
 
   private final Map<String, Boolean> filterStates;
-  private final int searchDebounceMs;
+  private final Map<String, Boolean> orderingStates;
+  private final int parallelSearchThreshold;
+  private final int fuzzySearchDistance;
+  private final ITextNormalizer normalizer;
+  private final int orderAheadCount;
   private final PageableInventoryUI<DataType> handle;
 
   private ISearchFilterEnum<?, DataType> currentFilter;
   private long searchTextUpdate;
-  private String searchText;
+  private final SearchTextInput searchTextInput;
+
+  private final SearchDebounce searchDebounce;
 
   private final AnvilSearchParameter<DataType> parameter;
   private final IInventoryRegistry registry;
   private final FakeItemUI fakeItemUI;
 
+  // Either the parameter's shared dataset or a dataset created from the parameter's slots
+  private SharedDataset<DataType> dataset;
+
+  // Results are only cached for datasets which are shared among viewers, as no other viewer could ever hit them otherwise
+  private boolean isDatasetShared;
+
+  // Results of the most recently applied search, which are also patched in place on mutations
+  private @Nullable SearchResults<DataType> results;
+  private final ResultsPageSource resultsSource;
+
+  // Searches run on worker threads, where each request is numbered, so that superseded searches can
+  // be cancelled cooperatively and only the latest completion is handed over to the main thread
+  private final AtomicInteger searchGeneration;
+  private final AtomicReference<CompletedSearch<DataType>> completedSearch;
+  private int appliedGeneration;
+
+  // Constraints which entries have to satisfy on top of the search, which are replaced as a whole whenever
+  // toggled, so that requests may hand them over to workers, as well as the version of the applied results
+  private List<ISearchConstraint<DataType>> activeConstraints;
+  private int constraintsVersion;
+  private int resultsConstraintsVersion;
+
+  // Parsed query of the applied results, null if the search has been blank
+  private @Nullable SearchQuery<DataType> resultsQuery;
+
+  // Facets to count the results of by name, as well as the counts of the applied results, which are exposed to items
+  private Map<String, ISearchConstraint<DataType>> facets;
+  private final Map<String, Integer> facetCounts;
+
+  // Orderings which the viewer may toggle through, where null orders by relevance
+  private List<DatasetOrdering<DataType>> orderings;
+  private @Nullable DatasetOrdering<DataType> currentOrdering;
+
   public AnvilSearchUI(AnvilSearchParameter<DataType> parameter, IInventoryRegistry registry) {
     this.parameter = parameter;
     this.registry = registry;
@@ -70,43 +125,210 @@ public class AnvilSearchUI<DataType extends Comparable<DataType>> implements IIn
     this.handle = new PageableInventoryUI<>(parameter.provider, fakeItemUI);
     this.handle.setSlotOffset(getInventory().getSize());
 
-    this.searchText = " ";
+    this.searchTextInput = new SearchTextInput(" ");
     this.filterStates = new LinkedHashMap<>();
+    this.orderingStates = new LinkedHashMap<>();
+    this.orderings = Collections.emptyList();
+    this.facets = Collections.emptyMap();
+    this.facetCounts = new LinkedHashMap<>();
+    this.resultsSource = new ResultsPageSource();
+    this.searchGeneration = new AtomicInteger();
+    this.completedSearch = new AtomicReference<>();
+    this.activeConstraints = Collections.emptyList();
+
+    this.isDatasetShared = parameter.dataset != null;
+
+    if (parameter.dataset != null)
+      this.dataset = parameter.dataset;
+    else
+      this.dataset = new SharedDataset<>(parameter.slots == null ? Collections.emptyList() : parameter.slots);
     this.currentFilter = parameter.filterEnum;
-    this.searchDebounceMs = parameter.provider.getSearchDebounceTicks() / 20 * 1000;
+    this.searchDebounce = new SearchDebounce(parameter.provider.getSearchDebounceMinMs(), parameter.provider.getSearchDebounceMaxMs());
+    this.parallelSearchThreshold = parameter.provider.getParallelSearchThreshold();
+    this.fuzzySearchDistance = parameter.provider.getFuzzySearchDistance();
+    this.normalizer = parameter.provider.getTextNormalizer();
+
+    // Order the current page as well as all prefetched pages on the worker already
+    this.orderAheadCount = this.handle.getPageSize() * (2 * parameter.provider.getPrefetchDepth() + 1);
 
     this.setupFilterStates();
   }
 
+  /**
+   * Replaces the searched slots, where the differences to the current slots are published as changes, which the
+   * results are patched by on the next tick, as long as slots have only been removed, replaced in place or appended,
+   * where changes reach every UI which displays the searched dataset, just like with {@link PageableInventoryUI}
+   * @return True if the slots differ from the current slots
+   */
   public boolean setSlots(List<DataBoundUISlot<DataType>> slots) {
-    boolean wasEqual = this.parameter.slots == slots;
     this.parameter.slots = slots;
-    return !wasEqual;
+
+    DatasetSnapshot<DataType> snapshot = this.dataset.getSnapshot();
+    return this.dataset.publishChanges(slots) != snapshot;
   }
 
+  /**
+   * Search through a shared dataset from now on, where newly published versions are picked up automatically
+   */
+  public void setDataset(SharedDataset<DataType> dataset) {
+    setDataset(dataset, true);
+  }
+
+  /**
+   * Search through a dataset from now on, see {@link #setDataset(SharedDataset)}
+   * @param isShared Whether the dataset is shared among viewers, as only then results are worth caching for others
+   */
+  public void setDataset(SharedDataset<DataType> dataset, boolean isShared) {
+    this.dataset = dataset;
+    this.isDatasetShared = isShared;
+  }
+
+  /**
+   * Requests a search using the current search text and filter, which runs on a worker
+   * thread, while it's results are displayed on the main thread as soon as they're ready
+   */
   public void invokeFilterFunctionAndUpdatePageSlots() {
-    this.handle.setPageableSlots(applyFilter());
+    requestSearch(false);
+  }
+
+  /**
+   * Declare facets, whose number of matching results is counted whenever a search completes and exposed to
+   * the filter and result items by the variable facet_counts, which maps each facet's name to it's count
+   * @param facets Facets by name, in order of display
+   */
+  public void setFacets(Map<String, ISearchConstraint<DataType>> facets) {
+    this.facets = Collections.unmodifiableMap(new LinkedHashMap<>(facets));
+    this.facetCounts.clear();
+
+    // Searches which are requested later on count the facets anyways
+    if (this.results != null)
+      requestSearch(true);
+  }
+
+  public Map<String, Integer> getFacetCounts() {
+    return Collections.unmodifiableMap(this.facetCounts);
+  }
+
+  /**
+   * Declare the orderings which the viewer may toggle through by the ordering item, next to ordering by
+   * relevance, which has to be done before showing the UI, as the ordering item is only set up if there are any
+   */
+  public void setOrderings(List<DatasetOrdering<DataType>> orderings) {
+    this.orderings = new ArrayList<>(orderings);
+    this.currentOrdering = null;
+
+    this.orderingStates.clear();
+    this.orderingStates.put(RELEVANCE_ORDERING_NAME, true);
+
+    for (DatasetOrdering<DataType> ordering : orderings)
+      this.orderingStates.put(ordering.name, false);
+  }
+
+  /**
+   * Order results by an ordering from now on, where switching orderings never re-scores results and
+   * only ever orders as many results as are displayed, as each ordering's permutation is computed once
+   * @param ordering Ordering to apply, null to order by relevance
+   */
+  public void setOrdering(@Nullable DatasetOrdering<DataType> ordering) {
+    if (ordering == this.currentOrdering)
+      return;
+
+    this.orderingStates.put(this.currentOrdering == null ? RELEVANCE_ORDERING_NAME : this.currentOrdering.name, false);
+    this.currentOrdering = ordering;
+    this.orderingStates.put(ordering == null ? RELEVANCE_ORDERING_NAME : ordering.name, true);
+
+    this.handle.drawSlotByName(KEY_ORDERING);
+    requestSearch(false);
+  }
+
+  public @Nullable DatasetOrdering<DataType> getOrdering() {
+    return this.currentOrdering;
+  }
+
+  /**
+   * Activates or deactivates a constraint which entries have to satisfy on top of the search, where
+   * the matches of each constraint are only computed once per dataset version and shared by all viewers
+   * @return True if the state of the constraint changed
+   */
+  public boolean setConstraintActive(ISearchConstraint<DataType> constraint, boolean active) {
+    if (this.activeConstraints.contains(constraint) == active)
+      return false;
+
+    List<ISearchConstraint<DataType>> constraints = new ArrayList<>(this.activeConstraints);
+
+    if (active)
+      constraints.add(constraint);
+    else
+      constraints.remove(constraint);
+
+    this.activeConstraints = Collections.unmodifiableList(constraints);
+    ++this.constraintsVersion;
+    this.searchTextUpdate = System.currentTimeMillis();
+
+    return true;
+  }
+
+  /**
+   * Toggles a constraint, see {@link #setConstraintActive(ISearchConstraint, boolean)}
+   * @return True if the constraint is active now
+   */
+  public boolean toggleConstraint(ISearchConstraint<DataType> constraint) {
+    boolean active = !isConstraintActive(constraint);
+    setConstraintActive(constraint, active);
+    return active;
+  }
+
+  public boolean isConstraintActive(ISearchConstraint<DataType> constraint) {
+    return this.activeConstraints.contains(constraint);
+  }
+
+  public List<ISearchConstraint<DataType>> getActiveConstraints() {
+    return this.activeConstraints;
+  }
+
+  /**
+   * Adds a slot to the searched dataset and inserts it into the current results if it
+   * matches the applied search, without re-running the filter over all slots, see {@link #setSlots(List)}
+   */
+  public void addSlot(DataBoundUISlot<DataType> slot) {
+    followDataset(this.dataset.add(slot));
+  }
+
+  /**
+   * Removes a slot from the searched dataset as well as from the current results, see {@link #setSlots(List)}
+   */
+  public void removeSlot(DataBoundUISlot<DataType> slot) {
+    followDataset(this.dataset.remove(slot));
+  }
+
+  /**
+   * Replaces a slot within the searched dataset and only re-scores the new slot, where a slot which has been
+   * altered in place may be replaced by itself in order to re-render it, see {@link #setSlots(List)}
+   */
+  public void updateSlot(DataBoundUISlot<DataType> oldSlot, DataBoundUISlot<DataType> newSlot) {
+    followDataset(this.dataset.update(oldSlot, newSlot));
   }
 
   @Override
   public void handleAnvilItemRename(String name) {
-    synchronized (this) {
-      this.searchText = name;
-      this.searchTextUpdate = System.currentTimeMillis();
-      this.handle.drawSlotByName(KEY_RESULT);
-    }
+    this.searchTextInput.offer(name);
   }
 
   @Override
   public void handleTick(long time) {
     this.handle.handleTick(time);
 
-    synchronized (this) {
-      if (searchTextUpdate > 0 && System.currentTimeMillis() - searchTextUpdate >= searchDebounceMs) {
-        invokeFilterFunctionAndUpdatePageSlots();
-        searchTextUpdate = 0;
-      }
+    this.searchDebounce.recordTick(System.nanoTime());
+
+    applyPendingSearchText();
+
+    if (this.searchTextUpdate > 0 && System.currentTimeMillis() - this.searchTextUpdate >= this.searchDebounce.getDelayMs()) {
+      requestSearch(false);
+      this.searchTextUpdate = 0;
     }
+
+    applyCompletedSearch();
+    followDataset(this.dataset.getSnapshot());
   }
 
   @Override
@@ -139,6 +361,11 @@ public class AnvilSearchUI<DataType extends Comparable<DataType>> implements IIn
     return this.handle.getItem(slot);
   }
 
+  @Override
+  public void copyItems(int fromSlot, ItemStack[] buffer, int bufferOffset, int length) {
+    this.handle.copyItems(fromSlot, buffer, bufferOffset, length);
+  }
+
   @Override
   public void handleInteraction(UIInteraction interaction) {
     this.handle.handleInteraction(interaction);
@@ -196,22 +423,47 @@ public class AnvilSearchUI<DataType extends Comparable<DataType>> implements IIn
     this.filterStates.put(this.currentFilter.name(), true);
 
     this.handle.drawSlotByName(KEY_FILTER);
-
-    synchronized (this) {
-      searchTextUpdate = System.currentTimeMillis();
-    }
+    this.searchTextUpdate = System.currentTimeMillis();
     return null;
   }
 
+  /**
+   * Takes over the most recently renamed text, where all renames since the last tick only
+   * result in a single redraw of the result item, as well as in a single debounce restart
+   */
+  private void applyPendingSearchText() {
+    if (!this.searchTextInput.poll())
+      return;
+
+    this.searchTextUpdate = System.currentTimeMillis();
+    this.handle.drawSlotByName(KEY_RESULT);
+  }
+
   private IEvaluationEnvironment buildResultEnvironment() {
     return new EvaluationEnvironmentBuilder()
-      .withLiveVariable("search_text", () -> this.searchText.trim())
+      .withLiveVariable("search_text", () -> this.searchTextInput.getText().trim())
+      .withLiveVariable("result_count", () -> this.results == null ? 0 : this.results.size())
+      .withLiveVariable("facet_counts", () -> this.facetCounts)
+      .build();
+  }
+
+  private EnumSet<EClickResultFlag> handleOrderingClick(UIInteraction action) {
+    int index = this.currentOrdering == null ? -1 : this.orderings.indexOf(this.currentOrdering);
+    setOrdering(index + 1 < this.orderings.size() ? this.orderings.get(index + 1) : null);
+    return null;
+  }
+
+  private IEvaluationEnvironment buildOrderingEnvironment() {
+    return new EvaluationEnvironmentBuilder()
+      .withStaticVariable("orderings", this.orderingStates)
+      .withLiveVariable("ordering", () -> this.currentOrdering == null ? RELEVANCE_ORDERING_NAME : this.currentOrdering.name)
       .build();
   }
 
   private IEvaluationEnvironment buildFilterEnvironment() {
     return new EvaluationEnvironmentBuilder()
       .withStaticVariable("filters", this.filterStates)
+      .withLiveVariable("facet_counts", () -> this.facetCounts)
       .build();
   }
 
@@ -225,6 +477,12 @@ public class AnvilSearchUI<DataType extends Comparable<DataType>> implements IIn
       this.handle.drawSlotByName(KEY_FILTER);
     }
 
+    if (!this.orderings.isEmpty()) {
+      IEvaluationEnvironment orderingEnvironment = buildOrderingEnvironment();
+      this.handle.setSlotByName(KEY_ORDERING, new UISlot(() -> parameter.provider.getOrdering().build(orderingEnvironment), this::handleOrderingClick));
+      this.handle.drawSlotByName(KEY_ORDERING);
+    }
+
     this.handle.setSlotByName(KEY_SEARCH_ITEM, new UISlot(() -> parameter.provider.getSearchItem().build(filterEnvironment), this::handleFilterClick));
     this.handle.drawSlotByName(KEY_SEARCH_ITEM);
 
@@ -253,107 +511,505 @@ public class AnvilSearchUI<DataType extends Comparable<DataType>> implements IIn
   private boolean handleSetSlot(int slot, ItemStack item) {
     return this.fakeItemUI.handleSetFakeItem(slot, item);
   }
+  /**
+   * Hands the current search state over to a worker thread, which supersedes all previous requests
+   * @param keepPage Whether to stay on the current page when applying the results
+   */
+  private void requestSearch(boolean keepPage) {
+    int generation = this.searchGeneration.incrementAndGet();
+
+    DatasetSnapshot<DataType> snapshot = this.dataset.getSnapshot();
+    ISearchFilterEnum<?, DataType> filter = this.currentFilter;
+    List<ISearchConstraint<DataType>> constraints = this.activeConstraints;
+    int constraintsVersion = this.constraintsVersion;
+    DatasetOrdering<DataType> ordering = this.currentOrdering;
+    Map<String, ISearchConstraint<DataType>> facets = this.facets;
+    String searchText = this.searchTextInput.getText();
+    SearchQuery<DataType> previousQuery = this.resultsQuery;
+    boolean isCaching = this.isDatasetShared;
+
+    // Order the displayed window ahead of time as well, so that the main thread never has to order on redraws
+    int orderedCount = (keepPage ? this.handle.getWindowOffset() : 0) + this.orderAheadCount;
+
+    // Previous results may be refined, but they keep on being ordered on the main thread, so hand over a copy
+    SearchResults<DataType> previousResults = this.results;
+    String[] previousSearchWords = null;
+    int[] previousPositions = null;
+
+    if (
+      previousResults != null && previousResults.getSnapshot() == snapshot &&
+      previousResults.getFilter() == filter && this.resultsConstraintsVersion == constraintsVersion &&
+      previousQuery != null && !StringUtils.isBlank(searchText)
+    ) {
+      previousSearchWords = previousResults.getSearchWords();
+      previousPositions = previousSearchWords == null ? null : previousResults.copyPositions();
+    }
 
-  private Inventory createInventory(String title) {
-    return Bukkit.createInventory(null, InventoryType.ANVIL, title);
+    String[] refinableSearchWords = previousSearchWords;
+    int[] refinablePositions = previousPositions;
+
+    SearchWorkers.getPool().execute(() -> {
+      BooleanSupplier isCancelled = () -> this.searchGeneration.get() != generation;
+
+      long startNanos = System.nanoTime();
+
+      // Parsing is cached, as the same text is re-applied on every dataset update
+      SearchQuery<DataType> query = filter == null || StringUtils.isBlank(searchText) ? null : SearchQuery.parse(searchText, filter.getFields());
+
+      // Previous matches can only be refined if they have been narrowed down by the same field comparisons
+      boolean isRefinable = query != null && previousQuery != null && query.hasSameTerms(previousQuery);
+
+      SearchResults<DataType> results = isCaching ? lookUpCachedResults(snapshot, filter, query, constraints, ordering, orderedCount) : null;
+      boolean isCacheHit = results != null;
+
+      if (results == null) {
+        results = runSearch(
+          snapshot, filter, query, constraints, ordering,
+          isRefinable ? refinableSearchWords : null, isRefinable ? refinablePositions : null,
+          orderedCount, isCaching, isCancelled
+        );
+      }
+
+      if (results == null || isCancelled.getAsBoolean())
+        return;
+
+      int[] facetCounts = ConstraintMatches.countFacets(snapshot, facets, results);
+
+      double durationMs = isCacheHit ? -1 : (System.nanoTime() - startNanos) / 1_000_000D;
+      complete(new CompletedSearch<>(generation, results, keepPage, durationMs, constraintsVersion, query, facets, facetCounts, 0, new int[0]));
+    });
+  }
+
+  /**
+   * Hands a completion over to the main thread, which picks it up on the next tick
+   */
+  private void complete(CompletedSearch<DataType> completed) {
+    // Never overwrite the completion of a newer request
+    this.completedSearch.accumulateAndGet(completed, (current, update) -> (
+      current != null && current.generation > update.generation ? current : update
+    ));
   }
 
   /**
-   * Applies the filter algorithm to the parameter's slots list by making use of
-   * the current search text as well as the currently selected filter enum to extract
-   * the target words to search through
+   * Looks up the results of an unconstrained search, as popular queries are likely to have been searched for
+   * by another viewer already, which is invoked on worker threads
+   * @return Results, null if the search is constrained or if there are no cached results
    */
-  private List<DataBoundUISlot<DataType>> applyFilter() {
-    if (this.parameter.slots == null)
-      return new ArrayList<>();
+  private @Nullable SearchResults<DataType> lookUpCachedResults(
+    DatasetSnapshot<DataType> snapshot,
+    @Nullable ISearchFilterEnum<?, DataType> filter,
+    @Nullable SearchQuery<DataType> query,
+    List<ISearchConstraint<DataType>> constraints,
+    @Nullable DatasetOrdering<DataType> ordering,
+    int orderedCount
+  ) {
+    if (filter == null || query == null || query.hasTerms() || !constraints.isEmpty())
+      return null;
 
-    if (this.searchText == null || StringUtils.isBlank(this.searchText))
-      return new ArrayList<>(this.parameter.slots);
+    String[] searchWords = this.normalizer.normalize(query.freeText);
 
-    String[] searchWords = this.searchText.trim().toLowerCase(Locale.ROOT).split(" ");
-    Map<DataBoundUISlot<DataType>, Integer> results = new HashMap<>();
+    if (searchWords.length == 0)
+      return null;
 
-    for (DataBoundUISlot<DataType> slotItem : this.parameter.slots) {
-      String[] words = currentFilter.getWords().apply(slotItem.data);
-      int diff = calculateDifference(searchWords, words);
+    SearchResults<DataType> results = SearchResultCache.getInstance().get(snapshot, filter, this.normalizer, this.fuzzySearchDistance, searchWords, ordering);
 
-      if (diff >= 0)
-        results.put(slotItem, diff);
+    if (results != null)
+      results.order(orderedCount);
+
+    return results;
+  }
+
+  /**
+   * Applies the filter algorithm to a snapshot of the dataset by making use of the parsed query as well
+   * as the filter enum to extract the target words to search through, which is invoked on worker threads
+   * @return Results, null if the search has been cancelled
+   */
+  private @Nullable SearchResults<DataType> runSearch(
+    DatasetSnapshot<DataType> snapshot,
+    @Nullable ISearchFilterEnum<?, DataType> filter,
+    @Nullable SearchQuery<DataType> query,
+    List<ISearchConstraint<DataType>> constraints,
+    @Nullable DatasetOrdering<DataType> ordering,
+    String @Nullable [] previousSearchWords,
+    int @Nullable [] previousPositions,
+    int orderedCount,
+    boolean isCaching,
+    BooleanSupplier isCancelled
+  ) {
+    PositionSet restriction = constraints.isEmpty() ? null : composeConstraints(snapshot, constraints);
+
+    // Field comparisons are answered by the field indices, without visiting any other entries
+    if (query != null && query.hasTerms()) {
+      PositionSet fieldMatches = Objects.requireNonNull(query.findMatches(snapshot));
+      restriction = restriction == null ? fieldMatches : restriction.and(fieldMatches);
     }
 
-    return results.entrySet().stream()
-      .sorted(this::filterResultsComparator)
-      .map(Map.Entry::getKey)
-      .collect(Collectors.toList());
+    String[] searchWords = query == null ? new String[0] : this.normalizer.normalize(query.freeText);
+
+    if (searchWords.length == 0 || filter == null) {
+      if (restriction == null)
+        return SearchResults.all(snapshot, ordering);
+
+      int[] positions = new int[restriction.size()];
+      int numberOfPositions = restriction.toArray(positions);
+
+      // Walk the ordering's permutation instead of sorting the restricted positions
+      if (ordering != null) {
+        numberOfPositions = 0;
+
+        for (int position : ordering.getPermutation(snapshot).positions) {
+          if (restriction.contains(position))
+            positions[numberOfPositions++] = position;
+        }
+      }
+
+      return new SearchResults<>(snapshot, null, null, ordering, positions, new int[positions.length], numberOfPositions);
+    }
+
+    SearchIndex<DataType> index = SearchIndex.of(snapshot, filter, this.normalizer);
+
+    int[] positions;
+    int numberOfResults;
+
+    // Scoring needs room for all candidates, while only the matches are copied out of the thread's reused buffers
+    SearchWorkers.ScoringBuffers buffers = SearchWorkers.getScoringBuffers(Math.max(index.size(), previousPositions == null ? 0 : previousPositions.length));
+
+    // Extending or adding words only ever narrows down the previous matches, so only those need to be re-scored,
+    // which does not hold for typo-tolerant matches, as a longer search word may tolerate more typos
+    if (this.fuzzySearchDistance == 0 && previousSearchWords != null && previousPositions != null && SearchIndex.isRefinement(previousSearchWords, searchWords)) {
+      positions = previousPositions;
+      numberOfResults = index.refine(searchWords, positions, buffers.differences, positions.length, this.parallelSearchThreshold, isCancelled);
+    }
+
+    // Only entries which contain all grams of the search words which do not tolerate typos are scored
+    else {
+      positions = buffers.positions;
+      numberOfResults = index.search(searchWords, this.fuzzySearchDistance, restriction, positions, buffers.differences, this.parallelSearchThreshold, isCancelled);
+    }
+
+    if (numberOfResults < 0)
+      return null;
+
+    SearchResults<DataType> results = new SearchResults<>(
+      snapshot, searchWords, filter, ordering,
+      Arrays.copyOf(positions, numberOfResults), Arrays.copyOf(buffers.differences, numberOfResults), numberOfResults
+    );
+    results.order(orderedCount);
+
+    // Results of constrained searches are specific to the viewer's selection of constraints and field comparisons
+    if (isCaching && restriction == null)
+      SearchResultCache.getInstance().put(results, this.normalizer, this.fuzzySearchDistance);
+
+    return results;
   }
 
   /**
-   * Comparator function to compare two map entries of a filter result, which compares by
-   * difference value and only then invokes the data's own compare function
+   * Combines the matches of all constraints, where the matches of constraints within the same group are
+   * united and the matches of all groups are intersected, while each constraint's matches are only
+   * computed once per snapshot, so that toggling a constraint only ever computes that constraint's matches
    */
-  private int filterResultsComparator(Map.Entry<DataBoundUISlot<DataType>, Integer> a, Map.Entry<DataBoundUISlot<DataType>, Integer> b) {
-    int result;
+  private static <DataType extends Comparable<DataType>> PositionSet composeConstraints(
+    DatasetSnapshot<DataType> snapshot,
+    List<ISearchConstraint<DataType>> constraints
+  ) {
+    Map<Object, PositionSet> matchesByGroup = new HashMap<>();
+
+    for (ISearchConstraint<DataType> constraint : constraints) {
+      PositionSet matches = ConstraintMatches.of(snapshot, constraint);
+      Object group = constraint.getGroup() == null ? constraint : constraint.getGroup();
+      matchesByGroup.merge(group, matches, PositionSet::or);
+    }
+
+    PositionSet result = null;
 
-    if ((result = a.getValue().compareTo(b.getValue())) != 0)
-      return result;
+    for (PositionSet matches : matchesByGroup.values())
+      result = result == null ? matches : result.and(matches);
 
-    return a.getKey().data.compareTo(b.getKey().data);
+    return result == null ? PositionSet.EMPTY : result;
   }
 
   /**
-   * Calculates a number which represents the difference between all available words
-   * within the list of texts and the search words, where every text word may only match once.
-   * @param searchWords Words to match
-   * @param words Words to search in
-   * @return Difference, < 0 if there was no match for all words
+   * Checks whether a single entry satisfies all active constraints, the same way as {@link #composeConstraints}
    */
-  private int calculateDifference(String[] searchWords, String[] words) {
-    // Create a copy to remove matched words from
-    int[] matchedWordFlags = new int[words.length / Integer.SIZE + 1];
+  private static <DataType extends Comparable<DataType>> boolean satisfiesConstraints(List<ISearchConstraint<DataType>> constraints, DataType data) {
+    Map<Object, Boolean> satisfiedByGroup = new HashMap<>();
 
-    // Iterate all words and count sum the total diff
-    int totalDiff = 0;
-    for (String word : searchWords) {
+    for (ISearchConstraint<DataType> constraint : constraints) {
+      Object group = constraint.getGroup() == null ? constraint : constraint.getGroup();
+      satisfiedByGroup.merge(group, constraint.test(data), Boolean::logicalOr);
+    }
 
-      // Find the best match for the current word in all remaining words
-      int bestMatchDiff = Integer.MAX_VALUE;
-      int bestMatchFlagsIndex = -1;
-      int bestMatchFlagsMask = 0;
+    return !satisfiedByGroup.containsValue(false);
+  }
 
-      for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
-        int matchedFlagsIndex = wordIndex / Integer.SIZE;
-        int matchedFlagsMask = 1 << (wordIndex % Integer.SIZE);
+  private void applyCompletedSearch() {
+    CompletedSearch<DataType> completed = this.completedSearch.getAndSet(null);
 
-        if ((matchedWordFlags[matchedFlagsIndex] & matchedFlagsMask) != 0)
-          continue;
+    if (completed == null)
+      return;
 
-        String availWord = words[wordIndex];
+    // Only searches which actually ran are averaged, as patches and cache hits would make searching seem cheaper
+    if (completed.durationMs >= 0)
+      this.searchDebounce.recordSearch(completed.durationMs);
 
-        // Not containing the target word
-        int index = availWord.indexOf(word.toLowerCase());
-        if (index < 0)
-          continue;
+    // Superseded in the meantime, the latest request will complete later on
+    if (completed.generation != this.searchGeneration.get())
+      return;
 
-        // The difference is determined by how many other chars are padding the search word
-        int diff = availWord.length() - word.length();
+    this.appliedGeneration = completed.generation;
+    this.results = completed.results;
+    this.resultsConstraintsVersion = completed.constraintsVersion;
+    this.resultsQuery = completed.query;
 
-        // Compare and update the local best match
-        if (diff < bestMatchDiff) {
-          bestMatchDiff = diff;
-          bestMatchFlagsIndex = matchedFlagsIndex;
-          bestMatchFlagsMask = matchedFlagsMask;
-        }
+    // Facets may have been redeclared in the meantime, which are then counted by the next search
+    if (completed.facets == this.facets) {
+      this.facetCounts.clear();
+
+      int facetIndex = 0;
+
+      for (String name : completed.facets.keySet())
+        this.facetCounts.put(name, completed.facetCounts[facetIndex++]);
+    }
+
+    this.handle.drawSlotByName(KEY_FILTER);
+    this.handle.drawSlotByName(KEY_RESULT);
+
+    if (!completed.keepPage) {
+      this.handle.setPageSource(this.resultsSource);
+      return;
+    }
+
+    // Results before the first changed index still point at the same slots
+    this.handle.updatePageSource(this.resultsSource, completed.changedFrom, Integer.MAX_VALUE, completed.forcedIndices);
+  }
+
+  /**
+   * Brings the applied results up to date with the latest version of the dataset, once there's no pending request
+   * anymore, as each request either completes with the version it has been made for, or is superseded by a newer one
+   */
+  private void followDataset(DatasetSnapshot<DataType> snapshot) {
+    if (this.results == null || snapshot == this.results.getSnapshot() || this.appliedGeneration != this.searchGeneration.get())
+      return;
+
+    // Re-apply the search while staying on the current page
+    if (!requestPatch(snapshot))
+      requestSearch(true);
+  }
+
+  /**
+   * Hands the changes of a version which directly follows the applied results over to a worker, which patches
+   * a copy of the results, see {@link #patchResults}, as the applied results keep on being displayed meanwhile
+   * @return True if a patch has been requested, false if the search has to be re-applied
+   */
+  private boolean requestPatch(DatasetSnapshot<DataType> snapshot) {
+    SearchResults<DataType> results = Objects.requireNonNull(this.results);
+    DatasetSnapshot<DataType> previous = results.getSnapshot();
+    DatasetChange change = snapshot.getChange();
+
+    // Published as a whole or others published in between, positions cannot be mapped anymore
+    if (change == null || previous.getDataset() != snapshot.getDataset() || previous.getVersion() + 1 != snapshot.getVersion())
+      return false;
+
+    if (change.getNumberOfUpdated() + change.getNumberOfAdded() > MAX_PATCHED_CHANGES)
+      return false;
+
+    int generation = this.searchGeneration.incrementAndGet();
+
+    SearchResults<DataType> patchedResults = results.copy();
+    int constraintsVersion = this.resultsConstraintsVersion;
+    SearchQuery<DataType> query = this.resultsQuery;
+    int orderedCount = this.handle.getWindowOffset() + this.orderAheadCount;
+
+    // Results might still be constrained by a previous selection, which is re-applied as a whole later on
+    List<ISearchConstraint<DataType>> constraints = constraintsVersion == this.constraintsVersion ? this.activeConstraints : null;
+
+    // Counts are only patched if all facets have been counted for the applied results
+    Map<String, ISearchConstraint<DataType>> facets = this.facets;
+    int[] facetCounts = new int[facets.size()];
+    int facetIndex = 0;
+
+    for (String name : facets.keySet()) {
+      Integer count = this.facetCounts.get(name);
+
+      if (count == null) {
+        facetCounts = null;
+        break;
       }
 
-      // No match found for the current word, all words need to match, thus cancel
-      if (bestMatchFlagsIndex < 0)
+      facetCounts[facetIndex++] = count;
+    }
+
+    int[] patchedFacetCounts = facetCounts;
+
+    SearchWorkers.getPool().execute(() -> {
+      if (this.searchGeneration.get() != generation)
+        return;
+
+      complete(patchResults(generation, patchedResults, snapshot, change, constraintsVersion, constraints, query, facets, patchedFacetCounts, orderedCount));
+    });
+
+    return true;
+  }
+
+  /**
+   * Patches results by the changes of a version which directly follows them, where only updated and added entries
+   * are scored, while the page is only redrawn from the first result index which changed onwards, which is invoked
+   * on worker threads
+   * @param constraints Constraints which added entries have to satisfy, null if they have been toggled in the meantime
+   * @param facetCounts Facet counts of the results, which are patched in place, null if they have not been counted
+   * @param orderedCount Number of leading results to order, so that the displayed window is ordered ahead of time
+   * @return Completion, which always stays on the current page
+   */
+  private CompletedSearch<DataType> patchResults(
+    int generation,
+    SearchResults<DataType> results,
+    DatasetSnapshot<DataType> snapshot,
+    DatasetChange change,
+    int constraintsVersion,
+    @Nullable List<ISearchConstraint<DataType>> constraints,
+    @Nullable SearchQuery<DataType> query,
+    Map<String, ISearchConstraint<DataType>> facets,
+    int @Nullable [] facetCounts,
+    int orderedCount
+  ) {
+    DatasetSnapshot<DataType> previous = results.getSnapshot();
+
+    int changedFrom = results.rebase(snapshot, change.mapRetainedPositions(), position -> ConstraintMatches.updateFacetCounts(facets, facetCounts, previous.getData(position), -1));
+
+    int[] changedPositions = change.getChangedPositions();
+    int[] updatedPositions = change.getUpdatedPositions();
+
+    // Slots which have been altered in place keep their identity, so they need to be re-rendered explicitly
+    int[] forcedIndices = new int[updatedPositions.length];
+    int numberOfForced = 0, updatedIndex = 0;
+
+    for (int i = 0; i < changedPositions.length; i++) {
+      // Updated entries occur among the changed positions in the same order, in between inserted entries
+      int previousPosition = -1;
+
+      if (updatedIndex < updatedPositions.length && change.mapPosition(updatedPositions[updatedIndex]) == changedPositions[i])
+        previousPosition = updatedPositions[updatedIndex++];
+
+      int index = insertIntoResults(results, changedPositions[i], constraints, query, facets, facetCounts);
+
+      if (index < 0)
+        continue;
+
+      changedFrom = Math.min(changedFrom, index);
+
+      // Indices which have been recorded before are shifted by the insertion
+      for (int j = 0; j < numberOfForced; j++) {
+        if (forcedIndices[j] >= index)
+          ++forcedIndices[j];
+      }
+
+      if (previousPosition >= 0 && previous.isSameEntry(previousPosition, snapshot, changedPositions[i]))
+        forcedIndices[numberOfForced++] = index;
+    }
+
+    // Results past the ordered prefix of the copy may have been ordered differently on the main thread in the meantime
+    changedFrom = Math.min(changedFrom, results.getNumberOfOrdered());
+
+    // Rebased results compare entries directly, which is better done here than on the main thread
+    results.order(orderedCount);
+
+    return new CompletedSearch<>(
+      generation, results, true, -1, constraintsVersion, query,
+      facetCounts == null ? Collections.emptyMap() : facets, facetCounts == null ? new int[0] : facetCounts,
+      changedFrom, Arrays.copyOf(forcedIndices, numberOfForced)
+    );
+  }
+
+  /**
+   * Scores the entry at a position of the results' snapshot against their search and inserts it into them at it's
+   * sorted position, see {@link #patchResults}
+   * @param position Position within the results' snapshot
+   * @return Index the entry has been inserted at, -1 if it does not match
+   */
+  private int insertIntoResults(
+    SearchResults<DataType> results,
+    int position,
+    @Nullable List<ISearchConstraint<DataType>> constraints,
+    @Nullable SearchQuery<DataType> query,
+    Map<String, ISearchConstraint<DataType>> facets,
+    int @Nullable [] facetCounts
+  ) {
+    String[] searchWords = results.getSearchWords();
+    ISearchFilterEnum<?, DataType> filter = results.getFilter();
+    int diff = 0;
+
+    DataType data = results.getSnapshot().getData(position);
+
+    if ((constraints != null && !satisfiesConstraints(constraints, data)) || (query != null && !query.matches(data)))
+      return -1;
+
+    if (searchWords != null && filter != null) {
+      String[] words = this.normalizer.normalize(filter.getWords().apply(data));
+      diff = SearchIndex.calculateDifference(searchWords, words, this.fuzzySearchDistance);
+
+      if (diff < 0)
         return -1;
+    }
 
-      // Remove the matching word from the list and add it's difference to the total
-      matchedWordFlags[bestMatchFlagsIndex] |= bestMatchFlagsMask;
-      totalDiff += bestMatchDiff;
+    int index = results.insert(position, diff);
+    ConstraintMatches.updateFacetCounts(facets, facetCounts, data, 1);
+    return index;
+  }
+
+  private Inventory createInventory(String title) {
+    return Bukkit.createInventory(null, InventoryType.ANVIL, title);
+  }
+
+  /**
+   * Live view onto the applied results, which orders results on demand
+   */
+  private class ResultsPageSource implements IPageSource<DataType> {
+
+    @Override
+    public int getSize() {
+      return results == null ? 0 : results.size();
+    }
+
+    @Override
+    public void fetchWindow(int offset, int length, Consumer<List<DataBoundUISlot<DataType>>> callback) {
+      callback.accept(results == null ? Collections.emptyList() : results.getWindow(offset, length));
     }
+  }
 
-    return totalDiff;
+  private static class CompletedSearch<DataType extends Comparable<DataType>> {
+
+    private final int generation;
+    private final SearchResults<DataType> results;
+    private final boolean keepPage;
+    private final double durationMs;
+    private final int constraintsVersion;
+    private final @Nullable SearchQuery<DataType> query;
+    private final Map<String, ISearchConstraint<DataType>> facets;
+    private final int[] facetCounts;
+
+    // First result index which changed, as well as indices to re-render in any case, which only apply if keeping the page
+    private final int changedFrom;
+    private final int[] forcedIndices;
+
+    /**
+     * @param durationMs Duration of the search, -1 if the results have been patched or looked up from the cache instead
+     */
+    private CompletedSearch(
+      int generation, SearchResults<DataType> results, boolean keepPage,
+      double durationMs, int constraintsVersion, @Nullable SearchQuery<DataType> query,
+      Map<String, ISearchConstraint<DataType>> facets, int[] facetCounts,
+      int changedFrom, int[] forcedIndices
+    ) {
+      this.generation = generation;
+      this.results = results;
+      this.keepPage = keepPage;
+      this.durationMs = durationMs;
+      this.constraintsVersion = constraintsVersion;
+      this.query = query;
+      this.facets = facets;
+      this.facetCounts = facetCounts;
+      this.changedFrom = changedFrom;
+      this.forcedIndices = forcedIndices;
+    }
   }
 }
@@ -26,24 +26,45 @@ package me.blvckbytes.bukkitinventoryui.anvilsearch;
 
 import me.blvckbytes.bukkitevaluable.IItemBuildable;
 import me.blvckbytes.bukkitinventoryui.pageable.PageableUISection;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.util.List;
 
 public class AnvilSearchUISection extends PageableUISection implements IAnvilSearchParameterProvider {
 
+  // Splitting up scoring costs a fixed ~0.15ms, which is below a tenth of scoring 25000 candidates
+  // sequentially at about 0.1 microseconds each, while smaller searches finish within fractions of a tick anyways
+  private static final int DEFAULT_PARALLEL_SEARCH_THRESHOLD = 25000;
+  private static final int DEFAULT_SEARCH_DEBOUNCE_MAX_MS = 1000;
+
   private IItemBuildable filter;
   private IItemBuildable back;
   private IItemBuildable searchItem;
   private IItemBuildable resultItem;
   private IItemBuildable newButton;
+  private IItemBuildable ordering;
 
+  // Optional values are null as long as they've not been specified, where defaults are applied after parsing
   private int searchDebounceTicks;
+  private @Nullable Integer searchDebounceMinMs;
+  private @Nullable Integer searchDebounceMaxMs;
+  private @Nullable Integer parallelSearchThreshold;
+  private @Nullable Integer fuzzySearchDistance;
+  private @Nullable Boolean stripColors;
+  private @Nullable Boolean foldDiacritics;
+  private boolean stemWords;
 
   @Override
   public void afterParsing(List<Field> fields) throws Exception {
     super.afterParsing(fields);
     this.searchDebounceTicks = Math.max(0, searchDebounceTicks);
+
+    // The fixed debounce of previous versions is kept as the floor, if no floor has been specified explicitly
+    this.searchDebounceMinMs = searchDebounceMinMs == null ? searchDebounceTicks * 50 : Math.max(0, searchDebounceMinMs);
+    this.searchDebounceMaxMs = Math.max(this.searchDebounceMinMs, searchDebounceMaxMs == null ? DEFAULT_SEARCH_DEBOUNCE_MAX_MS : searchDebounceMaxMs);
+    this.parallelSearchThreshold = parallelSearchThreshold == null ? DEFAULT_PARALLEL_SEARCH_THRESHOLD : Math.max(0, parallelSearchThreshold);
+    this.fuzzySearchDistance = fuzzySearchDistance == null ? 0 : Math.max(0, fuzzySearchDistance);
   }
 
   @Override
@@ -71,8 +92,39 @@ public class AnvilSearchUISection extends PageableUISection implements IAnvilSea
     return this.newButton;
   }
 
+  @Override
+  public IItemBuildable getOrdering() {
+    return this.ordering;
+  }
+
   @Override
   public int getSearchDebounceTicks() {
     return searchDebounceTicks;
   }
+
+  @Override
+  public int getSearchDebounceMinMs() {
+    return searchDebounceMinMs;
+  }
+
+  @Override
+  public int getSearchDebounceMaxMs() {
+    return searchDebounceMaxMs;
+  }
+
+  @Override
+  public int getParallelSearchThreshold() {
+    return parallelSearchThreshold;
+  }
+
+  @Override
+  public int getFuzzySearchDistance() {
+    return fuzzySearchDistance;
+  }
+
+  @Override
+  public ITextNormalizer getTextNormalizer() {
+    // Normalizers are compared by their configuration, so that separately created instances still share indices
+    return new TextNormalizer(stripColors == null || stripColors, foldDiacritics == null || foldDiacritics, stemWords);
+  }
 }
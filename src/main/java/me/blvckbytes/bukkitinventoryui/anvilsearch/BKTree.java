@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import java.util.Arrays;
+
+public class BKTree {
+
+  private final String[] terms;
+
+  // Node i holds terms[i], where children are kept as singly linked lists of siblings
+  private final int[] firstChild;
+  private final int[] nextSibling;
+  private final int[] parentDistance;
+
+  /**
+   * Create a new tree over a dictionary of distinct terms, where each term is
+   * identified by it's index within the dictionary
+   */
+  public BKTree(String[] terms) {
+    this.terms = terms;
+    this.firstChild = new int[terms.length];
+    this.nextSibling = new int[terms.length];
+    this.parentDistance = new int[terms.length];
+
+    Arrays.fill(this.firstChild, -1);
+    Arrays.fill(this.nextSibling, -1);
+
+    for (int termId = 1; termId < terms.length; termId++)
+      insert(termId);
+  }
+
+  /**
+   * Find all terms within a maximum edit distance of a query, where only subtrees which may
+   * contain matches according to the triangle inequality are visited
+   * @return Matches as (termId << 32 | distance), ascending by term id
+   */
+  public long[] search(String query, int maxDistance) {
+    if (this.terms.length == 0)
+      return new long[0];
+
+    long[] matches = new long[8];
+    int numberOfMatches = 0;
+
+    int[] stack = new int[this.terms.length];
+    int stackSize = 0;
+    stack[stackSize++] = 0;
+
+    while (stackSize > 0) {
+      int node = stack[--stackSize];
+      int distance = distance(query, this.terms[node]);
+
+      if (distance <= maxDistance) {
+        if (numberOfMatches == matches.length)
+          matches = Arrays.copyOf(matches, matches.length * 2);
+
+        matches[numberOfMatches++] = ((long) node << 32) | distance;
+      }
+
+      for (int child = this.firstChild[node]; child >= 0; child = this.nextSibling[child]) {
+        if (Math.abs(this.parentDistance[child] - distance) <= maxDistance)
+          stack[stackSize++] = child;
+      }
+    }
+
+    matches = Arrays.copyOf(matches, numberOfMatches);
+    Arrays.sort(matches);
+    return matches;
+  }
+
+  private void insert(int termId) {
+    int node = 0;
+
+    while (true) {
+      int distance = distance(this.terms[node], this.terms[termId]);
+
+      // Duplicates are not expected within a dictionary, but cannot be told apart either way
+      if (distance == 0)
+        return;
+
+      int child = this.firstChild[node];
+
+      while (child >= 0 && this.parentDistance[child] != distance)
+        child = this.nextSibling[child];
+
+      if (child < 0) {
+        this.parentDistance[termId] = distance;
+        this.nextSibling[termId] = this.firstChild[node];
+        this.firstChild[node] = termId;
+        return;
+      }
+
+      node = child;
+    }
+  }
+
+  /**
+   * Calculates the levenshtein distance between two words
+   */
+  public static int distance(String a, String b) {
+    return boundedDistance(a, b, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Calculates the levenshtein distance between two words, but stops as soon as it exceeds a limit
+   * @return Distance, -1 if it exceeds the limit
+   */
+  public static int boundedDistance(String a, String b, int maxDistance) {
+    if (Math.abs(a.length() - b.length()) > maxDistance)
+      return -1;
+
+    int[] previousRow = new int[b.length() + 1];
+    int[] currentRow = new int[b.length() + 1];
+
+    for (int j = 0; j <= b.length(); j++)
+      previousRow[j] = j;
+
+    for (int i = 1; i <= a.length(); i++) {
+      currentRow[0] = i;
+      int rowMinimum = i;
+
+      for (int j = 1; j <= b.length(); j++) {
+        int substitutionCost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        currentRow[j] = Math.min(Math.min(currentRow[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + substitutionCost);
+        rowMinimum = Math.min(rowMinimum, currentRow[j]);
+      }
+
+      // Distances never decrease from one row to the next
+      if (rowMinimum > maxDistance)
+        return -1;
+
+      int[] swap = previousRow;
+      previousRow = currentRow;
+      currentRow = swap;
+    }
+
+    int result = previousRow[b.length()];
+    return result > maxDistance ? -1 : result;
+  }
+}
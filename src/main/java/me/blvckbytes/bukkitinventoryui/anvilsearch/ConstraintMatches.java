@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+public class ConstraintMatches {
+
+  private ConstraintMatches() {}
+
+  /**
+   * Get the matches of a constraint, which are computed once per snapshot, where the matches of a new
+   * version are derived from the matches of the previous version, by only testing changed entries
+   */
+  public static <DataType extends Comparable<DataType>> PositionSet of(
+    DatasetSnapshot<DataType> snapshot,
+    ISearchConstraint<DataType> constraint
+  ) {
+    return snapshot.getAttachment(
+      constraint,
+      s -> {
+        int[] positions = new int[s.size()];
+        int numberOfMatches = 0;
+
+        for (int position = 0; position < s.size(); position++) {
+          if (constraint.test(s.getData(position)))
+            positions[numberOfMatches++] = position;
+        }
+
+        return PositionSet.of(positions, numberOfMatches);
+      },
+      (previous, s, change) -> {
+        int[] positions = change.getChangedPositions();
+        int numberOfMatches = 0;
+
+        for (int position : positions) {
+          if (constraint.test(s.getData(position)))
+            positions[numberOfMatches++] = position;
+        }
+
+        return previous.remap(change.mapRetainedPositions(), positions, numberOfMatches);
+      }
+    );
+  }
+
+  /**
+   * Counts the results matching each facet, by probing all results into the facet's matches,
+   * which are computed once per snapshot, while results of blank searches are counted by set sizes
+   * @return Counts in the order of the facets
+   */
+  public static <DataType extends Comparable<DataType>> int[] countFacets(
+    DatasetSnapshot<DataType> snapshot,
+    Map<String, ISearchConstraint<DataType>> facets,
+    SearchResults<DataType> results
+  ) {
+    int[] counts = new int[facets.size()];
+    int facetIndex = 0;
+
+    for (ISearchConstraint<DataType> facet : facets.values()) {
+      PositionSet matches = of(snapshot, facet);
+      counts[facetIndex++] = results.size() == snapshot.size() ? matches.size() : results.count(matches);
+    }
+
+    return counts;
+  }
+
+  /**
+   * Patches facet counts after a single entry has been added to or removed from the results they've been counted for
+   * @param facetCounts Counts in the order of the facets, null if the results have not been counted
+   */
+  public static <DataType extends Comparable<DataType>> void updateFacetCounts(
+    Map<String, ISearchConstraint<DataType>> facets,
+    int @Nullable [] facetCounts,
+    DataType data,
+    int delta
+  ) {
+    if (facetCounts == null)
+      return;
+
+    int facetIndex = 0;
+
+    for (ISearchConstraint<DataType> facet : facets.values()) {
+      if (facet.test(data))
+        facetCounts[facetIndex] += delta;
+
+      ++facetIndex;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+public class FuzzyMatches {
+
+  private final String[] searchWords;
+  private final int[] maxDistances;
+
+  // Per search word, all terms of a dictionary within it's maximum distance as (termId << 32 | distance)
+  private final long @Nullable [][] termMatches;
+
+  /**
+   * Create fuzzy matches which compute distances on demand, for words which are not part of a dictionary
+   * @param searchWords Normalized search words
+   * @param maxDistance Maximum edit distance of long search words, see {@link #getMaxDistance(String, int)}
+   */
+  public FuzzyMatches(String[] searchWords, int maxDistance) {
+    this(searchWords, maxDistance, null);
+  }
+
+  /**
+   * Create fuzzy matches which look up distances of dictionary terms
+   * @param termMatches Matches as returned by {@link BKTree#search(String, int)} for each search word
+   */
+  public FuzzyMatches(String[] searchWords, int maxDistance, long @Nullable [][] termMatches) {
+    this.searchWords = searchWords;
+    this.termMatches = termMatches;
+    this.maxDistances = new int[searchWords.length];
+
+    for (int i = 0; i < searchWords.length; i++)
+      this.maxDistances[i] = getMaxDistance(searchWords[i], maxDistance);
+  }
+
+  /**
+   * Get the edit distance a search word may be off by, where short words tolerate less
+   * typos, as they would otherwise match nearly every other short word
+   */
+  public static int getMaxDistance(String searchWord, int maxDistance) {
+    return Math.min(maxDistance, searchWord.length() / 4);
+  }
+
+  /**
+   * Checks whether a search word tolerates any typos at all
+   */
+  public boolean isTolerant(int searchWordIndex) {
+    return this.maxDistances[searchWordIndex] > 0;
+  }
+
+  /**
+   * Get all terms of the dictionary which a search word matches within it's maximum distance
+   * @return Matches as (termId << 32 | distance) in ascending order, null if there's no dictionary
+   */
+  public long @Nullable [] getTermMatches(int searchWordIndex) {
+    return this.termMatches == null ? null : this.termMatches[searchWordIndex];
+  }
+
+  /**
+   * Get the edit distance between a search word and a word
+   * @param searchWordIndex Index of the search word
+   * @param word Word to compare against
+   * @param termId Id of the word within the dictionary, -1 if it's not part of the dictionary
+   * @return Distance, -1 if it exceeds the search word's maximum distance
+   */
+  public int getDistance(int searchWordIndex, String word, int termId) {
+    int maxDistance = this.maxDistances[searchWordIndex];
+
+    if (maxDistance == 0)
+      return -1;
+
+    if (this.termMatches == null || termId < 0)
+      return BKTree.boundedDistance(this.searchWords[searchWordIndex], word, maxDistance);
+
+    long[] matches = this.termMatches[searchWordIndex];
+    int index = Arrays.binarySearch(matches, (long) termId << 32);
+
+    // Exact key not found, the match with the term's id is located at the insertion point, if any
+    if (index < 0)
+      index = -index - 1;
+
+    if (index >= matches.length || (int) (matches[index] >>> 32) != termId)
+      return -1;
+
+    return (int) matches[index];
+  }
+}
@@ -39,6 +39,39 @@ public interface IAnvilSearchParameterProvider extends IPageableParameterProvide
 
   IItemBuildable getNewButton();
 
+  /**
+   * Get the item which toggles through the declared orderings, which may make use of the
+   * variable ordering, holding the current ordering's name, as well as of the map orderings
+   */
+  IItemBuildable getOrdering();
+
   int getSearchDebounceTicks();
 
+  /**
+   * Get the minimum time in milliseconds to hold back search requests for, while typing
+   */
+  int getSearchDebounceMinMs();
+
+  /**
+   * Get the maximum time in milliseconds to hold back search requests for, which is
+   * approached when searches are expensive or the server is under load
+   */
+  int getSearchDebounceMaxMs();
+
+  /**
+   * Get the number of candidates above which a search is scored in parallel, zero disables parallel scoring
+   */
+  int getParallelSearchThreshold();
+
+  /**
+   * Get the number of typos a search word may contain, where shorter words tolerate
+   * proportionally fewer typos, zero only allows for exact matches
+   */
+  int getFuzzySearchDistance();
+
+  /**
+   * Get the normalizer which splits both item texts and search texts up into comparable words
+   */
+  ITextNormalizer getTextNormalizer();
+
 }
@@ -24,6 +24,8 @@
 
 package me.blvckbytes.bukkitinventoryui.anvilsearch;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
 
 public interface ISearchFilterEnum<T extends Enum<?>, M> {
@@ -35,11 +37,19 @@ public interface ISearchFilterEnum<T extends Enum<?>, M> {
   ISearchFilterEnum<T, M>[] listValues();
 
   /**
-   * Get a sequence of normalized words (trimmed, lower-case) to search
-   * through when provided a model's instance
+   * Get a sequence of texts to search through when provided a model's instance, which
+   * are normalized into words by the UI's {@link ITextNormalizer} once when being indexed
    */
   Function<M, String[]> getWords();
 
+  /**
+   * Get the typed fields which may be compared against within the search text, such as
+   * price<100 or seller:notch, which are expected to be constants
+   */
+  default List<SearchField<M>> getFields() {
+    return Collections.emptyList();
+  }
+
   /**
    * Get the next enum value in the enum's ordinal sequence
    * and wrap around if performed on the last value
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public class KeywordFieldIndex {
+
+  // Matches of each lower-case keyword
+  private final Map<String, PositionSet> matchesByKeyword;
+
+  private <DataType extends Comparable<DataType>> KeywordFieldIndex(DatasetSnapshot<DataType> snapshot, SearchField<DataType> field) {
+    // Positions are visited in ascending order, so every keyword's positions end up ascending as well
+    Map<String, int[]> positionsByKeyword = new HashMap<>();
+    Map<String, Integer> counts = new HashMap<>();
+
+    for (int position = 0; position < snapshot.size(); position++) {
+      String keyword = field.getKeyword(snapshot.getData(position));
+
+      if (keyword == null)
+        continue;
+
+      keyword = normalizeKeyword(keyword);
+
+      int count = counts.getOrDefault(keyword, 0);
+      int[] positions = positionsByKeyword.get(keyword);
+
+      if (positions == null || positions.length == count) {
+        positions = positions == null ? new int[4] : Arrays.copyOf(positions, count * 2);
+        positionsByKeyword.put(keyword, positions);
+      }
+
+      positions[count] = position;
+      counts.put(keyword, count + 1);
+    }
+
+    this.matchesByKeyword = new HashMap<>(positionsByKeyword.size() * 2);
+
+    for (Map.Entry<String, int[]> entry : positionsByKeyword.entrySet())
+      this.matchesByKeyword.put(entry.getKey(), PositionSet.of(entry.getValue(), counts.get(entry.getKey())));
+  }
+
+  /**
+   * Derives the index from the index of the previous snapshot, where only changed entries are looked up
+   */
+  private <DataType extends Comparable<DataType>> KeywordFieldIndex(KeywordFieldIndex previous, DatasetSnapshot<DataType> snapshot, DatasetChange change, SearchField<DataType> field) {
+    int[] retainedPositions = change.mapRetainedPositions();
+    Map<String, int[]> changedByKeyword = new HashMap<>();
+    Map<String, Integer> counts = new HashMap<>();
+
+    for (int position : change.getChangedPositions()) {
+      String keyword = field.getKeyword(snapshot.getData(position));
+
+      if (keyword == null)
+        continue;
+
+      keyword = normalizeKeyword(keyword);
+
+      int count = counts.getOrDefault(keyword, 0);
+      int[] positions = changedByKeyword.get(keyword);
+
+      if (positions == null || positions.length == count) {
+        positions = positions == null ? new int[4] : Arrays.copyOf(positions, count * 2);
+        changedByKeyword.put(keyword, positions);
+      }
+
+      positions[count] = position;
+      counts.put(keyword, count + 1);
+    }
+
+    this.matchesByKeyword = new HashMap<>((previous.matchesByKeyword.size() + changedByKeyword.size()) * 2);
+
+    for (Map.Entry<String, PositionSet> entry : previous.matchesByKeyword.entrySet()) {
+      int[] changed = changedByKeyword.remove(entry.getKey());
+      PositionSet matches = entry.getValue().remap(retainedPositions, changed == null ? new int[0] : changed, changed == null ? 0 : counts.get(entry.getKey()));
+
+      if (matches.size() > 0)
+        this.matchesByKeyword.put(entry.getKey(), matches);
+    }
+
+    // Keywords which no previous entry had
+    for (Map.Entry<String, int[]> entry : changedByKeyword.entrySet())
+      this.matchesByKeyword.put(entry.getKey(), PositionSet.of(entry.getValue(), counts.get(entry.getKey())));
+  }
+
+  /**
+   * Get the index of a keyword field for a snapshot, which is built once on first access
+   * or derived from the index of the previous snapshot if there's one
+   */
+  public static <DataType extends Comparable<DataType>> KeywordFieldIndex of(DatasetSnapshot<DataType> snapshot, SearchField<DataType> field) {
+    return snapshot.getAttachment(
+      field, s -> new KeywordFieldIndex(s, field),
+      (previous, s, change) -> new KeywordFieldIndex(previous, s, change, field)
+    );
+  }
+
+  /**
+   * Find all entries whose keyword equals the given keyword, ignoring case
+   */
+  public PositionSet find(String keyword) {
+    return this.matchesByKeyword.getOrDefault(normalizeKeyword(keyword), PositionSet.EMPTY);
+  }
+
+  public static String normalizeKeyword(String keyword) {
+    return keyword.trim().toLowerCase(Locale.ROOT);
+  }
+}
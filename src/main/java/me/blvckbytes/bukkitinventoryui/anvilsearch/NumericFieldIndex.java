@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+
+import java.util.Arrays;
+
+public class NumericFieldIndex {
+
+  // Values of all entries which have one in ascending order, as well as the position of each value's entry
+  private final double[] values;
+  private final int[] positions;
+
+  private <DataType extends Comparable<DataType>> NumericFieldIndex(DatasetSnapshot<DataType> snapshot, SearchField<DataType> field) {
+    double[] values = new double[snapshot.size()];
+    int[] positions = new int[snapshot.size()];
+    int numberOfValues = 0;
+
+    // The field's extractor is only ever invoked once per entry, where entries without a value are left out
+    for (int position = 0; position < snapshot.size(); position++) {
+      double value = field.getNumber(snapshot.getData(position));
+
+      if (Double.isNaN(value))
+        continue;
+
+      values[numberOfValues] = value;
+      positions[numberOfValues] = position;
+      ++numberOfValues;
+    }
+
+    this.values = Arrays.copyOf(values, numberOfValues);
+    this.positions = Arrays.copyOf(positions, numberOfValues);
+
+    sort(this.values, this.positions, values, positions, 0, numberOfValues);
+  }
+
+  /**
+   * Derives the index from the index of the previous snapshot, where only the values of changed entries are
+   * extracted and sorted, which are then merged into the retained values, as those keep their order
+   */
+  private <DataType extends Comparable<DataType>> NumericFieldIndex(NumericFieldIndex previous, DatasetSnapshot<DataType> snapshot, DatasetChange change, SearchField<DataType> field) {
+    int[] retainedPositions = change.mapRetainedPositions();
+    int[] changedPositions = change.getChangedPositions();
+
+    double[] changedValues = new double[changedPositions.length];
+    int[] changedValuePositions = new int[changedPositions.length];
+    int numberOfChanged = 0;
+
+    for (int position : changedPositions) {
+      double value = field.getNumber(snapshot.getData(position));
+
+      if (Double.isNaN(value))
+        continue;
+
+      changedValues[numberOfChanged] = value;
+      changedValuePositions[numberOfChanged] = position;
+      ++numberOfChanged;
+    }
+
+    sort(changedValues, changedValuePositions, new double[numberOfChanged], new int[numberOfChanged], 0, numberOfChanged);
+
+    double[] values = new double[previous.values.length + numberOfChanged];
+    int[] positions = new int[values.length];
+    int numberOfValues = 0, changedIndex = 0;
+
+    for (int i = 0; i < previous.values.length; i++) {
+      int position = retainedPositions[previous.positions[i]];
+
+      if (position < 0)
+        continue;
+
+      while (changedIndex < numberOfChanged && changedValues[changedIndex] < previous.values[i]) {
+        values[numberOfValues] = changedValues[changedIndex];
+        positions[numberOfValues++] = changedValuePositions[changedIndex++];
+      }
+
+      values[numberOfValues] = previous.values[i];
+      positions[numberOfValues++] = position;
+    }
+
+    while (changedIndex < numberOfChanged) {
+      values[numberOfValues] = changedValues[changedIndex];
+      positions[numberOfValues++] = changedValuePositions[changedIndex++];
+    }
+
+    this.values = Arrays.copyOf(values, numberOfValues);
+    this.positions = Arrays.copyOf(positions, numberOfValues);
+  }
+
+  /**
+   * Get the index of a numeric field for a snapshot, which is built once on first access
+   * or derived from the index of the previous snapshot if there's one
+   */
+  public static <DataType extends Comparable<DataType>> NumericFieldIndex of(DatasetSnapshot<DataType> snapshot, SearchField<DataType> field) {
+    return snapshot.getAttachment(
+      field, s -> new NumericFieldIndex(s, field),
+      (previous, s, change) -> new NumericFieldIndex(previous, s, change, field)
+    );
+  }
+
+  /**
+   * Find all entries whose value lies within a range
+   * @param lowerBound Lower bound of the range
+   * @param lowerInclusive Whether the lower bound itself is part of the range
+   * @param upperBound Upper bound of the range
+   * @param upperInclusive Whether the upper bound itself is part of the range
+   */
+  public PositionSet findRange(double lowerBound, boolean lowerInclusive, double upperBound, boolean upperInclusive) {
+    int fromIndex = lowerInclusive ? firstIndexNotBelow(lowerBound) : firstIndexAbove(lowerBound);
+    int toIndex = upperInclusive ? firstIndexAbove(upperBound) : firstIndexNotBelow(upperBound);
+
+    if (fromIndex >= toIndex)
+      return PositionSet.EMPTY;
+
+    int[] matches = Arrays.copyOfRange(this.positions, fromIndex, toIndex);
+    Arrays.sort(matches);
+    return PositionSet.of(matches, matches.length);
+  }
+
+  private int firstIndexNotBelow(double value) {
+    int low = 0, high = this.values.length;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (this.values[middle] < value)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+
+    return low;
+  }
+
+  private int firstIndexAbove(double value) {
+    int low = 0, high = this.values.length;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (this.values[middle] <= value)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+
+    return low;
+  }
+
+  /**
+   * Sorts values ascending while keeping their positions aligned, by a stable merge sort
+   * which uses the buffers as scratch space, as there's no primitive sort by key
+   */
+  private static void sort(double[] values, int[] positions, double[] valueBuffer, int[] positionBuffer, int fromIndex, int toIndex) {
+    if (toIndex - fromIndex < 2)
+      return;
+
+    int middle = (fromIndex + toIndex) >>> 1;
+
+    sort(values, positions, valueBuffer, positionBuffer, fromIndex, middle);
+    sort(values, positions, valueBuffer, positionBuffer, middle, toIndex);
+
+    // Already in order, as both halves are sorted
+    if (values[middle - 1] <= values[middle])
+      return;
+
+    System.arraycopy(values, fromIndex, valueBuffer, fromIndex, toIndex - fromIndex);
+    System.arraycopy(positions, fromIndex, positionBuffer, fromIndex, toIndex - fromIndex);
+
+    for (int i = fromIndex, left = fromIndex, right = middle; i < toIndex; i++) {
+      if (right == toIndex || (left < middle && valueBuffer[left] <= valueBuffer[right])) {
+        values[i] = valueBuffer[left];
+        positions[i] = positionBuffer[left++];
+      }
+
+      else {
+        values[i] = valueBuffer[right];
+        positions[i] = positionBuffer[right++];
+      }
+    }
+  }
+}
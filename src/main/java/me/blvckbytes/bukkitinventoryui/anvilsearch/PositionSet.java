@@ -0,0 +1,425 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of positions, which is split up into containers of 2^16 positions each, where sparse
+ * containers hold their sorted low bits as chars and dense containers are bitmaps, like roaring bitmaps
+ */
+public class PositionSet {
+
+  private static final int CONTAINER_BITS = 16;
+  private static final int LOW_BITS_MASK = (1 << CONTAINER_BITS) - 1;
+  private static final int BITMAP_WORDS = (1 << CONTAINER_BITS) / Long.SIZE;
+
+  // Containers holding more than this many positions take up less space as a bitmap
+  private static final int ARRAY_CONTAINER_LIMIT = 4096;
+
+  public static final PositionSet EMPTY = new PositionSet(new int[0], new Object[0], new int[0], 0);
+
+  // Ascending high bits of all non-empty containers, where each container is either a sorted char[] or a long[] bitmap
+  private final int[] keys;
+  private final Object[] containers;
+  private final int[] cardinalities;
+  private final int size;
+
+  private PositionSet(int[] keys, Object[] containers, int[] cardinalities, int numberOfContainers) {
+    this.keys = keys;
+    this.containers = containers;
+    this.cardinalities = cardinalities;
+
+    int size = 0;
+
+    for (int i = 0; i < numberOfContainers; i++)
+      size += cardinalities[i];
+
+    this.size = size;
+  }
+
+  /**
+   * Create a set from ascending, distinct positions
+   */
+  public static PositionSet of(int[] positions, int length) {
+    int[] keys = new int[0];
+    Object[] containers = new Object[0];
+    int[] cardinalities = new int[0];
+    int numberOfContainers = 0;
+
+    for (int start = 0; start < length;) {
+      int key = positions[start] >>> CONTAINER_BITS;
+      int end = start;
+
+      while (end < length && positions[end] >>> CONTAINER_BITS == key)
+        ++end;
+
+      int cardinality = end - start;
+      Object container;
+
+      if (cardinality > ARRAY_CONTAINER_LIMIT) {
+        long[] bitmap = new long[BITMAP_WORDS];
+
+        for (int i = start; i < end; i++)
+          bitmap[(positions[i] & LOW_BITS_MASK) >>> 6] |= 1L << positions[i];
+
+        container = bitmap;
+      }
+
+      else {
+        char[] values = new char[cardinality];
+
+        for (int i = start; i < end; i++)
+          values[i - start] = (char) positions[i];
+
+        container = values;
+      }
+
+      if (numberOfContainers == keys.length) {
+        int capacity = Math.max(4, keys.length * 2);
+        keys = Arrays.copyOf(keys, capacity);
+        containers = Arrays.copyOf(containers, capacity);
+        cardinalities = Arrays.copyOf(cardinalities, capacity);
+      }
+
+      keys[numberOfContainers] = key;
+      containers[numberOfContainers] = container;
+      cardinalities[numberOfContainers] = cardinality;
+      ++numberOfContainers;
+
+      start = end;
+    }
+
+    return new PositionSet(
+      Arrays.copyOf(keys, numberOfContainers), Arrays.copyOf(containers, numberOfContainers),
+      Arrays.copyOf(cardinalities, numberOfContainers), numberOfContainers
+    );
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  public boolean contains(int position) {
+    int containerIndex = Arrays.binarySearch(this.keys, position >>> CONTAINER_BITS);
+
+    if (containerIndex < 0)
+      return false;
+
+    Object container = this.containers[containerIndex];
+
+    if (container instanceof long[])
+      return (((long[]) container)[(position & LOW_BITS_MASK) >>> 6] & (1L << position)) != 0;
+
+    return Arrays.binarySearch((char[]) container, (char) position) >= 0;
+  }
+
+  /**
+   * Write all positions into a buffer in ascending order
+   * @return Number of positions written
+   */
+  public int toArray(int[] buffer) {
+    int length = 0;
+
+    for (int containerIndex = 0; containerIndex < this.keys.length; containerIndex++) {
+      int high = this.keys[containerIndex] << CONTAINER_BITS;
+      Object container = this.containers[containerIndex];
+
+      if (container instanceof char[]) {
+        for (char value : (char[]) container)
+          buffer[length++] = high | value;
+        continue;
+      }
+
+      long[] bitmap = (long[]) container;
+
+      for (int word = 0; word < bitmap.length; word++) {
+        for (long bits = bitmap[word]; bits != 0; bits &= bits - 1)
+          buffer[length++] = high | (word << 6) | Long.numberOfTrailingZeros(bits);
+      }
+    }
+
+    return length;
+  }
+
+  /**
+   * Retain only those of the ascending positions within a buffer which are contained in this set, in place
+   * @return Number of positions retained
+   */
+  public int retainAll(int[] positions, int length) {
+    int numberOfRetained = 0;
+
+    for (int i = 0; i < length; i++) {
+      if (contains(positions[i]))
+        positions[numberOfRetained++] = positions[i];
+    }
+
+    return numberOfRetained;
+  }
+
+  /**
+   * Get the positions of this set mapped onto another snapshot, united with additional positions
+   * @param positionMap Monotonic map of positions, where positions which map to -1 are dropped
+   * @param additions Ascending positions to add, which no retained position maps onto
+   * @param numberOfAdditions Number of positions to add
+   */
+  public PositionSet remap(int[] positionMap, int[] additions, int numberOfAdditions) {
+    int[] positions = new int[this.size];
+    int numberOfPositions = toArray(positions);
+    int[] result = new int[numberOfPositions + numberOfAdditions];
+    int resultLength = 0, additionIndex = 0;
+
+    for (int i = 0; i < numberOfPositions; i++) {
+      int position = positionMap[positions[i]];
+
+      if (position < 0)
+        continue;
+
+      // As the map keeps the order, both sequences are ascending and can be merged
+      while (additionIndex < numberOfAdditions && additions[additionIndex] < position)
+        result[resultLength++] = additions[additionIndex++];
+
+      result[resultLength++] = position;
+    }
+
+    while (additionIndex < numberOfAdditions)
+      result[resultLength++] = additions[additionIndex++];
+
+    return of(result, resultLength);
+  }
+
+  /**
+   * Get the positions which are contained in both sets
+   */
+  public PositionSet and(PositionSet other) {
+    int capacity = Math.min(this.keys.length, other.keys.length);
+    int[] keys = new int[capacity];
+    Object[] containers = new Object[capacity];
+    int[] cardinalities = new int[capacity];
+    int numberOfContainers = 0;
+
+    for (int i = 0, j = 0; i < this.keys.length && j < other.keys.length;) {
+      if (this.keys[i] < other.keys[j]) {
+        ++i;
+        continue;
+      }
+
+      if (this.keys[i] > other.keys[j]) {
+        ++j;
+        continue;
+      }
+
+      Object container = intersect(this.containers[i], other.containers[j]);
+      int cardinality = cardinality(container);
+
+      if (cardinality > 0) {
+        keys[numberOfContainers] = this.keys[i];
+        containers[numberOfContainers] = optimize(container, cardinality);
+        cardinalities[numberOfContainers] = cardinality;
+        ++numberOfContainers;
+      }
+
+      ++i;
+      ++j;
+    }
+
+    return new PositionSet(
+      Arrays.copyOf(keys, numberOfContainers), Arrays.copyOf(containers, numberOfContainers),
+      Arrays.copyOf(cardinalities, numberOfContainers), numberOfContainers
+    );
+  }
+
+  /**
+   * Get the positions which are contained in either set
+   */
+  public PositionSet or(PositionSet other) {
+    int capacity = this.keys.length + other.keys.length;
+    int[] keys = new int[capacity];
+    Object[] containers = new Object[capacity];
+    int[] cardinalities = new int[capacity];
+    int numberOfContainers = 0;
+
+    for (int i = 0, j = 0; i < this.keys.length || j < other.keys.length;) {
+      if (j == other.keys.length || (i < this.keys.length && this.keys[i] < other.keys[j])) {
+        keys[numberOfContainers] = this.keys[i];
+        containers[numberOfContainers] = this.containers[i];
+        cardinalities[numberOfContainers++] = this.cardinalities[i++];
+        continue;
+      }
+
+      if (i == this.keys.length || this.keys[i] > other.keys[j]) {
+        keys[numberOfContainers] = other.keys[j];
+        containers[numberOfContainers] = other.containers[j];
+        cardinalities[numberOfContainers++] = other.cardinalities[j++];
+        continue;
+      }
+
+      Object container = unite(this.containers[i], other.containers[j]);
+      int cardinality = cardinality(container);
+
+      keys[numberOfContainers] = this.keys[i];
+      containers[numberOfContainers] = optimize(container, cardinality);
+      cardinalities[numberOfContainers++] = cardinality;
+
+      ++i;
+      ++j;
+    }
+
+    return new PositionSet(
+      Arrays.copyOf(keys, numberOfContainers), Arrays.copyOf(containers, numberOfContainers),
+      Arrays.copyOf(cardinalities, numberOfContainers), numberOfContainers
+    );
+  }
+
+  private static Object intersect(Object a, Object b) {
+    if (a instanceof long[] && b instanceof long[]) {
+      long[] result = new long[BITMAP_WORDS];
+
+      for (int i = 0; i < BITMAP_WORDS; i++)
+        result[i] = ((long[]) a)[i] & ((long[]) b)[i];
+
+      return result;
+    }
+
+    // Probe each value of the array into the bitmap
+    if (a instanceof long[] || b instanceof long[]) {
+      char[] values = (char[]) (a instanceof long[] ? b : a);
+      long[] bitmap = (long[]) (a instanceof long[] ? a : b);
+      char[] result = new char[values.length];
+      int length = 0;
+
+      for (char value : values) {
+        if ((bitmap[value >>> 6] & (1L << value)) != 0)
+          result[length++] = value;
+      }
+
+      return Arrays.copyOf(result, length);
+    }
+
+    char[] x = (char[]) a, y = (char[]) b;
+    char[] result = new char[Math.min(x.length, y.length)];
+    int length = 0;
+
+    for (int i = 0, j = 0; i < x.length && j < y.length;) {
+      if (x[i] < y[j])
+        ++i;
+      else if (x[i] > y[j])
+        ++j;
+      else {
+        result[length++] = x[i];
+        ++i;
+        ++j;
+      }
+    }
+
+    return Arrays.copyOf(result, length);
+  }
+
+  private static Object unite(Object a, Object b) {
+    if (a instanceof char[] && b instanceof char[]) {
+      char[] x = (char[]) a, y = (char[]) b;
+      char[] result = new char[x.length + y.length];
+      int length = 0, i = 0, j = 0;
+
+      while (i < x.length || j < y.length) {
+        if (j == y.length || (i < x.length && x[i] < y[j]))
+          result[length++] = x[i++];
+        else if (i == x.length || x[i] > y[j])
+          result[length++] = y[j++];
+        else {
+          result[length++] = x[i++];
+          ++j;
+        }
+      }
+
+      return Arrays.copyOf(result, length);
+    }
+
+    long[] result = toBitmap(a);
+
+    if (b instanceof long[]) {
+      for (int i = 0; i < BITMAP_WORDS; i++)
+        result[i] |= ((long[]) b)[i];
+    }
+
+    else {
+      for (char value : (char[]) b)
+        result[value >>> 6] |= 1L << value;
+    }
+
+    return result;
+  }
+
+  private static long[] toBitmap(Object container) {
+    if (container instanceof long[])
+      return ((long[]) container).clone();
+
+    long[] bitmap = new long[BITMAP_WORDS];
+
+    for (char value : (char[]) container)
+      bitmap[value >>> 6] |= 1L << value;
+
+    return bitmap;
+  }
+
+  private static int cardinality(Object container) {
+    if (container instanceof char[])
+      return ((char[]) container).length;
+
+    int cardinality = 0;
+
+    for (long word : (long[]) container)
+      cardinality += Long.bitCount(word);
+
+    return cardinality;
+  }
+
+  /**
+   * Converts a container into the representation which suits it's cardinality
+   */
+  private static Object optimize(Object container, int cardinality) {
+    if (container instanceof char[]) {
+      if (cardinality <= ARRAY_CONTAINER_LIMIT)
+        return container;
+
+      return toBitmap(container);
+    }
+
+    if (cardinality > ARRAY_CONTAINER_LIMIT)
+      return container;
+
+    long[] bitmap = (long[]) container;
+    char[] values = new char[cardinality];
+    int length = 0;
+
+    for (int word = 0; word < bitmap.length; word++) {
+      for (long bits = bitmap[word]; bits != 0; bits &= bits - 1)
+        values[length++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+    }
+
+    return values;
+  }
+}
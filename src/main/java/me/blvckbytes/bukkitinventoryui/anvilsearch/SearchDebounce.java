@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+public class SearchDebounce {
+
+  // Weight of the latest measurement within the moving averages of search and tick durations
+  private static final double AVERAGE_WEIGHT = .25;
+
+  // Search requests are held back for a multiple of the time a search takes, in order to coalesce keystrokes
+  private static final double DEBOUNCE_COST_FACTOR = 2;
+
+  private static final double NOMINAL_TICK_MS = 50;
+
+  private final int minMs;
+  private final int maxMs;
+
+  // Moving averages of how long searches take on the workers and how long ticks take on the main thread
+  private double averageSearchMs;
+  private double averageTickMs;
+  private long lastTickNanos;
+
+  /**
+   * Create a debounce which adapts to the cost of searching as well as to the load of the server
+   * @param minMs Floor of the time to hold back search requests for
+   * @param maxMs Ceiling of the time to hold back search requests for
+   */
+  public SearchDebounce(int minMs, int maxMs) {
+    this.minMs = minMs;
+    this.maxMs = maxMs;
+    this.averageTickMs = NOMINAL_TICK_MS;
+  }
+
+  /**
+   * Measures the time since the previous tick, which is to be called on every tick of the main thread
+   */
+  public void recordTick(long tickNanos) {
+    if (this.lastTickNanos != 0)
+      this.averageTickMs = updateAverage(this.averageTickMs, (tickNanos - this.lastTickNanos) / 1_000_000D);
+
+    this.lastTickNanos = tickNanos;
+  }
+
+  /**
+   * Takes a search which actually ran into account, while patches and cache hits would make searching seem cheaper
+   */
+  public void recordSearch(double durationMs) {
+    this.averageSearchMs = updateAverage(this.averageSearchMs, durationMs);
+  }
+
+  /**
+   * Get the time to hold back search requests for, which grows with the cost of searching
+   * as well as with the load of the server, bounded by the floor and ceiling
+   */
+  public long getDelayMs() {
+    double loadFactor = Math.max(1, this.averageTickMs / NOMINAL_TICK_MS);
+    long debounceMs = Math.round(this.averageSearchMs * DEBOUNCE_COST_FACTOR * loadFactor);
+    return Math.max(this.minMs, Math.min(this.maxMs, debounceMs));
+  }
+
+  private static double updateAverage(double average, double value) {
+    return average + AVERAGE_WEIGHT * (value - average);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Typed field of a model, which may be queried by name within the search text, where
+ * instances are expected to be constants, as indices of fields are shared by identity
+ */
+public class SearchField<M> {
+
+  public final String name;
+  public final ESearchFieldType type;
+
+  private final @Nullable ToDoubleFunction<M> numberExtractor;
+  private final @Nullable Function<M, @Nullable String> keywordExtractor;
+
+  private SearchField(
+    String name,
+    ESearchFieldType type,
+    @Nullable ToDoubleFunction<M> numberExtractor,
+    @Nullable Function<M, @Nullable String> keywordExtractor
+  ) {
+    this.name = name;
+    this.type = type;
+    this.numberExtractor = numberExtractor;
+    this.keywordExtractor = keywordExtractor;
+  }
+
+  /**
+   * Create a field which supports the comparisons <, <=, >, >=, = and :, where : is an alias for =
+   */
+  public static <M> SearchField<M> numeric(String name, ToDoubleFunction<M> extractor) {
+    return new SearchField<>(name, ESearchFieldType.NUMERIC, extractor, null);
+  }
+
+  /**
+   * Create a field which supports the case-insensitive comparisons = and :
+   */
+  public static <M> SearchField<M> keyword(String name, Function<M, @Nullable String> extractor) {
+    return new SearchField<>(name, ESearchFieldType.KEYWORD, null, extractor);
+  }
+
+  /**
+   * Get the numeric value of a model's instance, NaN if it has none
+   */
+  public double getNumber(M model) {
+    if (this.numberExtractor == null)
+      throw new IllegalStateException("Field " + this.name + " is not numeric");
+
+    return this.numberExtractor.applyAsDouble(model);
+  }
+
+  /**
+   * Get the keyword of a model's instance, null if it has none
+   */
+  public @Nullable String getKeyword(M model) {
+    if (this.keywordExtractor == null)
+      throw new IllegalStateException("Field " + this.name + " is not a keyword");
+
+    return this.keywordExtractor.apply(model);
+  }
+}
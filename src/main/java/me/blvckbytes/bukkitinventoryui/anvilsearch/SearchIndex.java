@@ -0,0 +1,1340 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class SearchIndex<DataType extends Comparable<DataType>> {
+
+  private static final int GRAM_LENGTH = 3;
+
+  // Number of candidates a single parallel scoring task handles without splitting up any further, where scoring
+  // takes about 0.1 microseconds per candidate, so that a chunk of ~0.2ms outweighs forking a task by far, while searches
+  // at the default parallel threshold are still split into a dozen chunks, which balance out across workers
+  private static final int PARALLEL_CHUNK_SIZE = 2048;
+
+  // Number of candidates to score between checks for cancellation
+  private static final int CANCELLATION_CHECK_INTERVAL = 1024;
+
+  // Share of changed entries above which the index of a new version is built anew instead of being patched
+  private static final double MAX_PATCHED_SHARE = .25;
+
+  // Capacity of each thread's memo of differences between search words and terms, which is only ever filled up to half
+  private static final int MAX_MEMOIZED_DIFFERENCES = 1 << 17;
+
+  // Memos are reused by all queries scored on the same thread, where entries are tagged by query instead of being cleared
+  private static final ThreadLocal<DifferenceMemo> DIFFERENCE_MEMOS = ThreadLocal.withInitial(DifferenceMemo::new);
+  private static final AtomicInteger NEXT_QUERY_ID = new AtomicInteger();
+
+  // Dictionary of all distinct words in ascending order, as well as the length of each term
+  private final String[] terms;
+  private final int[] termLengths;
+
+  // Term ids of the words of all entries back to back, where the words of the entry at position i
+  // are stored within wordTermIds[wordOffsets[i]; wordOffsets[i + 1])
+  private final IntBuffer wordOffsets;
+  private final IntBuffer wordTermIds;
+
+  // Tree of terms for fuzzy lookups, which is only built once it's first needed
+  private volatile @Nullable BKTree termTree;
+
+  // Ascending positions of all entries containing each term, which are only built once a search
+  // consisting of typo-tolerant words only needs to collect the entries of the terms it matched
+  private volatile @Nullable TermPostings termPostings;
+
+  // Posting lists in compressed sparse row layout, where the ascending positions of all entries
+  // containing the gram gramKeys[i] are stored within postings[postingOffsets[i]; postingOffsets[i + 1])
+  private final LongBuffer gramKeys;
+  private final IntBuffer postingOffsets;
+  private final IntBuffer postings;
+
+  // All numeric tables are accessed through buffers, which either wrap arrays on the
+  // heap or view an index file which has been mapped into memory, see SearchIndexFile
+
+  private SearchIndex(DatasetSnapshot<DataType> snapshot, ISearchFilterEnum<?, DataType> filter, ITextNormalizer normalizer) {
+    // The filter's word function as well as the normalizer are only ever invoked once per entry
+    String[][] wordsByPosition = new String[snapshot.size()][];
+    int numberOfWords = 0;
+
+    for (int position = 0; position < snapshot.size(); position++) {
+      wordsByPosition[position] = normalizer.normalize(filter.getWords().apply(snapshot.getData(position)));
+      numberOfWords += wordsByPosition[position].length;
+    }
+
+    String[] words = new String[numberOfWords];
+    int[] wordOffsets = new int[snapshot.size() + 1];
+
+    int numberOfGrams = 0;
+
+    for (int position = 0; position < wordsByPosition.length; position++) {
+      String[] entryWords = wordsByPosition[position];
+      int offset = wordOffsets[position];
+
+      System.arraycopy(entryWords, 0, words, offset, entryWords.length);
+      wordOffsets[position + 1] = offset + entryWords.length;
+
+      for (String word : entryWords)
+        numberOfGrams += Math.max(0, word.length() - GRAM_LENGTH + 1);
+    }
+
+    String[] sortedWords = words.clone();
+    Arrays.sort(sortedWords);
+    String[] terms = Arrays.copyOf(sortedWords, deduplicate(sortedWords));
+    int[] wordTermIds = new int[words.length];
+
+    for (int i = 0; i < words.length; i++)
+      wordTermIds[i] = Arrays.binarySearch(terms, words[i]);
+
+    // Collect all distinct grams in ascending order, so that they can be looked up by binary search
+    long[] grams = new long[numberOfGrams];
+    int gramIndex = 0;
+
+    for (String word : words) {
+      for (int i = 0; i + GRAM_LENGTH <= word.length(); i++)
+        grams[gramIndex++] = encodeGram(word, i);
+    }
+
+    Arrays.sort(grams);
+    long[] gramKeys = Arrays.copyOf(grams, deduplicate(grams, grams.length));
+
+    // Pair up each occurrence's gram id with it's position, where sorting groups them by gram
+    long[] pairs = grams;
+    int pairIndex = 0;
+
+    for (int position = 0; position < snapshot.size(); position++) {
+      for (int wordIndex = wordOffsets[position]; wordIndex < wordOffsets[position + 1]; wordIndex++) {
+        String word = words[wordIndex];
+
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+          long gramId = Arrays.binarySearch(gramKeys, encodeGram(word, i));
+          pairs[pairIndex++] = (gramId << 32) | position;
+        }
+      }
+    }
+
+    Arrays.sort(pairs);
+    int numberOfPairs = deduplicate(pairs, pairs.length);
+
+    int[] postingOffsets = new int[gramKeys.length + 1];
+    int[] postings = new int[numberOfPairs];
+
+    for (int i = 0; i < numberOfPairs; i++) {
+      postings[i] = (int) pairs[i];
+      ++postingOffsets[(int) (pairs[i] >>> 32) + 1];
+    }
+
+    for (int i = 0; i < gramKeys.length; i++)
+      postingOffsets[i + 1] += postingOffsets[i];
+
+    this.wordOffsets = IntBuffer.wrap(wordOffsets);
+    this.terms = terms;
+    this.termLengths = computeLengths(terms);
+    this.wordTermIds = IntBuffer.wrap(wordTermIds);
+    this.gramKeys = LongBuffer.wrap(gramKeys);
+    this.postingOffsets = IntBuffer.wrap(postingOffsets);
+    this.postings = IntBuffer.wrap(postings);
+  }
+
+  /**
+   * Derives the index from the index of the previous snapshot, where only updated and added entries are
+   * normalized, while the words, terms and postings of all retained entries are carried over by linear passes
+   */
+  private SearchIndex(
+    SearchIndex<DataType> previous, DatasetSnapshot<DataType> snapshot, DatasetChange change,
+    ISearchFilterEnum<?, DataType> filter, ITextNormalizer normalizer
+  ) {
+    int[] retainedPositions = change.mapRetainedPositions();
+    int[] changedPositions = change.getChangedPositions();
+    String[][] changedWords = new String[changedPositions.length][];
+
+    for (int i = 0; i < changedPositions.length; i++)
+      changedWords[i] = normalizer.normalize(filter.getWords().apply(snapshot.getData(changedPositions[i])));
+
+    // Terms which are new to the dictionary are merged in, while terms which are no longer contained by any entry
+    // stay, as finding them would take a full pass, which only affects fuzzy lookups by yielding unused terms
+    String[] addedTerms = collectAddedTerms(previous.terms, changedWords);
+    String[] terms;
+    int[] termIdMap = null;
+
+    if (addedTerms.length == 0) {
+      terms = previous.terms;
+      this.termTree = previous.termTree;
+    }
+
+    else {
+      terms = new String[previous.terms.length + addedTerms.length];
+      termIdMap = new int[previous.terms.length];
+
+      for (int i = 0, previousIndex = 0, addedIndex = 0; i < terms.length; i++) {
+        if (addedIndex == addedTerms.length || (previousIndex < previous.terms.length && previous.terms[previousIndex].compareTo(addedTerms[addedIndex]) < 0)) {
+          termIdMap[previousIndex] = i;
+          terms[i] = previous.terms[previousIndex++];
+        }
+
+        else
+          terms[i] = addedTerms[addedIndex++];
+      }
+    }
+
+    // Previous position of each retained entry by it's position, -1 for changed entries
+    int[] previousPositions = new int[snapshot.size()];
+    Arrays.fill(previousPositions, -1);
+
+    for (int previousPosition = 0; previousPosition < retainedPositions.length; previousPosition++) {
+      if (retainedPositions[previousPosition] >= 0)
+        previousPositions[retainedPositions[previousPosition]] = previousPosition;
+    }
+
+    int[] wordOffsets = new int[snapshot.size() + 1];
+
+    for (int position = 0, changedIndex = 0; position < snapshot.size(); position++) {
+      int previousPosition = previousPositions[position];
+      int numberOfWords = previousPosition >= 0 ? previous.wordOffsets.get(previousPosition + 1) - previous.wordOffsets.get(previousPosition) : changedWords[changedIndex++].length;
+      wordOffsets[position + 1] = wordOffsets[position] + numberOfWords;
+    }
+
+    int[] wordTermIds = new int[wordOffsets[snapshot.size()]];
+
+    for (int position = 0, changedIndex = 0; position < snapshot.size(); position++) {
+      int previousPosition = previousPositions[position];
+      int offset = wordOffsets[position];
+
+      if (previousPosition < 0) {
+        for (String word : changedWords[changedIndex++])
+          wordTermIds[offset++] = Arrays.binarySearch(terms, word);
+        continue;
+      }
+
+      for (int wordIndex = previous.wordOffsets.get(previousPosition); wordIndex < previous.wordOffsets.get(previousPosition + 1); wordIndex++) {
+        int termId = previous.wordTermIds.get(wordIndex);
+        wordTermIds[offset++] = termIdMap == null ? termId : termIdMap[termId];
+      }
+    }
+
+    // Grams which are new to the index are merged in, while grams which are no longer contained keep an empty posting list
+    int numberOfChangedGrams = 0;
+
+    for (String[] entryWords : changedWords) {
+      for (String word : entryWords)
+        numberOfChangedGrams += Math.max(0, word.length() - GRAM_LENGTH + 1);
+    }
+
+    long[] changedGrams = new long[numberOfChangedGrams];
+    int gramIndex = 0;
+
+    for (String[] entryWords : changedWords) {
+      for (String word : entryWords) {
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++)
+          changedGrams[gramIndex++] = encodeGram(word, i);
+      }
+    }
+
+    Arrays.sort(changedGrams);
+    int numberOfDistinctGrams = deduplicate(changedGrams, changedGrams.length);
+    int numberOfPreviousGrams = previous.gramKeys.limit();
+    long[] gramKeys = new long[numberOfPreviousGrams + numberOfDistinctGrams];
+    int numberOfGramKeys = 0;
+
+    for (int previousIndex = 0, changedIndex = 0; previousIndex < numberOfPreviousGrams || changedIndex < numberOfDistinctGrams;) {
+      if (changedIndex == numberOfDistinctGrams || (previousIndex < numberOfPreviousGrams && previous.gramKeys.get(previousIndex) <= changedGrams[changedIndex])) {
+        if (changedIndex < numberOfDistinctGrams && previous.gramKeys.get(previousIndex) == changedGrams[changedIndex])
+          ++changedIndex;
+
+        gramKeys[numberOfGramKeys++] = previous.gramKeys.get(previousIndex++);
+      }
+
+      else
+        gramKeys[numberOfGramKeys++] = changedGrams[changedIndex++];
+    }
+
+    gramKeys = Arrays.copyOf(gramKeys, numberOfGramKeys);
+
+    // Pair up each changed occurrence's gram id with it's position, where sorting groups them by gram
+    long[] pairs = new long[numberOfChangedGrams];
+    int numberOfPairs = 0;
+
+    for (int i = 0; i < changedPositions.length; i++) {
+      for (String word : changedWords[i]) {
+        for (int offset = 0; offset + GRAM_LENGTH <= word.length(); offset++) {
+          long gramId = Arrays.binarySearch(gramKeys, encodeGram(word, offset));
+          pairs[numberOfPairs++] = (gramId << 32) | changedPositions[i];
+        }
+      }
+    }
+
+    Arrays.sort(pairs);
+    numberOfPairs = deduplicate(pairs, numberOfPairs);
+
+    // Retained postings keep their order, as do the changed postings, so both are merged gram by gram
+    int[] postingOffsets = new int[gramKeys.length + 1];
+    int[] postings = new int[previous.postings.limit() + numberOfPairs];
+    int numberOfPostings = 0, pairIndex = 0, previousGramId = 0;
+
+    for (int gramId = 0; gramId < gramKeys.length; gramId++) {
+      int fromIndex = 0, toIndex = 0;
+
+      if (previousGramId < numberOfPreviousGrams && previous.gramKeys.get(previousGramId) == gramKeys[gramId]) {
+        fromIndex = previous.postingOffsets.get(previousGramId);
+        toIndex = previous.postingOffsets.get(++previousGramId);
+      }
+
+      for (int i = fromIndex; i < toIndex; i++) {
+        int position = retainedPositions[previous.postings.get(i)];
+
+        if (position < 0)
+          continue;
+
+        while (pairIndex < numberOfPairs && (int) (pairs[pairIndex] >>> 32) == gramId && (int) pairs[pairIndex] < position)
+          postings[numberOfPostings++] = (int) pairs[pairIndex++];
+
+        postings[numberOfPostings++] = position;
+      }
+
+      while (pairIndex < numberOfPairs && (int) (pairs[pairIndex] >>> 32) == gramId)
+        postings[numberOfPostings++] = (int) pairs[pairIndex++];
+
+      postingOffsets[gramId + 1] = numberOfPostings;
+    }
+
+    this.wordOffsets = IntBuffer.wrap(wordOffsets);
+    this.terms = terms;
+    this.termLengths = addedTerms.length == 0 ? previous.termLengths : computeLengths(terms);
+    this.wordTermIds = IntBuffer.wrap(wordTermIds);
+    this.gramKeys = LongBuffer.wrap(gramKeys);
+    this.postingOffsets = IntBuffer.wrap(postingOffsets);
+    this.postings = IntBuffer.wrap(Arrays.copyOf(postings, numberOfPostings));
+  }
+
+  /**
+   * Create an index from tables which have been read from an index file, where only the dictionary
+   * is decoded onto the heap, while all numeric tables stay within the mapped file
+   */
+  private SearchIndex(String[] terms, IntBuffer wordOffsets, IntBuffer wordTermIds, LongBuffer gramKeys, IntBuffer postingOffsets, IntBuffer postings) {
+    this.terms = terms;
+    this.termLengths = computeLengths(terms);
+    this.wordOffsets = wordOffsets;
+    this.wordTermIds = wordTermIds;
+    this.gramKeys = gramKeys;
+    this.postingOffsets = postingOffsets;
+    this.postings = postings;
+  }
+
+  /**
+   * Get the index of a snapshot for a given filter and normalizer, which is built once on first access
+   * and then shared by all searches through the same snapshot using the same filter and normalizer, where
+   * the index of a new version is derived from the index of the previous version, if only few entries changed
+   */
+  public static <DataType extends Comparable<DataType>> SearchIndex<DataType> of(
+    DatasetSnapshot<DataType> snapshot,
+    ISearchFilterEnum<?, DataType> filter,
+    ITextNormalizer normalizer
+  ) {
+    return snapshot.getAttachment(
+      getAttachmentKey(filter, normalizer),
+      s -> new SearchIndex<>(s, filter, normalizer),
+      (previous, s, change) -> {
+        int numberOfChanged = change.getNumberOfRemoved() + change.getNumberOfUpdated() + change.getNumberOfAdded();
+
+        if (numberOfChanged > s.size() * MAX_PATCHED_SHARE)
+          return new SearchIndex<>(s, filter, normalizer);
+
+        return new SearchIndex<>(previous, s, change, filter, normalizer);
+      }
+    );
+  }
+
+  /**
+   * Attaches an index to a snapshot, which has been built for it beforehand, unless there's an index already
+   * @return Index which is attached to the snapshot
+   */
+  static <DataType extends Comparable<DataType>> SearchIndex<DataType> attach(
+    DatasetSnapshot<DataType> snapshot,
+    ISearchFilterEnum<?, DataType> filter,
+    ITextNormalizer normalizer,
+    SearchIndex<DataType> index
+  ) {
+    return snapshot.getAttachment(getAttachmentKey(filter, normalizer), s -> index);
+  }
+
+  private static Object getAttachmentKey(ISearchFilterEnum<?, ?> filter, ITextNormalizer normalizer) {
+    return Arrays.asList(filter, normalizer);
+  }
+
+  /**
+   * Writes all tables of this index, which {@link #readFrom(SearchIndexFile.Reader)} reads back in the same order
+   */
+  void writeTo(SearchIndexFile.Writer writer) throws IOException {
+    writer.writeStrings(this.terms);
+    writer.writeInts(this.wordOffsets);
+    writer.writeInts(this.wordTermIds);
+    writer.writeLongs(this.gramKeys);
+    writer.writeInts(this.postingOffsets);
+    writer.writeInts(this.postings);
+  }
+
+  static <DataType extends Comparable<DataType>> SearchIndex<DataType> readFrom(SearchIndexFile.Reader reader) {
+    return new SearchIndex<>(reader.readStrings(), reader.readInts(), reader.readInts(), reader.readLongs(), reader.readInts(), reader.readInts());
+  }
+
+  /**
+   * Get the words of the entry at a given position, as extracted by the filter and normalized
+   */
+  public String[] getWords(int position) {
+    int fromIndex = this.wordOffsets.get(position);
+    String[] result = new String[this.wordOffsets.get(position + 1) - fromIndex];
+
+    for (int i = 0; i < result.length; i++)
+      result[i] = this.terms[this.wordTermIds.get(fromIndex + i)];
+
+    return result;
+  }
+
+  public int size() {
+    return this.wordOffsets.limit() - 1;
+  }
+
+  /**
+   * Searches for all entries which match every search word, where only the candidates
+   * which contain all grams of all search words are scored, without allocating
+   * @param searchWords Words to search for, normalized by the same normalizer as the index
+   * @param maxEditDistance Number of typos a long search word may contain, zero only allows for exact matches
+   * @param restriction Positions to restrict the search to, null to search through all entries
+   * @param resultPositions Buffer to write the ascending positions of all matches into, has to fit all entries
+   * @param resultDifferences Buffer to write the difference of each match into, has to fit all entries
+   * @param parallelThreshold Number of candidates above which scoring is split up across cores, zero disables
+   * @param isCancelled Checked periodically while scoring, in order to abandon superseded searches
+   * @return Number of matches, -1 if the search has been cancelled
+   */
+  public int search(
+    String[] searchWords, int maxEditDistance, @Nullable PositionSet restriction,
+    int[] resultPositions, int[] resultDifferences, int parallelThreshold, BooleanSupplier isCancelled
+  ) {
+    FuzzyMatches fuzzyMatches = maxEditDistance > 0 ? findFuzzyMatches(searchWords, maxEditDistance) : null;
+
+    // Differences are only written while scoring, so their buffer serves as scratch space up until then
+    int numberOfCandidates = findCandidates(searchWords, fuzzyMatches, resultPositions, resultDifferences);
+
+    // Constraints are cheaper to check than scoring, so candidates are narrowed down beforehand
+    if (restriction != null)
+      numberOfCandidates = restriction.retainAll(resultPositions, numberOfCandidates);
+    return scoreCandidates(searchWords, fuzzyMatches, resultPositions, resultDifferences, numberOfCandidates, parallelThreshold, isCancelled);
+  }
+
+  /**
+   * Re-scores a previous set of matches against a refined query, which can only ever match a subset
+   * of the previous matches, see {@link #isRefinement(String[], String[])}, where typos are not
+   * tolerated, as a refined query may lose typo-tolerant matches of the previous query
+   * @param searchWords Normalized words to search for
+   * @param resultPositions Positions of the previous matches, which are retained in place
+   * @param resultDifferences Buffer to write the difference of each retained match into
+   * @param numberOfResults Number of previous matches
+   * @param parallelThreshold Number of matches above which scoring is split up across cores, zero disables
+   * @param isCancelled Checked periodically while scoring, in order to abandon superseded searches
+   * @return Number of retained matches, -1 if the search has been cancelled
+   */
+  public int refine(String[] searchWords, int[] resultPositions, int[] resultDifferences, int numberOfResults, int parallelThreshold, BooleanSupplier isCancelled) {
+    return scoreCandidates(searchWords, null, resultPositions, resultDifferences, numberOfResults, parallelThreshold, isCancelled);
+  }
+
+  /**
+   * Looks up all terms of the dictionary which are within each search word's edit distance
+   */
+  public FuzzyMatches findFuzzyMatches(String[] searchWords, int maxEditDistance) {
+    BKTree termTree = this.termTree;
+
+    if (termTree == null) {
+      synchronized (this) {
+        if ((termTree = this.termTree) == null)
+          this.termTree = termTree = new BKTree(this.terms);
+      }
+    }
+
+    long[][] termMatches = new long[searchWords.length][];
+
+    for (int i = 0; i < searchWords.length; i++)
+      termMatches[i] = termTree.search(searchWords[i], FuzzyMatches.getMaxDistance(searchWords[i], maxEditDistance));
+
+    return new FuzzyMatches(searchWords, maxEditDistance, termMatches);
+  }
+
+  /**
+   * Scores all candidates and retains only the matching ones in place
+   * @return Number of matches, -1 if the search has been cancelled
+   */
+  private int scoreCandidates(
+    String[] searchWords, @Nullable FuzzyMatches fuzzyMatches,
+    int[] positions, int[] differences, int numberOfCandidates,
+    int parallelThreshold, BooleanSupplier isCancelled
+  ) {
+    TermMatcher matcher = new TermMatcher(searchWords, fuzzyMatches, numberOfCandidates);
+
+    // Score into the primitive difference buffer first, where the chunks of each task never overlap
+    if (parallelThreshold > 0 && numberOfCandidates > parallelThreshold)
+      SearchWorkers.getPool().invoke(new ScoringTask(matcher, positions, differences, 0, numberOfCandidates, isCancelled));
+    else
+      scoreRange(matcher, positions, differences, 0, numberOfCandidates, isCancelled);
+
+    // Differences of cancelled searches are incomplete
+    if (isCancelled.getAsBoolean())
+      return -1;
+
+    int numberOfResults = 0;
+
+    for (int i = 0; i < numberOfCandidates; i++) {
+      if (differences[i] < 0)
+        continue;
+
+      positions[numberOfResults] = positions[i];
+      differences[numberOfResults] = differences[i];
+      ++numberOfResults;
+    }
+
+    return numberOfResults;
+  }
+
+  private void scoreRange(
+    TermMatcher matcher, int[] positions, int[] differences,
+    int fromIndex, int toIndex, BooleanSupplier isCancelled
+  ) {
+    TermMatcher threadMatcher = matcher.bindToCurrentThread();
+
+    for (int i = fromIndex; i < toIndex; i++) {
+      if ((i - fromIndex) % CANCELLATION_CHECK_INTERVAL == 0 && isCancelled.getAsBoolean())
+        return;
+
+      int position = positions[i];
+      differences[i] = threadMatcher.calculateDifference(this.wordOffsets.get(position), this.wordOffsets.get(position + 1));
+    }
+  }
+
+  /**
+   * Checks whether a query refines a previous query, which is the case if every previous word is
+   * contained by a distinct word of the query, as every entry matching the query then also
+   * matches the previous query
+   */
+  public static boolean isRefinement(String[] previousSearchWords, String[] searchWords) {
+    return new TextMatcher(previousSearchWords, null, searchWords).calculateDifference(0, searchWords.length) >= 0;
+  }
+
+  /**
+   * Intersects the posting lists of all grams of all search words, starting out with the shortest list,
+   * while words which tolerate typos are only looked up if there are no other words to narrow down by
+   * @param buffer Buffer to write the ascending candidate positions into
+   * @param scratch Buffer of the same size, which is used while merging posting lists
+   * @return Number of candidates
+   */
+  private int findCandidates(String[] searchWords, @Nullable FuzzyMatches fuzzyMatches, int[] buffer, int[] scratch) {
+    int shortestGramId = -1;
+    int shortestLength = Integer.MAX_VALUE;
+
+    for (int searchWordIndex = 0; searchWordIndex < searchWords.length; searchWordIndex++) {
+      String searchWord = searchWords[searchWordIndex];
+
+      // Words which tolerate typos do not need to contain any of their grams
+      if (fuzzyMatches != null && fuzzyMatches.isTolerant(searchWordIndex))
+        continue;
+
+      for (int i = 0; i + GRAM_LENGTH <= searchWord.length(); i++) {
+        int gramId = findGram(encodeGram(searchWord, i));
+
+        // A gram which no entry contains can never be matched
+        if (gramId < 0)
+          return 0;
+
+        int length = getPostingsLength(gramId);
+
+        if (length < shortestLength) {
+          shortestLength = length;
+          shortestGramId = gramId;
+        }
+      }
+    }
+
+    if (shortestGramId < 0) {
+      int numberOfCandidates = fuzzyMatches == null ? -1 : findTolerantCandidates(searchWords, fuzzyMatches, buffer, scratch);
+
+      if (numberOfCandidates >= 0)
+        return numberOfCandidates;
+
+      // All search words are too short to be looked up, every entry is a candidate
+      for (int position = 0; position < size(); position++)
+        buffer[position] = position;
+
+      return size();
+    }
+
+    int numberOfCandidates = shortestLength;
+    IntBuffer shortestPostings = this.postings.duplicate();
+    shortestPostings.position(this.postingOffsets.get(shortestGramId));
+    shortestPostings.get(buffer, 0, shortestLength);
+
+    for (int searchWordIndex = 0; searchWordIndex < searchWords.length; searchWordIndex++) {
+      String searchWord = searchWords[searchWordIndex];
+
+      if (fuzzyMatches != null && fuzzyMatches.isTolerant(searchWordIndex))
+        continue;
+
+      for (int i = 0; i + GRAM_LENGTH <= searchWord.length() && numberOfCandidates > 0; i++) {
+        int gramId = findGram(encodeGram(searchWord, i));
+
+        if (gramId != shortestGramId)
+          numberOfCandidates = intersect(buffer, numberOfCandidates, gramId);
+      }
+    }
+
+    return numberOfCandidates;
+  }
+
+  /**
+   * Collects the candidates of the typo-tolerant search word with the fewest candidates, which are all entries
+   * containing all of it's grams, united with all entries containing any of the terms it matched fuzzily
+   * @return Number of candidates, < 0 if none of the search words tolerate typos
+   */
+  private int findTolerantCandidates(String[] searchWords, FuzzyMatches fuzzyMatches, int[] buffer, int[] scratch) {
+    TermPostings termPostings = getTermPostings();
+    int bestSearchWordIndex = -1;
+    int bestEstimate = Integer.MAX_VALUE;
+
+    for (int searchWordIndex = 0; searchWordIndex < searchWords.length; searchWordIndex++) {
+      long[] termMatches = fuzzyMatches.getTermMatches(searchWordIndex);
+
+      // Short words are not tolerant, and thus cannot be looked up by their grams either
+      if (!fuzzyMatches.isTolerant(searchWordIndex) || termMatches == null)
+        continue;
+
+      // The shortest posting list of a gram bounds the number of entries which contain the whole word
+      String searchWord = searchWords[searchWordIndex];
+      int estimate = Integer.MAX_VALUE;
+
+      for (int i = 0; i + GRAM_LENGTH <= searchWord.length() && estimate > 0; i++) {
+        int gramId = findGram(encodeGram(searchWord, i));
+        estimate = Math.min(estimate, gramId < 0 ? 0 : getPostingsLength(gramId));
+      }
+
+      for (long termMatch : termMatches)
+        estimate += termPostings.getLength((int) (termMatch >>> 32));
+
+      if (estimate < bestEstimate) {
+        bestEstimate = estimate;
+        bestSearchWordIndex = searchWordIndex;
+      }
+    }
+
+    if (bestSearchWordIndex < 0)
+      return -1;
+
+    String searchWord = searchWords[bestSearchWordIndex];
+    int numberOfCandidates = findGramCandidates(searchWord, buffer);
+
+    // Each term's posting list is merged into the candidates, alternating between both buffers
+    int[] candidates = buffer, merged = scratch;
+
+    for (long termMatch : fuzzyMatches.getTermMatches(bestSearchWordIndex)) {
+      numberOfCandidates = termPostings.unite((int) (termMatch >>> 32), candidates, numberOfCandidates, merged);
+
+      int[] previous = candidates;
+      candidates = merged;
+      merged = previous;
+    }
+
+    if (candidates != buffer)
+      System.arraycopy(candidates, 0, buffer, 0, numberOfCandidates);
+
+    return numberOfCandidates;
+  }
+
+  /**
+   * Intersects the posting lists of all grams of a single word
+   * @param buffer Buffer to write the ascending positions into
+   * @return Number of entries which contain all grams
+   */
+  private int findGramCandidates(String word, int[] buffer) {
+    int shortestGramId = -1;
+    int shortestLength = Integer.MAX_VALUE;
+
+    for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+      int gramId = findGram(encodeGram(word, i));
+
+      if (gramId < 0)
+        return 0;
+
+      int length = getPostingsLength(gramId);
+
+      if (length < shortestLength) {
+        shortestLength = length;
+        shortestGramId = gramId;
+      }
+    }
+
+    if (shortestGramId < 0)
+      return 0;
+
+    int numberOfCandidates = shortestLength;
+    IntBuffer shortestPostings = this.postings.duplicate();
+    shortestPostings.position(this.postingOffsets.get(shortestGramId));
+    shortestPostings.get(buffer, 0, shortestLength);
+
+    for (int i = 0; i + GRAM_LENGTH <= word.length() && numberOfCandidates > 0; i++) {
+      int gramId = findGram(encodeGram(word, i));
+
+      if (gramId != shortestGramId)
+        numberOfCandidates = intersect(buffer, numberOfCandidates, gramId);
+    }
+
+    return numberOfCandidates;
+  }
+
+  private int getPostingsLength(int gramId) {
+    return this.postingOffsets.get(gramId + 1) - this.postingOffsets.get(gramId);
+  }
+
+  private TermPostings getTermPostings() {
+    TermPostings termPostings = this.termPostings;
+
+    if (termPostings == null) {
+      synchronized (this) {
+        if ((termPostings = this.termPostings) == null)
+          this.termPostings = termPostings = new TermPostings(this.terms.length, this.wordOffsets, this.wordTermIds);
+      }
+    }
+
+    return termPostings;
+  }
+
+  /**
+   * Retains only those candidates which are also contained within a gram's posting list
+   * @return Number of remaining candidates
+   */
+  private int intersect(int[] candidates, int numberOfCandidates, int gramId) {
+    int low = this.postingOffsets.get(gramId);
+    int high = this.postingOffsets.get(gramId + 1);
+    int numberOfRetained = 0;
+
+    for (int i = 0; i < numberOfCandidates && low < high; i++) {
+      int index = findPosting(low, high, candidates[i]);
+
+      if (index < 0) {
+        low = -index - 1;
+        continue;
+      }
+
+      candidates[numberOfRetained++] = candidates[i];
+      low = index + 1;
+    }
+
+    return numberOfRetained;
+  }
+
+  /**
+   * Looks up the id of a gram by binary search
+   * @return Id, < 0 if no entry contains the gram
+   */
+  private int findGram(long gram) {
+    int low = 0, high = this.gramKeys.limit() - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long key = this.gramKeys.get(middle);
+
+      if (key < gram)
+        low = middle + 1;
+      else if (key > gram)
+        high = middle - 1;
+      else
+        return middle;
+    }
+
+    return -(low + 1);
+  }
+
+  /**
+   * Looks up a position within a range of the posting lists by binary search
+   * @return Index, -(insertion point) - 1 if the position is not contained
+   */
+  private int findPosting(int fromIndex, int toIndex, int position) {
+    int low = fromIndex, high = toIndex - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int value = this.postings.get(middle);
+
+      if (value < position)
+        low = middle + 1;
+      else if (value > position)
+        high = middle - 1;
+      else
+        return middle;
+    }
+
+    return -(low + 1);
+  }
+
+  /**
+   * Calculates a number which represents the difference between all available words
+   * within the list of texts and the search words, where every text word may only match once.
+   * @param searchWords Normalized words to match
+   * @param words Words to search in
+   * @param maxEditDistance Number of typos a long search word may contain, zero only allows for exact matches
+   * @return Difference, < 0 if there was no match for all words
+   */
+  public static int calculateDifference(String[] searchWords, String[] words, int maxEditDistance) {
+    FuzzyMatches fuzzyMatches = maxEditDistance > 0 ? new FuzzyMatches(searchWords, maxEditDistance) : null;
+    return new TextMatcher(searchWords, fuzzyMatches, words).calculateDifference(0, words.length);
+  }
+
+  /**
+   * Calculates the difference between a single search word and a word, where containing the search word
+   * costs it's padding, while typos cost the edit distance on top of the difference in length
+   * @return Difference, < 0 if the word does not match
+   */
+  private static int matchDifference(int searchWordIndex, String searchWord, @Nullable FuzzyMatches fuzzyMatches, String word, int termId) {
+    int padding = word.length() - searchWord.length();
+
+    if (padding >= 0 && word.indexOf(searchWord) >= 0)
+      return padding;
+
+    if (fuzzyMatches == null)
+      return -1;
+
+    int distance = fuzzyMatches.getDistance(searchWordIndex, word, termId);
+
+    if (distance < 0)
+      return -1;
+
+    return distance + Math.abs(padding);
+  }
+
+  private static boolean assignSearchWord(int[] differences, int numberOfWords, int searchWordIndex, int[] searchWordByWord, boolean[] visitedWords) {
+    for (int wordIndex = 0; wordIndex < numberOfWords; wordIndex++) {
+      if (visitedWords[wordIndex] || differences[searchWordIndex * numberOfWords + wordIndex] < 0)
+        continue;
+
+      visitedWords[wordIndex] = true;
+
+      // Either the word is still free or it's current search word can be moved on to another word
+      if (searchWordByWord[wordIndex] < 0 || assignSearchWord(differences, numberOfWords, searchWordByWord[wordIndex], searchWordByWord, visitedWords)) {
+        searchWordByWord[wordIndex] = searchWordIndex;
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static int[] computeLengths(String[] terms) {
+    int[] lengths = new int[terms.length];
+
+    for (int i = 0; i < terms.length; i++)
+      lengths[i] = terms[i].length();
+
+    return lengths;
+  }
+
+  /**
+   * Collects all distinct words of changed entries which are not yet contained by a dictionary
+   * @return Words in ascending order
+   */
+  private static String[] collectAddedTerms(String[] terms, String[][] changedWords) {
+    int numberOfWords = 0;
+
+    for (String[] entryWords : changedWords)
+      numberOfWords += entryWords.length;
+
+    String[] result = new String[numberOfWords];
+    int numberOfAdded = 0;
+
+    for (String[] entryWords : changedWords) {
+      for (String word : entryWords) {
+        if (Arrays.binarySearch(terms, word) < 0)
+          result[numberOfAdded++] = word;
+      }
+    }
+
+    String[] addedTerms = Arrays.copyOf(result, numberOfAdded);
+    Arrays.sort(addedTerms);
+    return Arrays.copyOf(addedTerms, deduplicate(addedTerms));
+  }
+
+  private static long encodeGram(String word, int offset) {
+    return ((long) word.charAt(offset) << 32) | ((long) word.charAt(offset + 1) << 16) | word.charAt(offset + 2);
+  }
+
+  /**
+   * Removes adjacent duplicates from a sorted array in place
+   * @return Number of distinct values
+   */
+  private static int deduplicate(String[] values) {
+    int numberOfDistinct = 0;
+
+    for (String value : values) {
+      if (numberOfDistinct == 0 || !values[numberOfDistinct - 1].equals(value))
+        values[numberOfDistinct++] = value;
+    }
+
+    return numberOfDistinct;
+  }
+
+  /**
+   * Removes adjacent duplicates from a sorted array in place
+   * @return Number of distinct values
+   */
+  private static int deduplicate(long[] values, int length) {
+    int numberOfDistinct = 0;
+
+    for (int i = 0; i < length; i++) {
+      if (numberOfDistinct == 0 || values[numberOfDistinct - 1] != values[i])
+        values[numberOfDistinct++] = values[i];
+    }
+
+    return numberOfDistinct;
+  }
+
+  /**
+   * Matches search words against words which are addressed by their index, where each search word
+   * has to be matched by a distinct word, see {@link #calculateDifference(String[], String[], int)}
+   */
+  private static abstract class WordMatcher {
+
+    protected final String[] searchWords;
+    protected final @Nullable FuzzyMatches fuzzyMatches;
+
+    protected WordMatcher(String[] searchWords, @Nullable FuzzyMatches fuzzyMatches) {
+      this.searchWords = searchWords;
+      this.fuzzyMatches = fuzzyMatches;
+    }
+
+    protected abstract int getLength(int wordIndex);
+
+    /**
+     * Calculates the difference between a search word and a word, see {@link #matchDifference(int, String, FuzzyMatches, String, int)}
+     */
+    protected abstract int matchDifference(int searchWordIndex, int wordIndex);
+
+    /**
+     * Calculates the difference of all search words against the words within [fromIndex; toIndex)
+     * @return Difference, < 0 if there was no match for all words
+     */
+    int calculateDifference(int fromIndex, int toIndex) {
+      int numberOfWords = toIndex - fromIndex;
+
+      // Flags of words which have already been matched, where only entries of more than 64 words need to allocate
+      long matchedWordFlags = 0;
+      long[] overflowWordFlags = numberOfWords > Long.SIZE ? new long[(numberOfWords - 1) / Long.SIZE] : null;
+
+      // Iterate all words and count sum the total diff
+      int totalDiff = 0;
+      for (int searchWordIndex = 0; searchWordIndex < searchWords.length; searchWordIndex++) {
+        int searchWordLength = searchWords[searchWordIndex].length();
+
+        // Find the best match for the current word in all remaining words
+        int bestMatchDiff = Integer.MAX_VALUE;
+        int bestMatchIndex = -1;
+
+        for (int wordIndex = 0; wordIndex < numberOfWords; wordIndex++) {
+          long matchedWordMask = 1L << wordIndex;
+
+          if (wordIndex < Long.SIZE ? (matchedWordFlags & matchedWordMask) != 0 : (overflowWordFlags[wordIndex / Long.SIZE - 1] & matchedWordMask) != 0)
+            continue;
+
+          // The difference is at least determined by how many other chars are padding the search word
+          int padding = getLength(fromIndex + wordIndex) - searchWordLength;
+
+          // Cannot contain the target word or cannot improve on the local best match
+          if ((padding < 0 && fuzzyMatches == null) || Math.abs(padding) >= bestMatchDiff)
+            continue;
+
+          int diff = matchDifference(searchWordIndex, fromIndex + wordIndex);
+
+          if (diff < 0 || diff >= bestMatchDiff)
+            continue;
+
+          bestMatchDiff = diff;
+          bestMatchIndex = wordIndex;
+        }
+
+        // No remaining word matches, but a word which has been matched greedily before might, so
+        // fall back to finding an assignment exhaustively, as matching has to be independent of word order
+        if (bestMatchIndex < 0) {
+          if (!isMatchedByAny(searchWordIndex, fromIndex, toIndex))
+            return -1;
+
+          return calculateDifferenceByAssignment(fromIndex, toIndex);
+        }
+
+        // Remove the matching word from the list and add it's difference to the total
+        if (bestMatchIndex < Long.SIZE)
+          matchedWordFlags |= 1L << bestMatchIndex;
+        else
+          overflowWordFlags[bestMatchIndex / Long.SIZE - 1] |= 1L << bestMatchIndex;
+
+        totalDiff += bestMatchDiff;
+      }
+
+      return totalDiff;
+    }
+
+    /**
+     * Calculates the difference like {@link #calculateDifference(int, int)}, but finds an assignment of
+     * search words to distinct words by augmenting paths, which always succeeds if there is any
+     * @return Difference of the assignment found, < 0 if there is no assignment
+     */
+    private int calculateDifferenceByAssignment(int fromIndex, int toIndex) {
+      int numberOfWords = toIndex - fromIndex;
+
+      if (searchWords.length > numberOfWords)
+        return -1;
+
+      // Differences of all pairs, as they're looked up repeatedly while searching for augmenting paths
+      int[] differences = new int[searchWords.length * numberOfWords];
+
+      for (int searchWordIndex = 0; searchWordIndex < searchWords.length; searchWordIndex++) {
+        for (int wordIndex = 0; wordIndex < numberOfWords; wordIndex++)
+          differences[searchWordIndex * numberOfWords + wordIndex] = matchDifference(searchWordIndex, fromIndex + wordIndex);
+      }
+
+      int[] searchWordByWord = new int[numberOfWords];
+      Arrays.fill(searchWordByWord, -1);
+
+      for (int searchWordIndex = 0; searchWordIndex < searchWords.length; searchWordIndex++) {
+        if (!assignSearchWord(differences, numberOfWords, searchWordIndex, searchWordByWord, new boolean[numberOfWords]))
+          return -1;
+      }
+
+      int totalDiff = 0;
+
+      for (int wordIndex = 0; wordIndex < numberOfWords; wordIndex++) {
+        if (searchWordByWord[wordIndex] >= 0)
+          totalDiff += differences[searchWordByWord[wordIndex] * numberOfWords + wordIndex];
+      }
+
+      return totalDiff;
+    }
+
+    private boolean isMatchedByAny(int searchWordIndex, int fromIndex, int toIndex) {
+      for (int i = fromIndex; i < toIndex; i++) {
+        if (matchDifference(searchWordIndex, i) >= 0)
+          return true;
+      }
+
+      return false;
+    }
+  }
+
+  /**
+   * Matches against plain words, which are not part of any dictionary
+   */
+  private static class TextMatcher extends WordMatcher {
+
+    private final String[] words;
+
+    private TextMatcher(String[] searchWords, @Nullable FuzzyMatches fuzzyMatches, String[] words) {
+      super(searchWords, fuzzyMatches);
+      this.words = words;
+    }
+
+    @Override
+    protected int getLength(int wordIndex) {
+      return words[wordIndex].length();
+    }
+
+    @Override
+    protected int matchDifference(int searchWordIndex, int wordIndex) {
+      return SearchIndex.matchDifference(searchWordIndex, searchWords[searchWordIndex], fuzzyMatches, words[wordIndex], -1);
+    }
+  }
+
+  /**
+   * Matches against the words of this index by their term ids, where the difference between a search word and
+   * a term only depends on the term, so that it's memoized per query, as common terms occur within many entries
+   */
+  private class TermMatcher extends WordMatcher {
+
+    private final int queryId;
+    private final int memoCapacity;
+
+    // Memo of the thread this matcher has been bound to, null if not bound to any thread yet
+    private final @Nullable DifferenceMemo memo;
+
+    private TermMatcher(String[] searchWords, @Nullable FuzzyMatches fuzzyMatches, int numberOfCandidates) {
+      super(searchWords, fuzzyMatches);
+
+      int queryId;
+
+      // Zero is the tag of memo entries which have never been written
+      do
+        queryId = NEXT_QUERY_ID.incrementAndGet();
+      while (queryId == 0);
+
+      this.queryId = queryId;
+
+      // Distinct pairs of search words and terms are bounded by the dictionary as well as by the words of all candidates
+      long numberOfCandidateWords = (long) numberOfCandidates * wordTermIds.limit() / Math.max(1, size());
+      long numberOfPairs = (long) searchWords.length * Math.min(terms.length, numberOfCandidateWords);
+
+      this.memoCapacity = (int) Math.min(MAX_MEMOIZED_DIFFERENCES, Long.highestOneBit(Math.max(8, numberOfPairs)) << 2);
+      this.memo = null;
+    }
+
+    private TermMatcher(TermMatcher query, DifferenceMemo memo) {
+      super(query.searchWords, query.fuzzyMatches);
+      this.queryId = query.queryId;
+      this.memoCapacity = query.memoCapacity;
+      this.memo = memo;
+    }
+
+    /**
+     * Get a matcher for the same query which memoizes into the calling thread's memo,
+     * which is shared by all ranges of the query which are scored on that thread
+     */
+    private TermMatcher bindToCurrentThread() {
+      return new TermMatcher(this, DIFFERENCE_MEMOS.get().prepare(this.queryId, this.memoCapacity));
+    }
+
+    @Override
+    protected int getLength(int wordIndex) {
+      return termLengths[wordTermIds.get(wordIndex)];
+    }
+
+    @Override
+    protected int matchDifference(int searchWordIndex, int wordIndex) {
+      int termId = wordTermIds.get(wordIndex);
+
+      if (memo == null)
+        return SearchIndex.matchDifference(searchWordIndex, searchWords[searchWordIndex], fuzzyMatches, terms[termId], termId);
+
+      long pair = (long) searchWordIndex << 32 | termId;
+      int slot = memo.find(pair);
+
+      if (slot >= 0)
+        return memo.getDifference(slot);
+
+      int difference = SearchIndex.matchDifference(searchWordIndex, searchWords[searchWordIndex], fuzzyMatches, terms[termId], termId);
+      memo.put(pair, difference, slot);
+      return difference;
+    }
+  }
+
+  /**
+   * Positions of all entries containing each term in compressed sparse row layout, where the ascending
+   * positions of the term with id i are stored within positions[offsets[i]; offsets[i + 1])
+   */
+  private static class TermPostings {
+
+    private final int[] offsets;
+    private final int[] positions;
+
+    TermPostings(int numberOfTerms, IntBuffer wordOffsets, IntBuffer wordTermIds) {
+      // Entries which contain a term multiple times are only listed once
+      int[] lastPositions = new int[numberOfTerms];
+      Arrays.fill(lastPositions, -1);
+
+      this.offsets = new int[numberOfTerms + 1];
+      int numberOfEntries = wordOffsets.limit() - 1;
+
+      for (int position = 0; position < numberOfEntries; position++) {
+        for (int i = wordOffsets.get(position); i < wordOffsets.get(position + 1); i++) {
+          int termId = wordTermIds.get(i);
+
+          if (lastPositions[termId] == position)
+            continue;
+
+          lastPositions[termId] = position;
+          ++this.offsets[termId + 1];
+        }
+      }
+
+      for (int termId = 0; termId < numberOfTerms; termId++)
+        this.offsets[termId + 1] += this.offsets[termId];
+
+      this.positions = new int[this.offsets[numberOfTerms]];
+      int[] nextIndices = Arrays.copyOf(this.offsets, numberOfTerms);
+      Arrays.fill(lastPositions, -1);
+
+      for (int position = 0; position < numberOfEntries; position++) {
+        for (int i = wordOffsets.get(position); i < wordOffsets.get(position + 1); i++) {
+          int termId = wordTermIds.get(i);
+
+          if (lastPositions[termId] == position)
+            continue;
+
+          lastPositions[termId] = position;
+          this.positions[nextIndices[termId]++] = position;
+        }
+      }
+    }
+
+    int getLength(int termId) {
+      return this.offsets[termId + 1] - this.offsets[termId];
+    }
+
+    /**
+     * Merges the positions of a term with ascending candidates, without listing any position twice
+     * @param result Buffer to write the ascending union into
+     * @return Number of positions within the union
+     */
+    int unite(int termId, int[] candidates, int numberOfCandidates, int[] result) {
+      int index = this.offsets[termId], end = this.offsets[termId + 1];
+      int candidateIndex = 0, numberOfResults = 0;
+
+      while (candidateIndex < numberOfCandidates || index < end) {
+        if (index == end || (candidateIndex < numberOfCandidates && candidates[candidateIndex] < this.positions[index])) {
+          result[numberOfResults++] = candidates[candidateIndex++];
+          continue;
+        }
+
+        if (candidateIndex < numberOfCandidates && candidates[candidateIndex] == this.positions[index])
+          ++candidateIndex;
+
+        result[numberOfResults++] = this.positions[index++];
+      }
+
+      return numberOfResults;
+    }
+  }
+
+  /**
+   * Open-addressing table of differences between pairs of search words and terms, which is owned by a single
+   * thread, so that it's memory is retained across queries instead of allocating a table for every query
+   */
+  private static class DifferenceMemo {
+
+    // Generation each slot has been written in, where slots of past generations count as empty
+    private int[] generations = new int[0];
+    private long[] pairs = new long[0];
+    private int[] differences = new int[0];
+
+    private int queryId;
+    private int generation;
+    private int size;
+
+    /**
+     * Prepares the table for a query, where a new generation is started whenever the query changes, even if
+     * it has been prepared for before, as entries of a previous preparation are not accounted for by the size
+     * @param capacity Power of two the table should at least be able to hold for this query
+     */
+    DifferenceMemo prepare(int queryId, int capacity) {
+      if (this.queryId == queryId)
+        return this;
+
+      this.queryId = queryId;
+      this.size = 0;
+
+      if (this.generations.length < capacity) {
+        this.generations = new int[capacity];
+        this.pairs = new long[capacity];
+        this.differences = new int[capacity];
+        this.generation = 0;
+      }
+
+      // Zero marks slots which have never been written, so tags have to be cleared once generations wrap around
+      if (++this.generation == 0) {
+        Arrays.fill(this.generations, 0);
+        this.generation = 1;
+      }
+
+      return this;
+    }
+
+    /**
+     * Looks up a pair of the query
+     * @return Slot of the pair, or -(free slot + 1) if it has not been memoized
+     */
+    int find(long pair) {
+      int mask = this.generations.length - 1;
+      int slot = (int) ((pair * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+
+      while (this.generations[slot] == this.generation) {
+        if (this.pairs[slot] == pair)
+          return slot;
+
+        slot = (slot + 1) & mask;
+      }
+
+      return -(slot + 1);
+    }
+
+    int getDifference(int slot) {
+      return this.differences[slot];
+    }
+
+    void put(long pair, int difference, int freeSlot) {
+      // Keep at least half of all slots empty, as probing degrades quickly beyond that
+      if ((this.size + 1) * 2 > this.generations.length)
+        return;
+
+      int slot = -(freeSlot + 1);
+      this.generations[slot] = this.generation;
+      this.pairs[slot] = pair;
+      this.differences[slot] = difference;
+      ++this.size;
+    }
+  }
+
+  private class ScoringTask extends RecursiveAction {
+
+    private final TermMatcher matcher;
+    private final int[] positions, differences;
+    private final int fromIndex, toIndex;
+    private final BooleanSupplier isCancelled;
+
+    private ScoringTask(
+      TermMatcher matcher, int[] positions, int[] differences,
+      int fromIndex, int toIndex, BooleanSupplier isCancelled
+    ) {
+      this.matcher = matcher;
+      this.positions = positions;
+      this.differences = differences;
+      this.fromIndex = fromIndex;
+      this.toIndex = toIndex;
+      this.isCancelled = isCancelled;
+    }
+
+    @Override
+    protected void compute() {
+      if (toIndex - fromIndex <= PARALLEL_CHUNK_SIZE) {
+        scoreRange(matcher, positions, differences, fromIndex, toIndex, isCancelled);
+        return;
+      }
+
+      int middle = (fromIndex + toIndex) >>> 1;
+
+      invokeAll(
+        new ScoringTask(matcher, positions, differences, fromIndex, middle, isCancelled),
+        new ScoringTask(matcher, positions, differences, middle, toIndex, isCancelled)
+      );
+    }
+  }
+}
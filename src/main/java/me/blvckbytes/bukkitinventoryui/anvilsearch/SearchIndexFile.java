@@ -0,0 +1,420 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetOrdering;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class SearchIndexFile {
+
+  private static final int MAGIC = 0x42495549;
+  private static final int FORMAT_VERSION = 2;
+
+  // Magic, format version, fingerprint, number of entries and the CRC-32 of everything past the header
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+  // Tables are aligned to the size of their widest element
+  private static final int TABLE_ALIGNMENT = 8;
+
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  private SearchIndexFile() {}
+
+  /**
+   * Attaches the search indices of all values of a filter enum as well as the permutations of orderings
+   * to a snapshot of a static catalog, which are read from an index file if it's up to date, where all numeric
+   * tables of the indices stay within the file, which is mapped into memory, while the term dictionaries are decoded
+   * onto the heap, as terms are matched as strings, and permutations are copied, as they're exposed as arrays,
+   * and which are built and written to the file otherwise, so that the next run can read them
+   * @param path Path of the index file
+   * @param fingerprint Value which has to change whenever the catalog's entries or their order change, as well as
+   *                    whenever the words the filters extract or the normalizer change, such as a hash of the catalog's source
+   * @param snapshot Snapshot of the catalog to attach to
+   * @param filterEnum Any value of the filter enum, where all of it's values are indexed
+   * @param normalizer Normalizer which the search UIs are set up with
+   * @param orderings Orderings to store the permutations of, where the natural ordering is always stored
+   * @return True if the file has been up to date and all structures have been read from it, false if they have been built
+   */
+  public static <DataType extends Comparable<DataType>> boolean attach(
+    Path path,
+    long fingerprint,
+    DatasetSnapshot<DataType> snapshot,
+    ISearchFilterEnum<?, DataType> filterEnum,
+    ITextNormalizer normalizer,
+    List<DatasetOrdering<DataType>> orderings
+  ) throws IOException {
+    List<ISearchFilterEnum<?, DataType>> filters = new ArrayList<>();
+
+    for (ISearchFilterEnum<?, DataType> filter : filterEnum.listValues())
+      filters.add(filter);
+
+    List<DatasetOrdering<DataType>> storedOrderings = new ArrayList<>();
+    storedOrderings.add(DatasetOrdering.natural());
+
+    for (DatasetOrdering<DataType> ordering : orderings) {
+      if (!storedOrderings.contains(ordering))
+        storedOrderings.add(ordering);
+    }
+
+    if (Files.isRegularFile(path) && read(path, fingerprint, snapshot, filters, normalizer, storedOrderings))
+      return true;
+
+    write(path, fingerprint, snapshot, filters, normalizer, storedOrderings);
+    return false;
+  }
+
+  /**
+   * Reads all structures of an index file, if it's up to date
+   * @return True if all structures have been attached, false if the file is outdated or damaged
+   */
+  private static <DataType extends Comparable<DataType>> boolean read(
+    Path path,
+    long fingerprint,
+    DatasetSnapshot<DataType> snapshot,
+    List<ISearchFilterEnum<?, DataType>> filters,
+    ITextNormalizer normalizer,
+    List<DatasetOrdering<DataType>> orderings
+  ) throws IOException {
+    MappedByteBuffer buffer;
+    int checksum;
+
+    try (
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)
+    ) {
+      // Check the header before mapping, as outdated files are replaced, which some platforms refuse while mapped
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+      while (header.hasRemaining() && channel.read(header) >= 0);
+
+      header.flip();
+
+      if (
+        header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION ||
+        header.getLong() != fingerprint || header.getInt() != snapshot.size() || channel.size() > Integer.MAX_VALUE
+      )
+        return false;
+
+      checksum = header.getInt();
+
+      // The mapping stays valid after closing the channel
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    // Damaged files are rebuilt, instead of reading garbage which happens to stay within bounds
+    CRC32 crc = new CRC32();
+    ByteBuffer body = buffer.duplicate();
+    body.position(HEADER_SIZE);
+    crc.update(body);
+
+    if ((int) crc.getValue() != checksum)
+      return false;
+
+    try {
+      Reader reader = new Reader(buffer);
+      reader.buffer.position(HEADER_SIZE);
+
+      List<SearchIndex<DataType>> indices = new ArrayList<>();
+
+      for (ISearchFilterEnum<?, DataType> filter : filters) {
+        if (!filter.name().equals(reader.readString()))
+          return false;
+
+        SearchIndex<DataType> index = SearchIndex.readFrom(reader);
+
+        if (index.size() != snapshot.size())
+          return false;
+
+        indices.add(index);
+      }
+
+      List<int[][]> permutations = new ArrayList<>();
+
+      for (DatasetOrdering<DataType> ordering : orderings) {
+        if (!ordering.name.equals(reader.readString()))
+          return false;
+
+        int[] positions = reader.readIntArray(), ranks = reader.readIntArray();
+
+        if (positions.length != snapshot.size() || ranks.length != snapshot.size())
+          return false;
+
+        permutations.add(new int[][] { positions, ranks });
+      }
+
+      // Only attach once the whole file has been read successfully
+      for (int i = 0; i < filters.size(); i++)
+        SearchIndex.attach(snapshot, filters.get(i), normalizer, indices.get(i));
+
+      for (int i = 0; i < orderings.size(); i++)
+        orderings.get(i).attachPermutation(snapshot, permutations.get(i)[0], permutations.get(i)[1]);
+
+      return true;
+    }
+
+    // Truncated or otherwise damaged files are rebuilt
+    catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Builds all structures in memory, attaching them to the snapshot, and writes them to an index file
+   */
+  private static <DataType extends Comparable<DataType>> void write(
+    Path path,
+    long fingerprint,
+    DatasetSnapshot<DataType> snapshot,
+    List<ISearchFilterEnum<?, DataType>> filters,
+    ITextNormalizer normalizer,
+    List<DatasetOrdering<DataType>> orderings
+  ) throws IOException {
+    Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+    try (
+      FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+    ) {
+      Writer writer = new Writer(channel);
+
+      writer.writeInt(MAGIC);
+      writer.writeInt(FORMAT_VERSION);
+      writer.writeLong(fingerprint);
+      writer.writeInt(snapshot.size());
+
+      // The checksum is only known once the body has been written
+      writer.writeInt(0);
+
+      for (ISearchFilterEnum<?, DataType> filter : filters) {
+        writer.writeString(filter.name());
+        SearchIndex.of(snapshot, filter, normalizer).writeTo(writer);
+      }
+
+      for (DatasetOrdering<DataType> ordering : orderings) {
+        DatasetOrdering.Permutation<DataType> permutation = ordering.getPermutation(snapshot);
+        writer.writeString(ordering.name);
+        writer.writeInts(IntBuffer.wrap(permutation.positions));
+        writer.writeInts(IntBuffer.wrap(permutation.ranks));
+      }
+
+      writer.flush();
+
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IOException("Index files cannot exceed 2 GiB, as they're mapped by a single buffer");
+
+      ByteBuffer checksum = ByteBuffer.allocate(4);
+      checksum.putInt(0, (int) writer.checksum.getValue());
+
+      while (checksum.hasRemaining())
+        channel.write(checksum, HEADER_SIZE - 4 + checksum.position());
+    }
+
+    // Readers never observe a partially written file
+    Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Sequentially writes values and tables through a staging buffer, padding tables to their alignment,
+   * while computing the checksum of everything past the header
+   */
+  static class Writer {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CRC32 checksum;
+    private long position;
+    private long flushedPosition;
+
+    private Writer(FileChannel channel) {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+      this.checksum = new CRC32();
+    }
+
+    void writeInt(int value) throws IOException {
+      ensureRemaining(4);
+      this.buffer.putInt(value);
+      this.position += 4;
+    }
+
+    void writeLong(long value) throws IOException {
+      ensureRemaining(8);
+      this.buffer.putLong(value);
+      this.position += 8;
+    }
+
+    void writeString(String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeInt(bytes.length);
+
+      for (byte b : bytes) {
+        ensureRemaining(1);
+        this.buffer.put(b);
+        ++this.position;
+      }
+    }
+
+    void writeStrings(String[] values) throws IOException {
+      writeInt(values.length);
+
+      for (String value : values)
+        writeString(value);
+    }
+
+    void writeInts(IntBuffer values) throws IOException {
+      writeInt(values.limit());
+      align();
+
+      for (int i = 0; i < values.limit(); i++)
+        writeInt(values.get(i));
+    }
+
+    void writeLongs(LongBuffer values) throws IOException {
+      writeInt(values.limit());
+      align();
+
+      for (int i = 0; i < values.limit(); i++)
+        writeLong(values.get(i));
+    }
+
+    private void align() throws IOException {
+      while (this.position % TABLE_ALIGNMENT != 0) {
+        ensureRemaining(1);
+        this.buffer.put((byte) 0);
+        ++this.position;
+      }
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+      if (this.buffer.remaining() < length)
+        flush();
+    }
+
+    private void flush() throws IOException {
+      this.buffer.flip();
+
+      int headerLength = (int) Math.max(0, Math.min(this.buffer.limit(), HEADER_SIZE - this.flushedPosition));
+
+      if (headerLength < this.buffer.limit()) {
+        ByteBuffer body = this.buffer.duplicate();
+        body.position(headerLength);
+        this.checksum.update(body);
+      }
+
+      this.flushedPosition += this.buffer.limit();
+
+      while (this.buffer.hasRemaining())
+        this.channel.write(this.buffer);
+
+      this.buffer.clear();
+    }
+  }
+
+  /**
+   * Sequentially reads values and tables, where tables are returned as views onto the mapped file, while
+   * every length is checked against the remaining bytes, as to never allocate based on damaged lengths
+   */
+  static class Reader {
+
+    private final ByteBuffer buffer;
+
+    private Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    String readString() {
+      byte[] bytes = new byte[readLength(1)];
+      this.buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String[] readStrings() {
+      // Every string takes up at least the bytes of its length
+      String[] result = new String[readLength(4)];
+
+      for (int i = 0; i < result.length; i++)
+        result[i] = readString();
+
+      return result;
+    }
+
+    IntBuffer readInts() {
+      int length = readLength(4);
+      ByteBuffer table = sliceTable((long) length * 4);
+      return table.asIntBuffer();
+    }
+
+    LongBuffer readLongs() {
+      int length = readLength(8);
+      ByteBuffer table = sliceTable((long) length * 8);
+      return table.asLongBuffer();
+    }
+
+    /**
+     * Reads the number of elements which follow
+     * @param elementSize Minimum number of bytes each element takes up
+     */
+    private int readLength(int elementSize) {
+      int length = this.buffer.getInt();
+
+      if (length < 0 || (long) length * elementSize > this.buffer.remaining())
+        throw new BufferUnderflowException();
+
+      return length;
+    }
+
+    int[] readIntArray() {
+      IntBuffer table = readInts();
+      int[] result = new int[table.limit()];
+      table.get(result);
+      return result;
+    }
+
+    private ByteBuffer sliceTable(long length) {
+      while (this.buffer.position() % TABLE_ALIGNMENT != 0)
+        this.buffer.get();
+
+      if (length > this.buffer.remaining())
+        throw new BufferUnderflowException();
+
+      ByteBuffer table = this.buffer.slice();
+      table.limit((int) length);
+
+      this.buffer.position(this.buffer.position() + (int) length);
+      return table;
+    }
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Search text which has been split up into comparisons against typed fields,
+ * such as price<100 or seller:notch, as well as the remaining free text
+ */
+public class SearchQuery<DataType extends Comparable<DataType>> {
+
+  private static final Pattern TERM_PATTERN = Pattern.compile("^([A-Za-z_][A-Za-z0-9_]*)(<=|>=|<|>|=|:)(.+)$");
+
+  private static final int PARSED_CACHE_SIZE = 256;
+
+  // Recently parsed queries by text and fields, as the same text is parsed again whenever it's re-applied
+  private static final Map<List<Object>, SearchQuery<?>> PARSED_QUERIES = new LinkedHashMap<List<Object>, SearchQuery<?>>(16, .75F, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<List<Object>, SearchQuery<?>> eldest) {
+      return size() > PARSED_CACHE_SIZE;
+    }
+  };
+
+  private enum Operator {
+    LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, EQUAL
+  }
+
+  private static class Term<DataType> {
+
+    private final SearchField<DataType> field;
+    private final Operator operator;
+    private final double number;
+    private final String keyword;
+
+    private Term(SearchField<DataType> field, Operator operator, double number, String keyword) {
+      this.field = field;
+      this.operator = operator;
+      this.number = number;
+      this.keyword = keyword;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Term))
+        return false;
+
+      Term<?> term = (Term<?>) other;
+
+      return (
+        this.field == term.field &&
+        this.operator == term.operator &&
+        Double.compare(this.number, term.number) == 0 &&
+        this.keyword.equals(term.keyword)
+      );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(this.field), this.operator, this.number, this.keyword);
+    }
+  }
+
+  // Text which remains after removing all field comparisons
+  public final String freeText;
+
+  private final List<Term<DataType>> terms;
+
+  private SearchQuery(String freeText, List<Term<DataType>> terms) {
+    this.freeText = freeText;
+    this.terms = terms;
+  }
+
+  /**
+   * Parses a search text, where every whitespace separated token which compares a known field is
+   * taken out of the free text, while tokens naming unknown fields or holding malformed numbers remain
+   * @param searchText Text to parse
+   * @param fields Fields which may be compared against
+   */
+  @SuppressWarnings("unchecked")
+  public static <DataType extends Comparable<DataType>> SearchQuery<DataType> parse(String searchText, List<SearchField<DataType>> fields) {
+    List<Object> key = Arrays.asList(searchText, fields);
+
+    synchronized (PARSED_QUERIES) {
+      SearchQuery<?> cached = PARSED_QUERIES.get(key);
+
+      if (cached != null)
+        return (SearchQuery<DataType>) cached;
+    }
+
+    StringBuilder freeText = new StringBuilder();
+    List<Term<DataType>> terms = new ArrayList<>();
+
+    for (String token : searchText.trim().split("\\s+")) {
+      Term<DataType> term = fields.isEmpty() ? null : parseTerm(token, fields);
+
+      if (term != null) {
+        terms.add(term);
+        continue;
+      }
+
+      if (freeText.length() > 0)
+        freeText.append(' ');
+
+      freeText.append(token);
+    }
+
+    SearchQuery<DataType> query = new SearchQuery<>(freeText.toString(), terms);
+
+    synchronized (PARSED_QUERIES) {
+      PARSED_QUERIES.put(key, query);
+    }
+
+    return query;
+  }
+
+  private static <DataType> @Nullable Term<DataType> parseTerm(String token, List<SearchField<DataType>> fields) {
+    Matcher matcher = TERM_PATTERN.matcher(token);
+
+    if (!matcher.matches())
+      return null;
+
+    SearchField<DataType> field = null;
+
+    for (SearchField<DataType> candidate : fields) {
+      if (candidate.name.equalsIgnoreCase(matcher.group(1))) {
+        field = candidate;
+        break;
+      }
+    }
+
+    if (field == null)
+      return null;
+
+    Operator operator;
+
+    switch (matcher.group(2)) {
+      case "<":
+        operator = Operator.LESS;
+        break;
+      case "<=":
+        operator = Operator.LESS_EQUAL;
+        break;
+      case ">":
+        operator = Operator.GREATER;
+        break;
+      case ">=":
+        operator = Operator.GREATER_EQUAL;
+        break;
+      default:
+        operator = Operator.EQUAL;
+        break;
+    }
+
+    String value = matcher.group(3);
+
+    if (field.type == ESearchFieldType.KEYWORD) {
+      if (operator != Operator.EQUAL)
+        return null;
+
+      return new Term<>(field, operator, Double.NaN, KeywordFieldIndex.normalizeKeyword(value));
+    }
+
+    try {
+      double number = Double.parseDouble(value);
+
+      if (Double.isNaN(number))
+        return null;
+
+      return new Term<>(field, operator, number, "");
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  public boolean hasTerms() {
+    return !this.terms.isEmpty();
+  }
+
+  /**
+   * Checks whether both queries compare the same fields in the same way, regardless of their free text
+   */
+  public boolean hasSameTerms(SearchQuery<?> other) {
+    return new HashSet<>(this.terms).equals(new HashSet<>(other.terms));
+  }
+
+  /**
+   * Find all entries of a snapshot which satisfy every field comparison by looking them up
+   * within the snapshot's field indices, without visiting any other entries
+   * @return Matches, null if there are no field comparisons
+   */
+  public @Nullable PositionSet findMatches(DatasetSnapshot<DataType> snapshot) {
+    PositionSet result = null;
+
+    for (Term<DataType> term : this.terms) {
+      PositionSet matches;
+
+      if (term.field.type == ESearchFieldType.KEYWORD)
+        matches = KeywordFieldIndex.of(snapshot, term.field).find(term.keyword);
+
+      else {
+        NumericFieldIndex index = NumericFieldIndex.of(snapshot, term.field);
+
+        switch (term.operator) {
+          case LESS:
+            matches = index.findRange(Double.NEGATIVE_INFINITY, true, term.number, false);
+            break;
+          case LESS_EQUAL:
+            matches = index.findRange(Double.NEGATIVE_INFINITY, true, term.number, true);
+            break;
+          case GREATER:
+            matches = index.findRange(term.number, false, Double.POSITIVE_INFINITY, true);
+            break;
+          case GREATER_EQUAL:
+            matches = index.findRange(term.number, true, Double.POSITIVE_INFINITY, true);
+            break;
+          default:
+            matches = index.findRange(term.number, true, term.number, true);
+            break;
+        }
+      }
+
+      result = result == null ? matches : result.and(matches);
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether a single model's instance satisfies every field comparison
+   */
+  public boolean matches(DataType model) {
+    for (Term<DataType> term : this.terms) {
+      if (term.field.type == ESearchFieldType.KEYWORD) {
+        String keyword = term.field.getKeyword(model);
+
+        if (keyword == null || !KeywordFieldIndex.normalizeKeyword(keyword).equals(term.keyword))
+          return false;
+
+        continue;
+      }
+
+      double number = term.field.getNumber(model);
+
+      if (Double.isNaN(number))
+        return false;
+
+      boolean satisfied;
+
+      switch (term.operator) {
+        case LESS:
+          satisfied = number < term.number;
+          break;
+        case LESS_EQUAL:
+          satisfied = number <= term.number;
+          break;
+        case GREATER:
+          satisfied = number > term.number;
+          break;
+        case GREATER_EQUAL:
+          satisfied = number >= term.number;
+          break;
+        default:
+          satisfied = number == term.number;
+          break;
+      }
+
+      if (!satisfied)
+        return false;
+    }
+
+    return true;
+  }
+}
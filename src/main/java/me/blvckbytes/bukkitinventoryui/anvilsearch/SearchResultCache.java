@@ -0,0 +1,307 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetOrdering;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SearchResultCache {
+
+  private static final int DEFAULT_CAPACITY = 1_000_000;
+
+  private static final SearchResultCache INSTANCE = new SearchResultCache(DEFAULT_CAPACITY);
+
+  // Entries in order of access, least recently used first
+  private final LinkedHashMap<Key, Entry> entries;
+
+  // Latest version which has been stored per dataset, older entries of which are unreachable, as well as the number
+  // of entries held, where datasets are only tracked for as long as they have entries, so that they can be collected
+  private final Map<SharedDataset<?>, DatasetState> datasetStates;
+
+  // Maximum number of matches held across all entries, as well as the current number of matches held
+  private int capacity;
+  private int size;
+
+  private final AtomicLong hits, misses, evictions;
+
+  public SearchResultCache(int capacity) {
+    this.entries = new LinkedHashMap<>(16, .75F, true);
+    this.datasetStates = new IdentityHashMap<>();
+    this.capacity = capacity;
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+    this.evictions = new AtomicLong();
+  }
+
+  /**
+   * Get the cache which is shared by all anvil search UIs
+   */
+  public static SearchResultCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Look up the results of a previous search for the same query on the same snapshot
+   * @param snapshot Snapshot to be searched through
+   * @param filter Filter to be applied
+   * @param normalizer Normalizer the searched index has been built with
+   * @param fuzzySearchDistance Number of typos tolerated by the search
+   * @param searchWords Normalized search words
+   * @param ordering Ordering to order the results by, which does not affect what's being matched
+   * @return Results, which are owned by the caller, null if there are no cached results
+   */
+  public synchronized <DataType extends Comparable<DataType>> @Nullable SearchResults<DataType> get(
+    DatasetSnapshot<DataType> snapshot,
+    ISearchFilterEnum<?, DataType> filter,
+    ITextNormalizer normalizer,
+    int fuzzySearchDistance,
+    String[] searchWords,
+    @Nullable DatasetOrdering<DataType> ordering
+  ) {
+    dropOutdatedEntries(snapshot);
+
+    Entry entry = this.entries.get(new Key(snapshot, filter, normalizer, fuzzySearchDistance, searchWords));
+
+    if (entry == null) {
+      this.misses.incrementAndGet();
+      return null;
+    }
+
+    this.hits.incrementAndGet();
+
+    // Results are patched by their owner, so every lookup hands out a copy
+    return new SearchResults<>(
+      snapshot, searchWords, filter, ordering,
+      entry.positions.clone(), entry.differences.clone(), entry.positions.length
+    );
+  }
+
+  /**
+   * Store the results of a search, evicting the least recently used entries if necessary
+   * @param results Results which have not been patched up since completing their search
+   * @param normalizer Normalizer the searched index has been built with
+   * @param fuzzySearchDistance Number of typos tolerated by the search
+   */
+  public synchronized <DataType extends Comparable<DataType>> void put(SearchResults<DataType> results, ITextNormalizer normalizer, int fuzzySearchDistance) {
+    String[] searchWords = results.getSearchWords();
+    ISearchFilterEnum<?, DataType> filter = results.getFilter();
+
+    // Blank searches are trivial to compute
+    if (searchWords == null || filter == null || results.size() > this.capacity)
+      return;
+
+    DatasetSnapshot<DataType> snapshot = results.getSnapshot();
+
+    // Results of outdated snapshots would never be looked up again
+    if (!dropOutdatedEntries(snapshot))
+      return;
+
+    Entry entry = new Entry(results.copyPositions(), results.copyDifferences());
+    Entry previous = this.entries.put(new Key(snapshot, filter, normalizer, fuzzySearchDistance, searchWords), entry);
+
+    if (previous != null)
+      this.size -= previous.positions.length;
+
+    else {
+      DatasetState state = this.datasetStates.computeIfAbsent(snapshot.getDataset(), dataset -> new DatasetState());
+      state.latestVersion = snapshot.getVersion();
+      ++state.numberOfEntries;
+    }
+
+    this.size += entry.positions.length;
+    evictToCapacity();
+  }
+
+  /**
+   * Set the maximum number of matches held across all entries, zero disables caching
+   */
+  public synchronized void setCapacity(int capacity) {
+    this.capacity = Math.max(0, capacity);
+    evictToCapacity();
+  }
+
+  /**
+   * Remove all entries, while keeping the statistics
+   */
+  public synchronized void clear() {
+    this.entries.clear();
+    this.datasetStates.clear();
+    this.size = 0;
+  }
+
+  public long getHitCount() {
+    return this.hits.get();
+  }
+
+  public long getMissCount() {
+    return this.misses.get();
+  }
+
+  /**
+   * Get the number of entries which have been evicted due to the capacity being exceeded
+   */
+  public long getEvictionCount() {
+    return this.evictions.get();
+  }
+
+  /**
+   * Get the ratio of lookups which have been served from the cache, zero if there were no lookups
+   */
+  public double getHitRatio() {
+    long hits = this.hits.get(), lookups = hits + this.misses.get();
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  public synchronized int getEntryCount() {
+    return this.entries.size();
+  }
+
+  /**
+   * Drops all entries of older versions of a snapshot's dataset, once a newer version shows up
+   * @return True if the snapshot is not older than the latest stored version of it's dataset
+   */
+  private boolean dropOutdatedEntries(DatasetSnapshot<?> snapshot) {
+    SharedDataset<?> dataset = snapshot.getDataset();
+    DatasetState state = this.datasetStates.get(dataset);
+
+    if (state == null || state.latestVersion == snapshot.getVersion())
+      return true;
+
+    if (state.latestVersion > snapshot.getVersion())
+      return false;
+
+    Iterator<Map.Entry<Key, Entry>> iterator = this.entries.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      Map.Entry<Key, Entry> entry = iterator.next();
+
+      if (entry.getKey().dataset == dataset)
+        removeEntry(iterator, entry);
+    }
+
+    return true;
+  }
+
+  private void evictToCapacity() {
+    Iterator<Map.Entry<Key, Entry>> iterator = this.entries.entrySet().iterator();
+
+    while (this.size > this.capacity && iterator.hasNext()) {
+      removeEntry(iterator, iterator.next());
+      this.evictions.incrementAndGet();
+    }
+  }
+
+  /**
+   * Removes the entry the iterator is positioned at, where datasets without any entries left are no longer kept reachable
+   */
+  private void removeEntry(Iterator<Map.Entry<Key, Entry>> iterator, Map.Entry<Key, Entry> entry) {
+    SharedDataset<?> dataset = entry.getKey().dataset;
+    DatasetState state = this.datasetStates.get(dataset);
+
+    if (state != null && --state.numberOfEntries <= 0)
+      this.datasetStates.remove(dataset);
+
+    this.size -= entry.getValue().positions.length;
+    iterator.remove();
+  }
+
+  private static class Key {
+
+    private final SharedDataset<?> dataset;
+    private final long version;
+    private final ISearchFilterEnum<?, ?> filter;
+    private final ITextNormalizer normalizer;
+    private final int fuzzySearchDistance;
+    private final String[] searchWords;
+    private final int hashCode;
+
+    private Key(
+      DatasetSnapshot<?> snapshot, ISearchFilterEnum<?, ?> filter, ITextNormalizer normalizer,
+      int fuzzySearchDistance, String[] searchWords
+    ) {
+      this.dataset = snapshot.getDataset();
+      this.version = snapshot.getVersion();
+      this.filter = filter;
+      this.normalizer = normalizer;
+      this.fuzzySearchDistance = fuzzySearchDistance;
+      this.searchWords = searchWords;
+
+      int hashCode = System.identityHashCode(this.dataset);
+      hashCode = 31 * hashCode + Long.hashCode(this.version);
+      hashCode = 31 * hashCode + filter.hashCode();
+      hashCode = 31 * hashCode + normalizer.hashCode();
+      hashCode = 31 * hashCode + fuzzySearchDistance;
+      this.hashCode = 31 * hashCode + Arrays.hashCode(searchWords);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key))
+        return false;
+
+      Key key = (Key) other;
+
+      return (
+        this.dataset == key.dataset &&
+        this.version == key.version &&
+        this.filter == key.filter &&
+        this.normalizer.equals(key.normalizer) &&
+        this.fuzzySearchDistance == key.fuzzySearchDistance &&
+        Arrays.equals(this.searchWords, key.searchWords)
+      );
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+  }
+
+  private static class DatasetState {
+    private long latestVersion;
+    private int numberOfEntries;
+  }
+
+  private static class Entry {
+
+    private final int[] positions;
+    private final int[] differences;
+
+    private Entry(int[] positions, int[] differences) {
+      this.positions = positions;
+      this.differences = differences;
+    }
+  }
+}
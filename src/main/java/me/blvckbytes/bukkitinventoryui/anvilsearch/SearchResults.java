@@ -0,0 +1,422 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetOrdering;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+public class SearchResults<DataType extends Comparable<DataType>> {
+
+  private final String @Nullable [] searchWords;
+  private final @Nullable ISearchFilterEnum<?, DataType> filter;
+  private final @Nullable DatasetOrdering<DataType> ordering;
+
+  private DatasetSnapshot<DataType> snapshot;
+
+  // Precomputed ranks of the ordering, if any, which only apply to the snapshot they've been computed for, while
+  // results which have been rebased since compare entries directly, just like those which tie-break by their data,
+  // as a whole permutation isn't worth sorting the entire snapshot for when only the displayed matches are ordered
+  private final int @Nullable [] ranks;
+  private final DatasetSnapshot<DataType> rankedSnapshot;
+
+  // Matches as positions within the searched snapshot, as well as their differences
+  private int[] positions;
+  private int[] differences;
+  private int size;
+
+  // Results are only ordered as far as they've been displayed, where this prefix of the results
+  // is in it's final order and every result past it compares greater than all results within it
+  private int numberOfOrdered;
+
+  private int[] sortBufferPositions;
+  private int[] sortBufferDifferences;
+
+  /**
+   * Create a new set of results
+   * @param snapshot Snapshot which has been searched through
+   * @param searchWords Normalized search words, null if the search has been blank
+   * @param filter Filter which has been applied, null if the search has been blank
+   * @param ordering Ordering to order by before relevance, null to order by relevance and then by the data itself
+   * @param positions Positions of all matches, ownership is transferred to this instance
+   * @param differences Differences of all matches, ownership is transferred to this instance
+   * @param size Number of matches
+   */
+  public SearchResults(
+    DatasetSnapshot<DataType> snapshot,
+    String @Nullable [] searchWords,
+    @Nullable ISearchFilterEnum<?, DataType> filter,
+    @Nullable DatasetOrdering<DataType> ordering,
+    int[] positions,
+    int[] differences,
+    int size
+  ) {
+    this.snapshot = snapshot;
+    this.searchWords = searchWords;
+    this.filter = filter;
+    this.ordering = ordering;
+    this.rankedSnapshot = snapshot;
+
+    this.ranks = ordering == null ? null : ordering.getPermutation(snapshot).ranks;
+
+    this.positions = positions;
+    this.differences = differences;
+    this.size = size;
+    this.sortBufferPositions = new int[0];
+    this.sortBufferDifferences = new int[0];
+
+    // Blank searches are handed their positions in order already
+    if (searchWords == null)
+      this.numberOfOrdered = size;
+  }
+
+  private SearchResults(SearchResults<DataType> other) {
+    this.snapshot = other.snapshot;
+    this.searchWords = other.searchWords;
+    this.filter = other.filter;
+    this.ordering = other.ordering;
+    this.ranks = other.ranks;
+    this.rankedSnapshot = other.rankedSnapshot;
+    this.positions = Arrays.copyOf(other.positions, other.size);
+    this.differences = Arrays.copyOf(other.differences, other.size);
+    this.size = other.size;
+    this.numberOfOrdered = other.numberOfOrdered;
+    this.sortBufferPositions = new int[0];
+    this.sortBufferDifferences = new int[0];
+  }
+
+  /**
+   * Create a copy of these results, which can be patched and ordered independently, for example on another thread
+   */
+  public SearchResults<DataType> copy() {
+    return new SearchResults<>(this);
+  }
+
+  /**
+   * Create the results of a blank search, which contain all entries in their original
+   * order or in the order of the ordering's permutation, without sorting anything
+   */
+  public static <DataType extends Comparable<DataType>> SearchResults<DataType> all(DatasetSnapshot<DataType> snapshot, @Nullable DatasetOrdering<DataType> ordering) {
+    int[] positions;
+
+    if (ordering != null)
+      positions = ordering.getPermutation(snapshot).positions.clone();
+
+    else {
+      positions = new int[snapshot.size()];
+
+      for (int position = 0; position < positions.length; position++)
+        positions[position] = position;
+    }
+
+    return new SearchResults<>(snapshot, null, null, ordering, positions, new int[positions.length], positions.length);
+  }
+
+  public @Nullable DatasetOrdering<DataType> getOrdering() {
+    return this.ordering;
+  }
+
+  public DatasetSnapshot<DataType> getSnapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * Moves the results over to the next version of the current snapshot, where matches of entries which have not
+   * been retained are dropped, while all other matches keep their order, as retained entries keep their relative order
+   * @param snapshot Next snapshot
+   * @param retainedPositions Next position by current position, see {@link DatasetChange#mapRetainedPositions()}
+   * @param droppedHandler Handler which receives the current position of every dropped match
+   * @return Index of the first dropped match, the number of matches if none have been dropped
+   */
+  public int rebase(DatasetSnapshot<DataType> snapshot, int[] retainedPositions, IntConsumer droppedHandler) {
+    int firstDroppedIndex = -1;
+    int numberOfRetained = 0, numberOfOrderedRetained = 0;
+
+    for (int i = 0; i < this.size; i++) {
+      int position = retainedPositions[this.positions[i]];
+
+      if (position < 0) {
+        droppedHandler.accept(this.positions[i]);
+
+        if (firstDroppedIndex < 0)
+          firstDroppedIndex = i;
+
+        continue;
+      }
+
+      if (i < this.numberOfOrdered)
+        ++numberOfOrderedRetained;
+
+      this.positions[numberOfRetained] = position;
+      this.differences[numberOfRetained++] = this.differences[i];
+    }
+
+    this.snapshot = snapshot;
+    this.size = numberOfRetained;
+    this.numberOfOrdered = numberOfOrderedRetained;
+
+    return firstDroppedIndex < 0 ? numberOfRetained : firstDroppedIndex;
+  }
+
+  public String @Nullable [] getSearchWords() {
+    return this.searchWords;
+  }
+
+  public @Nullable ISearchFilterEnum<?, DataType> getFilter() {
+    return this.filter;
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Get the number of leading results which are in their final order already, see {@link #order(int)}
+   */
+  public int getNumberOfOrdered() {
+    return this.numberOfOrdered;
+  }
+
+  /**
+   * Get a copy of the positions of all matches, in no particular order
+   */
+  public int[] copyPositions() {
+    return Arrays.copyOf(this.positions, this.size);
+  }
+
+  /**
+   * Count the matches which are contained in a set of positions
+   */
+  public int count(PositionSet positionSet) {
+    int count = 0;
+
+    for (int i = 0; i < this.size; i++) {
+      if (positionSet.contains(this.positions[i]))
+        ++count;
+    }
+
+    return count;
+  }
+
+  /**
+   * Get a copy of the differences of all matches, in the same order as {@link #copyPositions()}
+   */
+  public int[] copyDifferences() {
+    return Arrays.copyOf(this.differences, this.size);
+  }
+
+  /**
+   * Get the slots of a window of ordered results, where results are ordered on demand
+   */
+  public List<DataBoundUISlot<DataType>> getWindow(int offset, int length) {
+    int windowStart = Math.max(0, offset);
+    int windowEnd = Math.min(this.size, offset + length);
+
+    order(windowEnd);
+
+    List<DataBoundUISlot<DataType>> window = new ArrayList<>(Math.max(0, windowEnd - windowStart));
+
+    for (int i = windowStart; i < windowEnd; i++)
+      window.add(this.snapshot.getSlot(this.positions[i]));
+
+    return window;
+  }
+
+  /**
+   * Extends the ordered prefix of the results to cover at least the given number of results, by
+   * selecting the next smallest results out of the unordered remainder and only sorting those
+   */
+  public void order(int count) {
+    int target = Math.min(count, this.size);
+
+    if (target <= this.numberOfOrdered)
+      return;
+
+    // Grow geometrically, so that paging through all results stays in O(n log n) overall
+    target = Math.min(this.size, Math.max(target, this.numberOfOrdered * 2));
+
+    select(this.numberOfOrdered, this.size, target);
+    sort(this.numberOfOrdered, target);
+
+    this.numberOfOrdered = target;
+  }
+
+  /**
+   * Inserts a match at it's ordered position, if it falls within the ordered results
+   * @param position Position within the current snapshot
+   * @param diff Difference of the match
+   * @return Index the match has been inserted at
+   */
+  public int insert(int position, int diff) {
+    int low = 0, high = this.numberOfOrdered;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (compare(this.positions[middle], this.differences[middle], position, diff) <= 0)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+
+    // Entries which would be ordered past the ordered results can be appended to the unordered remainder
+    if (low == this.numberOfOrdered && low < this.size)
+      low = this.size;
+    else
+      ++this.numberOfOrdered;
+
+    ensureCapacity(this.size + 1);
+
+    System.arraycopy(this.positions, low, this.positions, low + 1, this.size - low);
+    System.arraycopy(this.differences, low, this.differences, low + 1, this.size - low);
+
+    this.positions[low] = position;
+    this.differences[low] = diff;
+    ++this.size;
+
+    return low;
+  }
+
+  /**
+   * Partially orders the results within [fromIndex;toIndex) by quickselect, so that all results
+   * before the k-th index compare less than all results starting at the k-th index
+   */
+  private void select(int fromIndex, int toIndex, int k) {
+    while (toIndex - fromIndex > 1) {
+      swap((fromIndex + toIndex) >>> 1, toIndex - 1);
+
+      int pivotPosition = this.positions[toIndex - 1];
+      int pivotDiff = this.differences[toIndex - 1];
+      int pivotIndex = fromIndex;
+
+      for (int i = fromIndex; i < toIndex - 1; i++) {
+        if (compare(this.positions[i], this.differences[i], pivotPosition, pivotDiff) < 0)
+          swap(i, pivotIndex++);
+      }
+
+      swap(pivotIndex, toIndex - 1);
+
+      if (pivotIndex == k)
+        return;
+
+      if (pivotIndex < k)
+        fromIndex = pivotIndex + 1;
+      else
+        toIndex = pivotIndex;
+    }
+  }
+
+  /**
+   * Sorts a range of the results by their difference and the data's own order, using a
+   * stable bottom-up merge sort on the primitive result arrays
+   */
+  private void sort(int fromIndex, int toIndex) {
+    if (this.sortBufferPositions.length < this.size) {
+      this.sortBufferPositions = new int[this.positions.length];
+      this.sortBufferDifferences = new int[this.positions.length];
+    }
+
+    int[] positionsBuffer = this.sortBufferPositions;
+    int[] differencesBuffer = this.sortBufferDifferences;
+
+    for (int width = 1; width < toIndex - fromIndex; width *= 2) {
+      for (int low = fromIndex; low < toIndex - width; low += 2 * width) {
+        int middle = low + width;
+        int high = Math.min(low + 2 * width, toIndex);
+        int left = low, right = middle, target = low;
+
+        while (left < middle || right < high) {
+          boolean takeLeft = right >= high || (
+            left < middle &&
+            compare(this.positions[left], this.differences[left], this.positions[right], this.differences[right]) <= 0
+          );
+
+          int source = takeLeft ? left++ : right++;
+          positionsBuffer[target] = this.positions[source];
+          differencesBuffer[target++] = this.differences[source];
+        }
+
+        System.arraycopy(positionsBuffer, low, this.positions, low, high - low);
+        System.arraycopy(differencesBuffer, low, this.differences, low, high - low);
+      }
+    }
+  }
+
+  /**
+   * Compares two results, which compares by the ordering, if any, then by difference value and then by
+   * the data's own order if there's no ordering, while blank searches without an ordering keep the snapshot's order
+   */
+  private int compare(int aPosition, int aDiff, int bPosition, int bDiff) {
+    int result;
+
+    if (this.ordering != null && (result = compareByRank(this.ordering, aPosition, bPosition)) != 0)
+      return result;
+
+    if (this.searchWords == null)
+      return Integer.compare(aPosition, bPosition);
+
+    if ((result = Integer.compare(aDiff, bDiff)) != 0)
+      return result;
+
+    if (this.ordering == null && (result = compareByRank(DatasetOrdering.natural(), aPosition, bPosition)) != 0)
+      return result;
+
+    return Integer.compare(aPosition, bPosition);
+  }
+
+  private int compareByRank(DatasetOrdering<DataType> ordering, int aPosition, int bPosition) {
+    if (this.ranks != null && this.snapshot == this.rankedSnapshot)
+      return Integer.compare(this.ranks[aPosition], this.ranks[bPosition]);
+
+    return ordering.compare(this.snapshot.getData(aPosition), this.snapshot.getData(bPosition));
+  }
+
+  private void swap(int a, int b) {
+    int position = this.positions[a];
+    this.positions[a] = this.positions[b];
+    this.positions[b] = position;
+
+    int diff = this.differences[a];
+    this.differences[a] = this.differences[b];
+    this.differences[b] = diff;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (this.positions.length >= capacity)
+      return;
+
+    int newCapacity = Math.max(capacity, this.positions.length + (this.positions.length >> 1));
+    this.positions = Arrays.copyOf(this.positions, newCapacity);
+    this.differences = Arrays.copyOf(this.differences, newCapacity);
+  }
+}
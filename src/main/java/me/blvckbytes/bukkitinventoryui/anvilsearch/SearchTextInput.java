@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SearchTextInput {
+
+  // Latest text received by rename packets, which arrive off the main thread for every keystroke,
+  // where only the most recent text is picked up by the next tick, null if there's none pending
+  private final AtomicReference<String> pendingText;
+
+  private String text;
+
+  public SearchTextInput(String text) {
+    this.pendingText = new AtomicReference<>();
+    this.text = text;
+  }
+
+  /**
+   * Receives a renamed text, which may be called from any thread, where only the most recent text is kept
+   */
+  public void offer(String text) {
+    this.pendingText.set(text);
+  }
+
+  /**
+   * Takes over the most recently offered text, so that all renames since the last call are coalesced into one
+   * @return True if the text changed, while renames which end up at the very same text do not require another search
+   */
+  public boolean poll() {
+    String text = this.pendingText.getAndSet(null);
+
+    if (text == null || text.equals(this.text))
+      return false;
+
+    this.text = text;
+    return true;
+  }
+
+  /**
+   * Get the text which has been taken over most recently
+   */
+  public String getText() {
+    return this.text;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class SearchWorkers {
+
+  // Dedicated pool, so that searches neither compete with nor get blocked by other users of the common pool,
+  // which uses all cores, unless the number of workers has been limited by the system property below
+  private static final ForkJoinPool POOL = new ForkJoinPool(
+    Math.max(1, Integer.getInteger("bukkitinventoryui.searchWorkers", Runtime.getRuntime().availableProcessors()))
+  );
+
+  // Buffers which searches score into, grown to the largest index searched on each thread and reused from then on
+  private static final ThreadLocal<ScoringBuffers> SCORING_BUFFERS = ThreadLocal.withInitial(ScoringBuffers::new);
+
+  private SearchWorkers() {}
+
+  /**
+   * Get the pool which searches as well as their parallel scoring tasks are executed on
+   */
+  public static ForkJoinPool getPool() {
+    return POOL;
+  }
+
+  /**
+   * Get the calling thread's buffers to score into, which stay valid until the next call on the
+   * same thread, so that results have to be copied out before the thread runs another search
+   * @param capacity Number of values both buffers have to be able to hold
+   */
+  public static ScoringBuffers getScoringBuffers(int capacity) {
+    ScoringBuffers buffers = SCORING_BUFFERS.get();
+
+    if (buffers.positions.length < capacity) {
+      buffers.positions = new int[capacity];
+      buffers.differences = new int[capacity];
+    }
+
+    return buffers;
+  }
+
+  public static class ScoringBuffers {
+    public int[] positions = new int[0];
+    public int[] differences = new int[0];
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class TextNormalizer implements ITextNormalizer {
+
+  private static final char COLOR_CHAR = '§';
+
+  private final boolean stripColors;
+  private final boolean foldDiacritics;
+  private final boolean stemWords;
+
+  /**
+   * Create a new normalizer, which always lower-cases texts and splits them up into
+   * words on any character which is neither a letter nor a digit
+   * @param stripColors Whether to remove color and formatting codes
+   * @param foldDiacritics Whether to remove accents and other diacritics, turning é into e
+   * @param stemWords Whether to reduce english plurals to their singular form
+   */
+  public TextNormalizer(boolean stripColors, boolean foldDiacritics, boolean stemWords) {
+    this.stripColors = stripColors;
+    this.foldDiacritics = foldDiacritics;
+    this.stemWords = stemWords;
+  }
+
+  @Override
+  public String[] normalize(String... texts) {
+    List<String> words = new ArrayList<>();
+    StringBuilder wordBuilder = new StringBuilder();
+
+    for (String text : texts) {
+      if (this.stripColors)
+        text = stripColors(text);
+
+      if (this.foldDiacritics)
+        text = foldDiacritics(text);
+
+      text = text.toLowerCase(Locale.ROOT);
+
+      for (int i = 0; i <= text.length(); i++) {
+        if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+          wordBuilder.append(text.charAt(i));
+          continue;
+        }
+
+        if (wordBuilder.length() == 0)
+          continue;
+
+        String word = wordBuilder.toString();
+        words.add(this.stemWords ? stem(word) : word);
+        wordBuilder.setLength(0);
+      }
+    }
+
+    return words.toArray(new String[0]);
+  }
+
+  private static String stripColors(String text) {
+    if (text.indexOf(COLOR_CHAR) < 0)
+      return text;
+
+    StringBuilder result = new StringBuilder(text.length());
+
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+
+      // Skip both the color char as well as the code it's followed by
+      if (c == COLOR_CHAR) {
+        ++i;
+        continue;
+      }
+
+      result.append(c);
+    }
+
+    return result.toString();
+  }
+
+  private static String foldDiacritics(String text) {
+    boolean isAscii = true;
+
+    for (int i = 0; i < text.length() && isAscii; i++)
+      isAscii = text.charAt(i) < 0x80;
+
+    // Decomposing is comparatively expensive and only ever affects non-ascii chars
+    if (isAscii)
+      return text;
+
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    StringBuilder result = new StringBuilder(decomposed.length());
+
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+
+      if (Character.getType(c) != Character.NON_SPACING_MARK)
+        result.append(c);
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Reduces plurals to their singular form by only stripping suffixes, which
+   * keeps on working for search words which are still being typed
+   */
+  private static String stem(String word) {
+    if (word.length() <= 3)
+      return word;
+
+    if (word.endsWith("ies") && !word.endsWith("eies") && !word.endsWith("aies"))
+      return word.substring(0, word.length() - 3) + "y";
+
+    if (word.endsWith("es") && !word.endsWith("aes") && !word.endsWith("ees") && !word.endsWith("oes"))
+      return word.substring(0, word.length() - 1);
+
+    if (word.endsWith("s") && !word.endsWith("us") && !word.endsWith("ss"))
+      return word.substring(0, word.length() - 1);
+
+    return word;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof TextNormalizer))
+      return false;
+
+    TextNormalizer normalizer = (TextNormalizer) other;
+
+    return (
+      this.stripColors == normalizer.stripColors &&
+      this.foldDiacritics == normalizer.foldDiacritics &&
+      this.stemWords == normalizer.stemWords
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return (this.stripColors ? 1 : 0) | (this.foldDiacritics ? 2 : 0) | (this.stemWords ? 4 : 0);
+  }
+}
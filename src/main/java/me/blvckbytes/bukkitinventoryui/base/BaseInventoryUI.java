@@ -44,6 +44,12 @@ public class BaseInventoryUI implements IInventoryUI {
   private final Player viewer;
   private final @Nullable FSetSlotHandler setSlotHandler;
 
+  // Items which have last been rendered into managed slots, in order to be able to snapshot the current
+  // layout without going through the inventory, while slots without any UI slot are free to be altered
+  // by the viewer, and are thus always read from the inventory itself
+  private final ItemStack[] renderBuffer;
+  private final boolean[] isManagedSlot;
+
   private final Map<Integer, UISlot> slotByIndex;
   private final Map<String, Set<Integer>> slotIndicesByName;
   private final Map<String, IItemBuildable> customItemByName;
@@ -60,6 +66,8 @@ public class BaseInventoryUI implements IInventoryUI {
     IEvaluationEnvironment titleEnvironment = buildTitleEnvironment(viewer);
     String title = parameterProvider.getTitle().asScalar(ScalarType.STRING, titleEnvironment);
     this.inventory = inventoryFactory.apply(title);
+    this.renderBuffer = new ItemStack[this.inventory.getSize()];
+    this.isManagedSlot = new boolean[this.inventory.getSize()];
 
     this.inventoryEnvironment = buildInventoryEnvironment(this.inventory, titleEnvironment);
     this.slotIndicesByName = parameterProvider.getSlotContents(this.inventoryEnvironment);
@@ -72,10 +80,12 @@ public class BaseInventoryUI implements IInventoryUI {
   public void setSlotById(int slot, @Nullable UISlot value) {
     if (value == null) {
       this.slotByIndex.remove(slot);
+      setManaged(slot, false);
       return;
     }
 
     this.slotByIndex.put(slot, value);
+    setManaged(slot, true);
   }
 
   @Override
@@ -85,8 +95,15 @@ public class BaseInventoryUI implements IInventoryUI {
     if (slotIndices == null)
       return;
 
-    for (Number slot : slotIndices)
+    for (Number slot : slotIndices) {
       this.slotByIndex.put(slot.intValue(), value);
+      setManaged(slot.intValue(), true);
+    }
+  }
+
+  private void setManaged(int slot, boolean isManaged) {
+    if (slot >= 0 && slot < this.isManagedSlot.length)
+      this.isManagedSlot[slot] = isManaged;
   }
 
   @Override
@@ -186,9 +203,11 @@ public class BaseInventoryUI implements IInventoryUI {
     if (setSlotHandler != null && setSlotHandler.apply(slot, item))
       return;
 
-    if (slot < 0 || slot >= this.inventory.getSize())
+    if (slot < 0 || slot >= this.renderBuffer.length)
       return;
 
+    // Rendered items are owned by the UI, so the very instance is kept, without copying it
+    this.renderBuffer[slot] = item;
     this.inventory.setItem(slot, item);
   }
 
@@ -200,6 +219,39 @@ public class BaseInventoryUI implements IInventoryUI {
     return this.inventory.getItem(slot);
   }
 
+  @Override
+  public void copyItems(int fromSlot, ItemStack[] buffer, int bufferOffset, int length) {
+    int copyStart = Math.max(fromSlot, 0);
+    int copyEnd = Math.min(fromSlot + length, this.renderBuffer.length);
+
+    if (copyStart >= copyEnd) {
+      Arrays.fill(buffer, bufferOffset, bufferOffset + length, null);
+      return;
+    }
+
+    // Slots outside of the inventory's bounds are empty
+    Arrays.fill(buffer, bufferOffset, bufferOffset + (copyStart - fromSlot), null);
+
+    for (int slot = copyStart; slot < copyEnd;) {
+      if (!this.isManagedSlot[slot]) {
+        buffer[bufferOffset + (slot - fromSlot)] = this.inventory.getItem(slot);
+        ++slot;
+        continue;
+      }
+
+      // Runs of managed slots are copied at once
+      int runEnd = slot + 1;
+
+      while (runEnd < copyEnd && this.isManagedSlot[runEnd])
+        ++runEnd;
+
+      System.arraycopy(this.renderBuffer, slot, buffer, bufferOffset + (slot - fromSlot), runEnd - slot);
+      slot = runEnd;
+    }
+
+    Arrays.fill(buffer, bufferOffset + (copyEnd - fromSlot), bufferOffset + length, null);
+  }
+
   private boolean isAllowedToInteractWithEmptySlot(UIInteraction interaction) {
     if (interaction.wasTopInventory)
       return false;
@@ -34,9 +34,33 @@ public class DataBoundUISlot<T extends Comparable<T>> extends UISlot implements
 
   public final T data;
 
+  // Binding this slot has been created by, null if it carries handlers of it's own
+  public final @Nullable DataSlotBinding<T> binding;
+
   public DataBoundUISlot(Supplier<ItemStack> itemSupplier, @Nullable IInteractionHandler interactionHandler, T data) {
     super(itemSupplier, interactionHandler);
     this.data = data;
+    this.binding = null;
+  }
+
+  /**
+   * Create a slot which delegates rendering and interactions to a binding, see {@link DataSlotBinding#bind(Comparable)}
+   */
+  public DataBoundUISlot(DataSlotBinding<T> binding, T data) {
+    super(
+      () -> binding.renderer.apply(data),
+      binding.interactionHandler == null ? null : interaction -> binding.interactionHandler.handle(data, interaction)
+    );
+    this.data = data;
+    this.binding = binding;
+  }
+
+  /**
+   * Checks whether both slots represent the same entry, which is the case if they're the very same
+   * instance or if both have been created by the same binding for the very same data instance
+   */
+  public boolean isSameEntry(DataBoundUISlot<T> other) {
+    return this == other || (this.binding != null && this.binding == other.binding && this.data == other.data);
   }
 
   @Override
@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.base;
+
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+public class DataSlotBinding<T extends Comparable<T>> {
+
+  public final Function<T, ItemStack> renderer;
+  public final @Nullable FDataInteractionHandler<T> interactionHandler;
+
+  /**
+   * Create a binding which renders and handles all entries of a list, so that entries can be
+   * held as plain data, while slots are only created for the entries which are displayed
+   * @param renderer Renders the item of an entry
+   * @param interactionHandler Handles interactions with an entry, null if entries are not interactive
+   */
+  public DataSlotBinding(Function<T, ItemStack> renderer, @Nullable FDataInteractionHandler<T> interactionHandler) {
+    this.renderer = renderer;
+    this.interactionHandler = interactionHandler;
+  }
+
+  /**
+   * Create a slot for an entry, which delegates to this binding
+   */
+  public DataBoundUISlot<T> bind(T data) {
+    return new DataBoundUISlot<>(this, data);
+  }
+}
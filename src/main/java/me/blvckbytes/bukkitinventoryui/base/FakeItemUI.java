@@ -45,7 +45,9 @@ public class FakeItemUI implements IInventoryUI {
   private final IInventoryUI handle;
 
   private final IFakeSlotCommunicator fakeSlotCommunicator;
-  private final Map<Integer, ItemStack> fakeSlotItemCache;
+  // Fake items by their raw slot, where the mask keeps track of which slots have been set at all
+  private final ItemStack[] fakeSlotItemCache;
+  private final BitSet fakeSlotItemMask;
   private final boolean requiresUpperInventoryFakeSlots;
   private final boolean usesPlayerInventory;
 
@@ -53,7 +55,8 @@ public class FakeItemUI implements IInventoryUI {
     this.handle = handle;
     this.usesPlayerInventory = usesPlayerInventory;
     this.fakeSlotCommunicator = fakeSlotCommunicator;
-    this.fakeSlotItemCache = new HashMap<>();
+    this.fakeSlotItemCache = new ItemStack[getInventory().getSize() + PLAYER_INVENTORY_SIZE];
+    this.fakeSlotItemMask = new BitSet(this.fakeSlotItemCache.length);
     this.requiresUpperInventoryFakeSlots = getInventory().getType() == InventoryType.ANVIL;
   }
 
@@ -87,11 +90,33 @@ public class FakeItemUI implements IInventoryUI {
     int inventorySize = this.handle.getInventory().getSize();
 
     if (slot >= inventorySize || requiresUpperInventoryFakeSlots)
-      return this.fakeSlotItemCache.get(slot);
+      return getCachedFakeItem(slot);
 
     return this.handle.getItem(slot);
   }
 
+  @Override
+  public void copyItems(int fromSlot, ItemStack[] buffer, int bufferOffset, int length) {
+    // Slots below this index are not faked and thus live within the handle's render buffer
+    int fakeSlotsStart = requiresUpperInventoryFakeSlots ? 0 : this.handle.getInventory().getSize();
+    int handleLength = Math.max(0, Math.min(length, fakeSlotsStart - fromSlot));
+
+    if (handleLength > 0)
+      this.handle.copyItems(fromSlot, buffer, bufferOffset, handleLength);
+
+    int copyStart = Math.max(fromSlot + handleLength, 0);
+    int copyEnd = Math.min(fromSlot + length, this.fakeSlotItemCache.length);
+
+    if (copyStart >= copyEnd) {
+      Arrays.fill(buffer, bufferOffset + handleLength, bufferOffset + length, null);
+      return;
+    }
+
+    Arrays.fill(buffer, bufferOffset + handleLength, bufferOffset + (copyStart - fromSlot), null);
+    System.arraycopy(this.fakeSlotItemCache, copyStart, buffer, bufferOffset + (copyStart - fromSlot), copyEnd - copyStart);
+    Arrays.fill(buffer, bufferOffset + (copyEnd - fromSlot), bufferOffset + length, null);
+  }
+
   @Override
   public void handleInteraction(UIInteraction interaction) {
     handleFakeSlotInteraction(interaction);
@@ -154,11 +179,18 @@ public class FakeItemUI implements IInventoryUI {
     }
   }
 
+  private @Nullable ItemStack getCachedFakeItem(int slot) {
+    if (slot < 0 || slot >= this.fakeSlotItemCache.length)
+      return null;
+
+    return this.fakeSlotItemCache[slot];
+  }
+
   private @Nullable ItemStack getFakeSlotContent(int slot) {
-    if (!this.fakeSlotItemCache.containsKey(slot))
+    if (slot < 0 || !this.fakeSlotItemMask.get(slot))
       return null;
 
-    ItemStack item = this.fakeSlotItemCache.get(slot);
+    ItemStack item = this.fakeSlotItemCache[slot];
 
     if (item == null)
       return ITEM_AIR;
@@ -193,7 +225,7 @@ public class FakeItemUI implements IInventoryUI {
     // Re-send fake items on interaction, as they could disappear otherwise (seldom,
     // but still). Happens if the server only clears the cursor but doesn't re-send the slot
     // Fake slots also always need to be cancelled
-    ItemStack fakeItem = fakeSlotItemCache.get(slot);
+    ItemStack fakeItem = getCachedFakeItem(slot);
     if (fakeItem != null) {
       interaction.cancel.run();
 
@@ -265,13 +297,13 @@ public class FakeItemUI implements IInventoryUI {
     if (interaction.action != InventoryAction.COLLECT_TO_CURSOR)
       return false;
 
-    for (Map.Entry<Integer, ItemStack> fakeSlotEntry : fakeSlotItemCache.entrySet()) {
-      ItemStack currentFakeItem = fakeSlotEntry.getValue();
+    for (int slot = fakeSlotItemMask.nextSetBit(0); slot >= 0; slot = fakeSlotItemMask.nextSetBit(slot + 1)) {
+      ItemStack currentFakeItem = fakeSlotItemCache[slot];
 
       if (!fakeItem.isSimilar(currentFakeItem))
         continue;
 
-      fakeSlotCommunicator.setFakeSlot(viewer, fakeSlotEntry.getKey(), true, currentFakeItem);
+      fakeSlotCommunicator.setFakeSlot(viewer, slot, true, currentFakeItem);
     }
 
     return true;
@@ -283,11 +315,14 @@ public class FakeItemUI implements IInventoryUI {
     Player viewer = this.handle.getViewer();
 
     if (slot >= inventorySize || requiresUpperInventoryFakeSlots) {
-      this.fakeSlotItemCache.put(slot, item);
+      if (slot >= 0 && slot < this.fakeSlotItemCache.length) {
+        this.fakeSlotItemCache[slot] = item;
+        this.fakeSlotItemMask.set(slot);
+      }
 
       // Don't draw fake slots if the currently open inventory is not the UI instance
       if (isOpen())
-        this.fakeSlotCommunicator.setFakeSlot(viewer, slot, true, fakeSlotItemCache.get(slot));
+        this.fakeSlotCommunicator.setFakeSlot(viewer, slot, true, item);
 
       return true;
     }
@@ -26,6 +26,9 @@ package me.blvckbytes.bukkitinventoryui.base;
 
 public interface IAnvilItemRenameHandler {
 
+  /**
+   * Handles the text of a rename packet, which is invoked for every keystroke and off the main thread
+   */
   void handleAnvilItemRename(String name);
 
 }
@@ -63,7 +63,8 @@ public interface IInventoryUI {
   void drawSlotByName(String name);
 
   /**
-   * Set an item to a certain slot
+   * Set an item to a certain slot, where the UI keeps the very instance for {@link #copyItems},
+   * which is why items are not to be altered after having been set
    */
   void setItem(int slot, ItemStack item);
 
@@ -72,6 +73,18 @@ public interface IInventoryUI {
    */
   @Nullable ItemStack getItem(int slot);
 
+  /**
+   * Copy a contiguous range of items into a buffer, reading managed slots directly from the
+   * render buffer, while slots without any UI slot are read from the inventory, as the
+   * viewer may have placed or taken items there
+   *
+   * @param fromSlot     Index of the first slot to copy
+   * @param buffer       Buffer to copy the items into
+   * @param bufferOffset Index within the buffer to start writing at
+   * @param length       Number of slots to copy, slots out of range are copied as {@code null}
+   */
+  void copyItems(int fromSlot, ItemStack[] buffer, int bufferOffset, int length);
+
   /**
    * Handle a users interaction
    */
@@ -27,45 +27,51 @@ package me.blvckbytes.bukkitinventoryui.base;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiConsumer;
-import java.util.function.Function;
 
 public class InventoryAnimator {
 
   private final BiConsumer<Integer, ItemStack> setter;
+  private final FCopyItemsHandler copier;
 
   private ItemStack @Nullable [] fromLayout, toLayout;
   private @Nullable EAnimationType animationType;
-  private List<Integer> mask;
+
+  // Flags by layout index, derived from the last mask that has been passed
+  private boolean @Nullable [] maskFlags;
+  private @Nullable List<Integer> lastMask;
+  private int lastMaskOffset;
+
   private int numberOfFrames;
   private int numberOfRows;
   private int currentFrame;
 
   private int slotOffset;
 
-  public InventoryAnimator(BiConsumer<Integer, ItemStack> setter) {
+  public InventoryAnimator(BiConsumer<Integer, ItemStack> setter, FCopyItemsHandler copier) {
     this.setter = setter;
+    this.copier = copier;
   }
 
   public void setSlotOffset(int slotOffset) {
     this.slotOffset = slotOffset;
   }
 
-  public void animateTo(EAnimationType animationType, List<Integer> mask, int inventorySize, Function<Integer, ItemStack> itemGetter) {
+  public void animateTo(EAnimationType animationType, @Nullable List<Integer> mask, int inventorySize) {
     inventorySize = Math.max(0, inventorySize - slotOffset);
 
     if (inventorySize % 9 != 0)
       return;
 
-    if (this.toLayout == null || this.toLayout.length >= inventorySize)
+    if (this.toLayout == null || this.toLayout.length != inventorySize)
       this.toLayout = new ItemStack[inventorySize];
 
-    for (int i = 0; i < inventorySize; i++)
-      this.toLayout[i] = itemGetter.apply(i + slotOffset);
+    this.copier.apply(slotOffset, this.toLayout, 0, inventorySize);
 
     this.animationType = animationType;
-    this.mask = mask;
+    updateMaskFlags(mask, inventorySize);
     this.numberOfRows = inventorySize / 9;
     this.numberOfFrames = getNumberOfFrames(animationType);
     this.currentFrame = 0;
@@ -73,20 +79,23 @@ public class InventoryAnimator {
     drawCurrentFrame();
   }
 
+  public boolean isAnimating() {
+    return this.animationType != null;
+  }
+
   public void fastForward() {
     this.currentFrame = this.numberOfFrames - 1;
     drawCurrentFrame();
     this.animationType = null;
   }
 
-  public void saveLayout(int inventorySize, Function<Integer, ItemStack> itemGetter) {
+  public void saveLayout(int inventorySize) {
     inventorySize = Math.max(0, inventorySize - slotOffset);
 
-    if (this.fromLayout == null || this.fromLayout.length >= inventorySize)
+    if (this.fromLayout == null || this.fromLayout.length != inventorySize)
       this.fromLayout = new ItemStack[inventorySize];
 
-    for (int i = 0; i < inventorySize; i++)
-      this.fromLayout[i] = itemGetter.apply(i + slotOffset);
+    this.copier.apply(slotOffset, this.fromLayout, 0, inventorySize);
   }
 
   public void tick() {
@@ -139,7 +148,7 @@ public class InventoryAnimator {
             int destinationSlot = drawCol + i;
             int sourceSlot = readCol + i;
 
-            if (mask == null || (mask.contains(destinationSlot + slotOffset) && mask.contains(sourceSlot + slotOffset)))
+            if (isMasked(destinationSlot) && isMasked(sourceSlot))
               this.setter.accept(destinationSlot + slotOffset, getItem(origin, sourceSlot));
           }
         }
@@ -178,7 +187,7 @@ public class InventoryAnimator {
             int destinationSlot = drawRow * 9 + i;
             int sourceSlot = readRow * 9 + i;
 
-            if (mask == null || (mask.contains(destinationSlot + slotOffset) && mask.contains(sourceSlot + slotOffset)))
+            if (isMasked(destinationSlot) && isMasked(sourceSlot))
               this.setter.accept(destinationSlot + slotOffset, getItem(origin, sourceSlot));
           }
         }
@@ -187,6 +196,43 @@ public class InventoryAnimator {
     }
   }
 
+  /**
+   * Translates the list of masked slots into flags by layout index, which only
+   * has to happen if the mask or the slot offset actually changed since the last call
+   */
+  private void updateMaskFlags(@Nullable List<Integer> mask, int inventorySize) {
+    if (mask == null) {
+      this.maskFlags = null;
+      this.lastMask = null;
+      return;
+    }
+
+    if (mask == this.lastMask && this.lastMaskOffset == this.slotOffset && this.maskFlags != null && this.maskFlags.length == inventorySize)
+      return;
+
+    if (this.maskFlags == null || this.maskFlags.length != inventorySize)
+      this.maskFlags = new boolean[inventorySize];
+    else
+      Arrays.fill(this.maskFlags, false);
+
+    for (int maskedSlot : mask) {
+      int layoutIndex = maskedSlot - slotOffset;
+
+      if (layoutIndex >= 0 && layoutIndex < inventorySize)
+        this.maskFlags[layoutIndex] = true;
+    }
+
+    this.lastMask = mask;
+    this.lastMaskOffset = this.slotOffset;
+  }
+
+  private boolean isMasked(int layoutIndex) {
+    if (this.maskFlags == null)
+      return true;
+
+    return layoutIndex < this.maskFlags.length && this.maskFlags[layoutIndex];
+  }
+
   private ItemStack getItem(ItemStack[] contents, int slot) {
     if (slot >= contents.length)
       return null;
@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import java.util.Arrays;
+
+public class DatasetChange {
+
+  private final int previousSize;
+
+  // Positions within the previous snapshot which have been removed or whose slots have been replaced, both ascending
+  private final int[] removedPositions;
+  private final int[] updatedPositions;
+
+  // Ascending positions within the next snapshot which slots have been inserted at
+  private final int[] insertedPositions;
+
+  /**
+   * Create a change set, which derives the next snapshot from the previous snapshot by dropping all removed
+   * positions, replacing the slots of all updated positions in place and appending all added slots
+   * @param previousSize Number of entries within the previous snapshot
+   * @param removedPositions Ascending positions within the previous snapshot which are removed
+   * @param updatedPositions Ascending positions within the previous snapshot whose slots are replaced
+   * @param numberOfAdded Number of slots which are appended
+   */
+  DatasetChange(int previousSize, int[] removedPositions, int[] updatedPositions, int numberOfAdded) {
+    this(previousSize, removedPositions, updatedPositions, appendedPositions(previousSize - removedPositions.length, numberOfAdded));
+  }
+
+  /**
+   * Create a change set like {@link #DatasetChange(int, int[], int[], int)}, where slots may be inserted anywhere,
+   * as long as all retained and updated entries keep their relative order, which also expresses moves as the
+   * removal of the entry at it's previous position and the insertion of it at it's next position
+   * @param insertedPositions Ascending positions within the next snapshot which slots are inserted at
+   */
+  DatasetChange(int previousSize, int[] removedPositions, int[] updatedPositions, int[] insertedPositions) {
+    this.previousSize = previousSize;
+    this.removedPositions = removedPositions;
+    this.updatedPositions = updatedPositions;
+    this.insertedPositions = insertedPositions;
+  }
+
+  private static int[] appendedPositions(int fromPosition, int numberOfAdded) {
+    int[] result = new int[numberOfAdded];
+
+    for (int i = 0; i < numberOfAdded; i++)
+      result[i] = fromPosition + i;
+
+    return result;
+  }
+
+  public int getPreviousSize() {
+    return this.previousSize;
+  }
+
+  public int getNextSize() {
+    return this.previousSize - this.removedPositions.length + this.insertedPositions.length;
+  }
+
+  public int getNumberOfRemoved() {
+    return this.removedPositions.length;
+  }
+
+  public int getNumberOfUpdated() {
+    return this.updatedPositions.length;
+  }
+
+  /**
+   * Get the number of slots which have been inserted, including those which have been appended
+   */
+  public int getNumberOfAdded() {
+    return this.insertedPositions.length;
+  }
+
+  /**
+   * Get the ascending positions within the previous snapshot whose slots have been replaced
+   */
+  public int[] getUpdatedPositions() {
+    return this.updatedPositions.clone();
+  }
+
+  /**
+   * Get the ascending positions within the next snapshot which slots have been inserted at
+   */
+  public int[] getInsertedPositions() {
+    return this.insertedPositions.clone();
+  }
+
+  public boolean isEmpty() {
+    return this.removedPositions.length == 0 && this.updatedPositions.length == 0 && this.insertedPositions.length == 0;
+  }
+
+  /**
+   * Get the position of an entry of the previous snapshot within the next snapshot
+   * @return Position, -1 if the entry has been removed
+   */
+  public int mapPosition(int previousPosition) {
+    int index = Arrays.binarySearch(this.removedPositions, previousPosition);
+
+    if (index >= 0)
+      return -1;
+
+    // Every removal before the position moves the entry down by one
+    int position = previousPosition - (-index - 1);
+
+    // Every insertion before the entry moves it up by one, where the i-th insertion precedes the entry if it took
+    // place at or before the entry's position among all entries which have not been inserted, shifted by i
+    int low = 0, high = this.insertedPositions.length;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (this.insertedPositions[middle] - middle <= position)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+
+    return position + low;
+  }
+
+  /**
+   * Maps all positions of the previous snapshot onto the next snapshot, where only entries which are retained as
+   * they are keep a position, so that derived structures may carry over all retained entries by a single linear pass
+   * @return Next position by previous position, -1 for entries which have been removed or updated
+   */
+  public int[] mapRetainedPositions() {
+    int[] result = new int[this.previousSize];
+    int removedIndex = 0, updatedIndex = 0, insertedIndex = 0;
+
+    for (int position = 0, nextPosition = 0; position < this.previousSize; position++) {
+      if (removedIndex < this.removedPositions.length && this.removedPositions[removedIndex] == position) {
+        ++removedIndex;
+        result[position] = -1;
+        continue;
+      }
+
+      while (insertedIndex < this.insertedPositions.length && this.insertedPositions[insertedIndex] == nextPosition) {
+        ++insertedIndex;
+        ++nextPosition;
+      }
+
+      if (updatedIndex < this.updatedPositions.length && this.updatedPositions[updatedIndex] == position) {
+        ++updatedIndex;
+        result[position] = -1;
+      }
+
+      else
+        result[position] = nextPosition;
+
+      ++nextPosition;
+    }
+
+    return result;
+  }
+
+  /**
+   * Get all positions within the next snapshot whose entries have been updated or inserted, which
+   * are those that derived structures have to compute anew, in ascending order
+   */
+  public int[] getChangedPositions() {
+    int[] result = new int[this.updatedPositions.length + this.insertedPositions.length];
+    int numberOfChanged = 0, updatedIndex = 0, insertedIndex = 0;
+
+    while (updatedIndex < this.updatedPositions.length || insertedIndex < this.insertedPositions.length) {
+      int updatedPosition = updatedIndex < this.updatedPositions.length ? mapPosition(this.updatedPositions[updatedIndex]) : Integer.MAX_VALUE;
+      int insertedPosition = insertedIndex < this.insertedPositions.length ? this.insertedPositions[insertedIndex] : Integer.MAX_VALUE;
+
+      if (updatedPosition < insertedPosition) {
+        result[numberOfChanged++] = updatedPosition;
+        ++updatedIndex;
+      }
+
+      else {
+        result[numberOfChanged++] = insertedPosition;
+        ++insertedIndex;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the first position within the next snapshot at which entries differ from the previous snapshot
+   * @return Position, the next snapshot's size if nothing has changed
+   */
+  public int getFirstChangedPosition() {
+    // Entries before the very first change of any kind keep their position, where all kinds agree on it
+    int result = getNextSize();
+
+    if (this.removedPositions.length > 0)
+      result = Math.min(result, this.removedPositions[0]);
+
+    if (this.updatedPositions.length > 0)
+      result = Math.min(result, this.updatedPositions[0]);
+
+    if (this.insertedPositions.length > 0)
+      result = Math.min(result, this.insertedPositions[0]);
+
+    return result;
+  }
+
+  /**
+   * Get the last position within the next snapshot at which entries differ from the previous snapshot
+   * @return Position, {@link Integer#MAX_VALUE} if the size changed, as all following entries shifted, -1 if nothing has changed
+   */
+  public int getLastChangedPosition() {
+    if (this.removedPositions.length != this.insertedPositions.length)
+      return Integer.MAX_VALUE;
+
+    // As many entries have been removed as inserted, so entries past the last change of any kind keep their position
+    int result = -1;
+
+    if (this.removedPositions.length > 0)
+      result = Math.max(result, Math.max(this.removedPositions[this.removedPositions.length - 1], this.insertedPositions[this.insertedPositions.length - 1]));
+
+    if (this.updatedPositions.length > 0)
+      result = Math.max(result, mapPosition(this.updatedPositions[this.updatedPositions.length - 1]));
+
+    return result;
+  }
+}
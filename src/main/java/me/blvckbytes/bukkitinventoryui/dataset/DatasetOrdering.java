@@ -0,0 +1,390 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToDoubleFunction;
+
+public class DatasetOrdering<DataType extends Comparable<DataType>> {
+
+  private static final DatasetOrdering<?> NATURAL = createNatural();
+
+  public final String name;
+
+  // Compares two entries directly, for entries of snapshots without a computed permutation
+  private final Comparator<DataType> comparator;
+
+  // Extracts the sort keys of all entries of a snapshot, which compare positions by them
+  private final Function<DatasetSnapshot<DataType>, SortKeys<DataType>> sortKeysFactory;
+
+  private DatasetOrdering(
+    String name,
+    Comparator<DataType> comparator,
+    Function<DatasetSnapshot<DataType>, SortKeys<DataType>> sortKeysFactory
+  ) {
+    this.name = name;
+    this.comparator = comparator;
+    this.sortKeysFactory = sortKeysFactory;
+  }
+
+  /**
+   * Get the ordering by the data's own compare function
+   */
+  @SuppressWarnings("unchecked")
+  public static <DataType extends Comparable<DataType>> DatasetOrdering<DataType> natural() {
+    return (DatasetOrdering<DataType>) NATURAL;
+  }
+
+  private static <DataType extends Comparable<DataType>> DatasetOrdering<DataType> createNatural() {
+    return new DatasetOrdering<>("natural", Comparable::compareTo, NaturalKeys::new);
+  }
+
+  /**
+   * Create an ordering by a numeric key, where entries with a key of NaN are ordered last
+   */
+  public static <DataType extends Comparable<DataType>> DatasetOrdering<DataType> numeric(String name, ToDoubleFunction<DataType> keyExtractor, boolean descending) {
+    int sign = descending ? -1 : 1;
+
+    return new DatasetOrdering<>(
+      name,
+      (a, b) -> compareNumbers(keyExtractor.applyAsDouble(a), keyExtractor.applyAsDouble(b), sign),
+      snapshot -> new NumericKeys<>(keyExtractor, sign, snapshot, null, null)
+    );
+  }
+
+  /**
+   * Create an ordering by a textual key, which is compared according to the rules of a locale's language
+   */
+  public static <DataType extends Comparable<DataType>> DatasetOrdering<DataType> text(String name, Function<DataType, @Nullable String> keyExtractor, Locale locale, boolean descending) {
+    Collator collator = Collator.getInstance(locale);
+    int sign = descending ? -1 : 1;
+
+    return new DatasetOrdering<>(
+      name,
+      (a, b) -> sign * collator.compare(nullToEmpty(keyExtractor.apply(a)), nullToEmpty(keyExtractor.apply(b))),
+      snapshot -> new TextKeys<>(keyExtractor, collator, sign, snapshot, null, null)
+    );
+  }
+
+  /**
+   * Compares two entries directly by their keys, without making use of a permutation
+   */
+  public int compare(DataType a, DataType b) {
+    return this.comparator.compare(a, b);
+  }
+
+  /**
+   * Get the permutation of a snapshot according to this ordering, which is computed once on first access or
+   * derived from the permutation of the previous snapshot, by only extracting the keys of changed entries
+   */
+  public Permutation<DataType> getPermutation(DatasetSnapshot<DataType> snapshot) {
+    return snapshot.getAttachment(
+      this, s -> new Permutation<>(this.sortKeysFactory.apply(s)),
+      (previous, s, change) -> {
+        // Permutations which have been computed beforehand come without keys to patch
+        if (previous.sortKeys == null)
+          return new Permutation<>(this.sortKeysFactory.apply(s));
+
+        return new Permutation<>(previous, s, change);
+      }
+    );
+  }
+
+  /**
+   * Attaches a permutation to a snapshot which has been computed beforehand, such as by a previous run,
+   * unless the snapshot's permutation has been computed already
+   * @param positions Positions in order
+   * @param ranks Rank of each position, where equal entries share a rank
+   */
+  public void attachPermutation(DatasetSnapshot<DataType> snapshot, int[] positions, int[] ranks) {
+    if (positions.length != snapshot.size() || ranks.length != snapshot.size())
+      throw new IllegalArgumentException("The permutation does not match the snapshot's size");
+
+    snapshot.getAttachment(this, s -> new Permutation<>(positions, ranks));
+  }
+
+  private static int compareNumbers(double a, double b, int sign) {
+    // NaN is greater than all other values, which is to hold no matter the direction
+    if (Double.isNaN(a) || Double.isNaN(b))
+      return Double.compare(a, b);
+
+    return sign * Double.compare(a, b);
+  }
+
+  private static String nullToEmpty(@Nullable String value) {
+    return value == null ? "" : value;
+  }
+
+  public static class Permutation<DataType extends Comparable<DataType>> {
+
+    // Positions in order, as well as the rank of each position within that order, where equal entries share a rank
+    public final int[] positions;
+    public final int[] ranks;
+
+    // Keys which the permutation has been sorted by, null if it has been computed beforehand
+    private final @Nullable SortKeys<DataType> sortKeys;
+
+    private Permutation(int[] positions, int[] ranks) {
+      this.sortKeys = null;
+      this.positions = positions;
+      this.ranks = ranks;
+    }
+
+    private Permutation(SortKeys<DataType> sortKeys) {
+      this.sortKeys = sortKeys;
+      this.positions = new int[sortKeys.size];
+
+      for (int position = 0; position < this.positions.length; position++)
+        this.positions[position] = position;
+
+      sort(this.positions, new int[this.positions.length], 0, this.positions.length, sortKeys);
+      this.ranks = computeRanks(this.positions, sortKeys);
+    }
+
+    /**
+     * Derives the permutation from the permutation of the previous snapshot, where retained entries keep their
+     * relative order, so that only the changed entries need to be sorted and merged into them
+     */
+    private Permutation(Permutation<DataType> previous, DatasetSnapshot<DataType> snapshot, DatasetChange change) {
+      int[] retainedPositions = change.mapRetainedPositions();
+      int[] changedPositions = change.getChangedPositions();
+
+      SortKeys<DataType> sortKeys = Objects.requireNonNull(previous.sortKeys).patch(snapshot, retainedPositions, changedPositions);
+      this.sortKeys = sortKeys;
+      sort(changedPositions, new int[changedPositions.length], 0, changedPositions.length, sortKeys);
+
+      this.positions = new int[snapshot.size()];
+      int numberOfPositions = 0, changedIndex = 0;
+
+      for (int previousPosition : previous.positions) {
+        int position = retainedPositions[previousPosition];
+
+        if (position < 0)
+          continue;
+
+        // Equal entries are ordered by position, just like the stable sort orders them
+        while (changedIndex < changedPositions.length && compareStable(sortKeys, changedPositions[changedIndex], position) < 0)
+          this.positions[numberOfPositions++] = changedPositions[changedIndex++];
+
+        this.positions[numberOfPositions++] = position;
+      }
+
+      while (changedIndex < changedPositions.length)
+        this.positions[numberOfPositions++] = changedPositions[changedIndex++];
+
+      this.ranks = computeRanks(this.positions, sortKeys);
+    }
+
+    private static int compareStable(IntBinaryOperator comparator, int a, int b) {
+      int result = comparator.applyAsInt(a, b);
+      return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    private static int[] computeRanks(int[] positions, IntBinaryOperator comparator) {
+      int[] ranks = new int[positions.length];
+
+      for (int i = 1; i < positions.length; i++) {
+        int previousRank = ranks[positions[i - 1]];
+        ranks[positions[i]] = comparator.applyAsInt(positions[i - 1], positions[i]) == 0 ? previousRank : i;
+      }
+
+      return ranks;
+    }
+
+    /**
+     * Stable merge sort of positions by a comparator, which keeps equal entries in their original order
+     */
+    private static void sort(int[] positions, int[] buffer, int fromIndex, int toIndex, IntBinaryOperator comparator) {
+      if (toIndex - fromIndex < 2)
+        return;
+
+      int middle = (fromIndex + toIndex) >>> 1;
+
+      sort(positions, buffer, fromIndex, middle, comparator);
+      sort(positions, buffer, middle, toIndex, comparator);
+
+      if (comparator.applyAsInt(positions[middle - 1], positions[middle]) <= 0)
+        return;
+
+      System.arraycopy(positions, fromIndex, buffer, fromIndex, toIndex - fromIndex);
+
+      for (int i = fromIndex, left = fromIndex, right = middle; i < toIndex; i++) {
+        if (right == toIndex || (left < middle && comparator.applyAsInt(buffer[left], buffer[right]) <= 0))
+          positions[i] = buffer[left++];
+        else
+          positions[i] = buffer[right++];
+      }
+    }
+  }
+
+  /**
+   * Sort keys of all entries of a snapshot, which compare positions by their keys
+   */
+  private static abstract class SortKeys<DataType extends Comparable<DataType>> implements IntBinaryOperator {
+
+    protected final int size;
+
+    protected SortKeys(int size) {
+      this.size = size;
+    }
+
+    /**
+     * Derives the keys of the next snapshot, where only the keys of changed entries are extracted
+     * @param snapshot Next snapshot
+     * @param retainedPositions Next position by previous position, see {@link DatasetChange#mapRetainedPositions()}
+     * @param changedPositions Positions within the next snapshot to extract keys for
+     */
+    protected abstract SortKeys<DataType> patch(DatasetSnapshot<DataType> snapshot, int[] retainedPositions, int[] changedPositions);
+  }
+
+  private static class NaturalKeys<DataType extends Comparable<DataType>> extends SortKeys<DataType> {
+
+    private final DatasetSnapshot<DataType> snapshot;
+
+    private NaturalKeys(DatasetSnapshot<DataType> snapshot) {
+      super(snapshot.size());
+      this.snapshot = snapshot;
+    }
+
+    @Override
+    public int applyAsInt(int a, int b) {
+      return this.snapshot.getData(a).compareTo(this.snapshot.getData(b));
+    }
+
+    @Override
+    protected SortKeys<DataType> patch(DatasetSnapshot<DataType> snapshot, int[] retainedPositions, int[] changedPositions) {
+      return new NaturalKeys<>(snapshot);
+    }
+  }
+
+  private static class NumericKeys<DataType extends Comparable<DataType>> extends SortKeys<DataType> {
+
+    private final ToDoubleFunction<DataType> keyExtractor;
+    private final int sign;
+    private final double[] keys;
+
+    /**
+     * Extracts the keys of a snapshot, where keys are carried over from the previous keys if there are any
+     */
+    private NumericKeys(
+      ToDoubleFunction<DataType> keyExtractor, int sign, DatasetSnapshot<DataType> snapshot,
+      @Nullable NumericKeys<DataType> previous, int @Nullable [] retainedPositions
+    ) {
+      super(snapshot.size());
+      this.keyExtractor = keyExtractor;
+      this.sign = sign;
+      this.keys = new double[snapshot.size()];
+
+      if (previous == null || retainedPositions == null) {
+        for (int position = 0; position < this.keys.length; position++)
+          this.keys[position] = keyExtractor.applyAsDouble(snapshot.getData(position));
+        return;
+      }
+
+      for (int previousPosition = 0; previousPosition < retainedPositions.length; previousPosition++) {
+        if (retainedPositions[previousPosition] >= 0)
+          this.keys[retainedPositions[previousPosition]] = previous.keys[previousPosition];
+      }
+    }
+
+    @Override
+    public int applyAsInt(int a, int b) {
+      return compareNumbers(this.keys[a], this.keys[b], this.sign);
+    }
+
+    @Override
+    protected SortKeys<DataType> patch(DatasetSnapshot<DataType> snapshot, int[] retainedPositions, int[] changedPositions) {
+      NumericKeys<DataType> result = new NumericKeys<>(this.keyExtractor, this.sign, snapshot, this, retainedPositions);
+
+      for (int position : changedPositions)
+        result.keys[position] = this.keyExtractor.applyAsDouble(snapshot.getData(position));
+
+      return result;
+    }
+  }
+
+  private static class TextKeys<DataType extends Comparable<DataType>> extends SortKeys<DataType> {
+
+    private final Function<DataType, @Nullable String> keyExtractor;
+    private final Collator collator;
+    private final int sign;
+
+    // Collation keys compare as plain bytes, instead of applying the collation rules on every comparison
+    private final CollationKey[] keys;
+
+    /**
+     * Extracts the keys of a snapshot, where keys are carried over from the previous keys if there are any
+     */
+    private TextKeys(
+      Function<DataType, @Nullable String> keyExtractor, Collator collator, int sign, DatasetSnapshot<DataType> snapshot,
+      @Nullable TextKeys<DataType> previous, int @Nullable [] retainedPositions
+    ) {
+      super(snapshot.size());
+      this.keyExtractor = keyExtractor;
+      this.collator = collator;
+      this.sign = sign;
+      this.keys = new CollationKey[snapshot.size()];
+
+      if (previous == null || retainedPositions == null) {
+        for (int position = 0; position < this.keys.length; position++)
+          this.keys[position] = extractKey(snapshot, position);
+        return;
+      }
+
+      for (int previousPosition = 0; previousPosition < retainedPositions.length; previousPosition++) {
+        if (retainedPositions[previousPosition] >= 0)
+          this.keys[retainedPositions[previousPosition]] = previous.keys[previousPosition];
+      }
+    }
+
+    private CollationKey extractKey(DatasetSnapshot<DataType> snapshot, int position) {
+      return this.collator.getCollationKey(nullToEmpty(this.keyExtractor.apply(snapshot.getData(position))));
+    }
+
+    @Override
+    public int applyAsInt(int a, int b) {
+      return this.sign * this.keys[a].compareTo(this.keys[b]);
+    }
+
+    @Override
+    protected SortKeys<DataType> patch(DatasetSnapshot<DataType> snapshot, int[] retainedPositions, int[] changedPositions) {
+      TextKeys<DataType> result = new TextKeys<>(this.keyExtractor, this.collator, this.sign, snapshot, this, retainedPositions);
+
+      for (int position : changedPositions)
+        result.keys[position] = result.extractKey(snapshot, position);
+
+      return result;
+    }
+  }
+}
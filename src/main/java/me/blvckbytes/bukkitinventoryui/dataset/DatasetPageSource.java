@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.pageable.IPageSource;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class DatasetPageSource<DataType extends Comparable<DataType>> implements IPageSource<DataType> {
+
+  private final DatasetSnapshot<DataType> snapshot;
+  private final int @Nullable [] positions;
+  private final int size;
+
+  /**
+   * Create a page source which provides all entries of a snapshot in their original order
+   */
+  public DatasetPageSource(DatasetSnapshot<DataType> snapshot) {
+    this(snapshot, null, snapshot.size());
+  }
+
+  /**
+   * Create a page source which provides all entries of a snapshot according to an ordering,
+   * where the ordering's permutation is shared by all viewers of the snapshot
+   */
+  public DatasetPageSource(DatasetSnapshot<DataType> snapshot, DatasetOrdering<DataType> ordering) {
+    this(snapshot, ordering.getPermutation(snapshot).positions, snapshot.size());
+  }
+
+  /**
+   * Create a page source which provides a view onto a snapshot, where only the viewer's
+   * positions are kept, instead of copies of the slots themselves
+   * @param snapshot Snapshot to look up slots in
+   * @param positions Positions within the snapshot in the order of display, null to use all positions
+   * @param size Number of positions to make use of
+   */
+  public DatasetPageSource(DatasetSnapshot<DataType> snapshot, int @Nullable [] positions, int size) {
+    this.snapshot = snapshot;
+    this.positions = positions;
+    this.size = size;
+  }
+
+  public DatasetSnapshot<DataType> getSnapshot() {
+    return this.snapshot;
+  }
+
+  @Override
+  public int getSize() {
+    return this.size;
+  }
+
+  @Override
+  public void fetchWindow(int offset, int length, Consumer<List<DataBoundUISlot<DataType>>> callback) {
+    int windowStart = Math.max(0, offset);
+    int windowEnd = Math.min(this.size, offset + length);
+    List<DataBoundUISlot<DataType>> window = new ArrayList<>(Math.max(0, windowEnd - windowStart));
+
+    for (int i = windowStart; i < windowEnd; i++)
+      window.add(this.snapshot.getSlot(this.positions == null ? i : this.positions[i]));
+
+    callback.accept(window);
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.base.DataSlotBinding;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+public class DatasetSnapshot<DataType extends Comparable<DataType>> {
+
+  private final SharedDataset<DataType> dataset;
+  private final long version;
+
+  // Slots by position, or the plain data of each entry if the dataset binds all of it's entries
+  private final Object[] entries;
+  private final @Nullable DataSlotBinding<DataType> binding;
+  // Attachments are computed outside of the map's locks, so that computations may request other attachments
+  private final Map<Object, AttachmentTask> attachments;
+
+  // Changes which lead from the previous version to this version, as well as the previous version itself, whose
+  // attachments may be patched, which is only kept until the next version is published, as to never form a chain
+  private final @Nullable DatasetChange change;
+  private volatile @Nullable DatasetSnapshot<DataType> previous;
+
+  DatasetSnapshot(
+    SharedDataset<DataType> dataset, long version, Object[] entries, @Nullable DataSlotBinding<DataType> binding,
+    @Nullable DatasetSnapshot<DataType> previous, @Nullable DatasetChange change
+  ) {
+    this.dataset = dataset;
+    this.version = version;
+    this.entries = entries;
+    this.binding = binding;
+    this.attachments = new ConcurrentHashMap<>();
+    this.previous = previous;
+    this.change = change;
+  }
+
+  /**
+   * Get the dataset this snapshot has been published by
+   */
+  public SharedDataset<DataType> getDataset() {
+    return this.dataset;
+  }
+
+  /**
+   * Get the version of this snapshot, which increases by one with every publication
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Get the changes which lead from the previous version to this version
+   * @return Changes, null if this version has been published as a whole
+   */
+  public @Nullable DatasetChange getChange() {
+    return this.change;
+  }
+
+  public int size() {
+    return this.entries.length;
+  }
+
+  /**
+   * Get the slot of the entry at a position, which is created on demand if the dataset binds
+   * all of it's entries, see {@link DataBoundUISlot#isSameEntry(DataBoundUISlot)}
+   */
+  @SuppressWarnings("unchecked")
+  public DataBoundUISlot<DataType> getSlot(int position) {
+    if (this.binding != null)
+      return this.binding.bind((DataType) this.entries[position]);
+
+    return (DataBoundUISlot<DataType>) this.entries[position];
+  }
+
+  @SuppressWarnings("unchecked")
+  public DataType getData(int position) {
+    if (this.binding != null)
+      return (DataType) this.entries[position];
+
+    return ((DataBoundUISlot<DataType>) this.entries[position]).data;
+  }
+
+  /**
+   * Checks whether the entries at a position of this snapshot and at a position of another
+   * snapshot of the same dataset are the very same entry, without creating any slots
+   */
+  public boolean isSameEntry(int position, DatasetSnapshot<DataType> other, int otherPosition) {
+    return this.entries[position] == other.entries[otherPosition];
+  }
+
+  /**
+   * Get the position of a slot within this snapshot, see {@link DataBoundUISlot#isSameEntry(DataBoundUISlot)}
+   * @return Position, -1 if the slot is not contained
+   */
+  public int indexOf(DataBoundUISlot<DataType> slot) {
+    if (this.binding != null && slot.binding != this.binding)
+      return -1;
+
+    Object entry = this.binding == null ? slot : slot.data;
+
+    for (int i = 0; i < this.entries.length; i++) {
+      if (this.entries[i] == entry)
+        return i;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Get the entry at a position, which is either the slot or the plain data if the dataset binds all of it's entries
+   */
+  Object getEntry(int position) {
+    return this.entries[position];
+  }
+
+  /**
+   * Copies a range of entries, see {@link #getEntry(int)}
+   */
+  void copyEntries(int fromPosition, Object[] destination, int destinationPosition, int length) {
+    System.arraycopy(this.entries, fromPosition, destination, destinationPosition, length);
+  }
+
+  /**
+   * Get a structure derived from this snapshot, such as a search index, which is computed
+   * once per key on first access and then shared by all viewers of this snapshot
+   * @param key Key to identify the structure by
+   * @param factory Factory to compute the structure with if it's not yet attached
+   */
+  public <T> T getAttachment(Object key, Function<DatasetSnapshot<DataType>, T> factory) {
+    return computeAttachment(key, () -> factory.apply(this));
+  }
+
+  /**
+   * Get a structure derived from this snapshot like {@link #getAttachment(Object, Function)}, where the
+   * same structure of the previous version is patched by the changes in between, if it has been attached
+   * @param key Key to identify the structure by
+   * @param factory Factory to compute the structure with if there's no previous structure to patch
+   * @param patcher Patcher to derive the structure from the previous version's structure with
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getAttachment(Object key, Function<DatasetSnapshot<DataType>, T> factory, FAttachmentPatcher<DataType, T> patcher) {
+    return computeAttachment(key, () -> {
+      DatasetSnapshot<DataType> previous = this.previous;
+      AttachmentTask previousTask = previous == null ? null : previous.attachments.get(key);
+
+      if (previousTask == null || this.change == null)
+        return factory.apply(this);
+
+      // The previous structure might still be computed by another thread, which is cheaper to wait for than to rebuild
+      T previousAttachment;
+
+      try {
+        previousAttachment = (T) previous.awaitAttachment(key, previousTask);
+      } catch (RuntimeException e) {
+        return factory.apply(this);
+      }
+
+      return patcher.apply(previousAttachment, this, this.change);
+    });
+  }
+
+  /**
+   * Computes an attachment on the calling thread if it's not yet attached, while other threads requesting
+   * the same attachment in the meantime wait for that computation, instead of computing it as well
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T computeAttachment(Object key, Callable<T> computation) {
+    AttachmentTask task = this.attachments.get(key);
+
+    if (task == null) {
+      AttachmentTask createdTask = new AttachmentTask((Callable<Object>) computation);
+
+      if ((task = this.attachments.putIfAbsent(key, createdTask)) == null) {
+        task = createdTask;
+        task.run();
+      }
+    }
+
+    return (T) awaitAttachment(key, task);
+  }
+
+  private Object awaitAttachment(Object key, AttachmentTask task) {
+    if (!task.isDone() && task.computingThread == Thread.currentThread())
+      throw new IllegalStateException("The attachment " + key + " has been requested while computing it");
+
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the attachment " + key, e);
+    } catch (ExecutionException e) {
+      // Failed computations are not kept, so that the next request tries again
+      this.attachments.remove(key, task);
+
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+
+      if (e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+
+      throw new IllegalStateException("Could not compute the attachment " + key, e.getCause());
+    }
+  }
+
+  /**
+   * Releases the previous version once this version has been superseded
+   */
+  void releasePrevious() {
+    this.previous = null;
+  }
+
+  private static class AttachmentTask extends FutureTask<Object> {
+
+    // Thread which is running the computation, in order to detect requests of the attachment from within it
+    private volatile @Nullable Thread computingThread;
+
+    private AttachmentTask(Callable<Object> computation) {
+      super(computation);
+    }
+
+    @Override
+    public void run() {
+      this.computingThread = Thread.currentThread();
+
+      try {
+        super.run();
+      } finally {
+        this.computingThread = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,438 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.base.DataSlotBinding;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+public class SharedDataset<DataType extends Comparable<DataType>> {
+
+  // Readers never lock, they always see a complete and immutable snapshot
+  private volatile DatasetSnapshot<DataType> snapshot;
+
+  // Binding which renders and handles all entries, which are then held as plain data, null if entries are slots
+  private final @Nullable DataSlotBinding<DataType> binding;
+
+  /**
+   * Create a new dataset which is meant to be referenced by many UIs at once,
+   * where each publication results in a new immutable snapshot
+   * @param slots Initial slots, which are copied once
+   */
+  public SharedDataset(Collection<DataBoundUISlot<DataType>> slots) {
+    this.binding = null;
+    this.snapshot = new DatasetSnapshot<>(this, 0, slots.toArray(), null, null, null);
+  }
+
+  /**
+   * Create a new dataset like {@link #SharedDataset(Collection)}, where entries are held as plain data and all of them
+   * are rendered and handled by a single binding, so that slots are only created for the entries which are displayed,
+   * while all methods taking slots only accept slots created by that binding, see {@link DataSlotBinding#bind(Comparable)}
+   * @param binding Binding to create the slots of entries with
+   * @param entries Initial entries, which are copied once
+   */
+  public SharedDataset(DataSlotBinding<DataType> binding, Collection<DataType> entries) {
+    this.binding = binding;
+    this.snapshot = new DatasetSnapshot<>(this, 0, entries.toArray(), binding, null, null);
+  }
+
+  private SharedDataset(@Nullable DataSlotBinding<DataType> binding, Object[] entries) {
+    this.binding = binding;
+    this.snapshot = new DatasetSnapshot<>(this, 0, entries, binding, null, null);
+  }
+
+  /**
+   * Create a private copy of this dataset's most recently published snapshot, using the same binding,
+   * which can then be altered without affecting any of the UIs referencing this dataset
+   */
+  public SharedDataset<DataType> fork() {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    Object[] entries = new Object[current.size()];
+
+    for (int position = 0; position < entries.length; position++)
+      entries[position] = current.getEntry(position);
+
+    return new SharedDataset<>(this.binding, entries);
+  }
+
+  /**
+   * Get the most recently published snapshot
+   */
+  public DatasetSnapshot<DataType> getSnapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * Get the binding which renders and handles all entries
+   * @return Binding, null if entries are slots which carry handlers of their own
+   */
+  public @Nullable DataSlotBinding<DataType> getBinding() {
+    return this.binding;
+  }
+
+  /**
+   * Publish a whole new set of slots as the next version, where the changes to the current version are
+   * derived by slot identity, as long as all retained slots kept their order, while the version is published
+   * as a whole otherwise, which is why positional changes are better published through {@link #insert(int, DataBoundUISlot)},
+   * {@link #removeAt(int)}, {@link #updateAt(int, DataBoundUISlot)} and {@link #move(int, int)}
+   * @return Published snapshot
+   */
+  public synchronized DatasetSnapshot<DataType> publish(Collection<DataBoundUISlot<DataType>> slots) {
+    return publishDerived(toEntries(slots));
+  }
+
+  /**
+   * Publish a whole new set of entries of a dataset which binds all of it's entries like
+   * {@link #publish(Collection)}, where changes are derived by the identity of the data
+   * @return Published snapshot
+   */
+  public synchronized DatasetSnapshot<DataType> publishEntries(Collection<DataType> entries) {
+    if (this.binding == null)
+      throw new IllegalStateException("Only datasets which bind their entries accept plain entries");
+
+    return publishDerived(entries.toArray());
+  }
+
+  private DatasetSnapshot<DataType> publishDerived(Object[] nextSlots) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    DatasetChange change = deriveChange(current, nextSlots);
+
+    // Publishing the very same slots again is how in-place alterations are announced, which affect all entries
+    if (change != null && change.isEmpty())
+      change = null;
+
+    return publish(current, nextSlots, change);
+  }
+
+  /**
+   * Publishes a new set of slots like {@link #publish(Collection)}, where nothing is
+   * published if the slots are the very same slots as the current snapshot's slots
+   * @return Published snapshot, the current snapshot if nothing has changed
+   */
+  public synchronized DatasetSnapshot<DataType> publishChanges(Collection<DataBoundUISlot<DataType>> slots) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    Object[] nextSlots = toEntries(slots);
+    DatasetChange change = deriveChange(current, nextSlots);
+
+    if (change != null && change.isEmpty())
+      return current;
+
+    return publish(current, nextSlots, change);
+  }
+
+  /**
+   * Copies the current snapshot's slots, applies the modifier on that copy
+   * and publishes the result as the next version, see {@link #publish(Collection)}
+   * @return Published snapshot
+   */
+  public synchronized DatasetSnapshot<DataType> modify(Consumer<List<DataBoundUISlot<DataType>>> modifier) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    List<DataBoundUISlot<DataType>> slots = new ArrayList<>(current.size());
+
+    for (int i = 0; i < current.size(); i++)
+      slots.add(current.getSlot(i));
+
+    modifier.accept(slots);
+    return publish(slots);
+  }
+
+  /**
+   * Publishes a set of changes as the next version, which structures derived from the current version, like
+   * search indices, are patched by, instead of being computed anew, where slots are identified by instance
+   * @param added Slots to append
+   * @param removed Slots to remove, where slots which are not contained are skipped
+   * @param updated Replacements by the slots they replace, where the slot may be replaced by itself if it has been altered
+   * @return Published snapshot, the current snapshot if nothing has changed
+   */
+  public synchronized DatasetSnapshot<DataType> apply(
+    Collection<DataBoundUISlot<DataType>> added,
+    Collection<DataBoundUISlot<DataType>> removed,
+    Map<DataBoundUISlot<DataType>, DataBoundUISlot<DataType>> updated
+  ) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+
+    Set<Object> removedSlots = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    for (DataBoundUISlot<DataType> slot : removed)
+      removedSlots.add(toEntry(slot));
+
+    Map<Object, Object> updatedSlots = new IdentityHashMap<>();
+
+    for (Map.Entry<DataBoundUISlot<DataType>, DataBoundUISlot<DataType>> update : updated.entrySet())
+      updatedSlots.put(toEntry(update.getKey()), toEntry(update.getValue()));
+
+    Object[] nextSlots = new Object[current.size() + added.size()];
+    int[] removedPositions = new int[removedSlots.size()];
+    int[] updatedPositions = new int[updatedSlots.size()];
+    int numberOfRemoved = 0, numberOfUpdated = 0, numberOfSlots = 0;
+
+    for (int position = 0; position < current.size(); position++) {
+      Object slot = current.getEntry(position);
+
+      // Slots which are contained more than once are only changed on their first occurrence
+      if (numberOfRemoved < removedPositions.length && removedSlots.remove(slot)) {
+        removedPositions[numberOfRemoved++] = position;
+        continue;
+      }
+
+      Object replacement = numberOfUpdated < updatedPositions.length ? updatedSlots.remove(slot) : null;
+
+      if (replacement != null) {
+        updatedPositions[numberOfUpdated++] = position;
+        slot = replacement;
+      }
+
+      nextSlots[numberOfSlots++] = slot;
+    }
+
+    for (DataBoundUISlot<DataType> slot : added)
+      nextSlots[numberOfSlots++] = toEntry(slot);
+
+    DatasetChange change = new DatasetChange(
+      current.size(),
+      Arrays.copyOf(removedPositions, numberOfRemoved),
+      Arrays.copyOf(updatedPositions, numberOfUpdated),
+      added.size()
+    );
+
+    if (change.isEmpty())
+      return current;
+
+    return publish(current, Arrays.copyOf(nextSlots, numberOfSlots), change);
+  }
+
+  /**
+   * Appends a single slot, see {@link #apply(Collection, Collection, Map)}
+   */
+  public DatasetSnapshot<DataType> add(DataBoundUISlot<DataType> slot) {
+    return apply(Collections.singletonList(slot), Collections.emptyList(), Collections.emptyMap());
+  }
+
+  /**
+   * Removes a single slot, see {@link #apply(Collection, Collection, Map)}
+   */
+  public DatasetSnapshot<DataType> remove(DataBoundUISlot<DataType> slot) {
+    return apply(Collections.emptyList(), Collections.singletonList(slot), Collections.emptyMap());
+  }
+
+  /**
+   * Replaces a single slot in place, see {@link #apply(Collection, Collection, Map)}
+   */
+  public DatasetSnapshot<DataType> update(DataBoundUISlot<DataType> oldSlot, DataBoundUISlot<DataType> newSlot) {
+    return apply(Collections.emptyList(), Collections.emptyList(), Collections.singletonMap(oldSlot, newSlot));
+  }
+
+  /**
+   * Inserts a single slot at a position, which only copies the references of all entries, while structures
+   * derived from the current version are patched by the insertion, just like by {@link #add(DataBoundUISlot)}
+   * @param position Position to insert at, within [0;size]
+   * @return Published snapshot
+   */
+  public synchronized DatasetSnapshot<DataType> insert(int position, DataBoundUISlot<DataType> slot) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    checkPosition(position, current.size() + 1);
+
+    Object[] nextSlots = new Object[current.size() + 1];
+    current.copyEntries(0, nextSlots, 0, position);
+    nextSlots[position] = toEntry(slot);
+    current.copyEntries(position, nextSlots, position + 1, current.size() - position);
+
+    return publish(current, nextSlots, new DatasetChange(current.size(), new int[0], new int[0], new int[] { position }));
+  }
+
+  /**
+   * Removes the slot at a position, see {@link #insert(int, DataBoundUISlot)}
+   * @return Published snapshot
+   */
+  public synchronized DatasetSnapshot<DataType> removeAt(int position) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    checkPosition(position, current.size());
+
+    Object[] nextSlots = new Object[current.size() - 1];
+    current.copyEntries(0, nextSlots, 0, position);
+    current.copyEntries(position + 1, nextSlots, position, current.size() - position - 1);
+
+    return publish(current, nextSlots, new DatasetChange(current.size(), new int[] { position }, new int[0], new int[0]));
+  }
+
+  /**
+   * Replaces the slot at a position in place, where the slot may be replaced by itself if it has been altered,
+   * see {@link #insert(int, DataBoundUISlot)}
+   * @return Published snapshot
+   */
+  public synchronized DatasetSnapshot<DataType> updateAt(int position, DataBoundUISlot<DataType> slot) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    checkPosition(position, current.size());
+
+    Object[] nextSlots = new Object[current.size()];
+    current.copyEntries(0, nextSlots, 0, nextSlots.length);
+    nextSlots[position] = toEntry(slot);
+
+    return publish(current, nextSlots, new DatasetChange(current.size(), new int[0], new int[] { position }, new int[0]));
+  }
+
+  /**
+   * Moves the slot at a position to another position, which derived structures are patched by as the removal
+   * and the re-insertion of that single slot, see {@link #insert(int, DataBoundUISlot)}
+   * @param fromPosition Current position of the slot
+   * @param toPosition Position of the slot after it has been moved
+   * @return Published snapshot, the current snapshot if both positions are equal
+   */
+  public synchronized DatasetSnapshot<DataType> move(int fromPosition, int toPosition) {
+    DatasetSnapshot<DataType> current = this.snapshot;
+    checkPosition(fromPosition, current.size());
+    checkPosition(toPosition, current.size());
+
+    if (fromPosition == toPosition)
+      return current;
+
+    Object[] nextSlots = new Object[current.size()];
+    current.copyEntries(0, nextSlots, 0, nextSlots.length);
+
+    Object slot = nextSlots[fromPosition];
+
+    if (fromPosition < toPosition)
+      System.arraycopy(nextSlots, fromPosition + 1, nextSlots, fromPosition, toPosition - fromPosition);
+    else
+      System.arraycopy(nextSlots, toPosition, nextSlots, toPosition + 1, fromPosition - toPosition);
+
+    nextSlots[toPosition] = slot;
+
+    return publish(current, nextSlots, new DatasetChange(current.size(), new int[] { fromPosition }, new int[0], new int[] { toPosition }));
+  }
+
+  private static void checkPosition(int position, int bound) {
+    if (position < 0 || position >= bound)
+      throw new IndexOutOfBoundsException("Position " + position + " is out of bounds [0;" + bound + ")");
+  }
+
+  private DatasetSnapshot<DataType> publish(DatasetSnapshot<DataType> current, Object[] slots, @Nullable DatasetChange change) {
+    DatasetSnapshot<DataType> result = new DatasetSnapshot<>(this, current.getVersion() + 1, slots, this.binding, change == null ? null : current, change);
+
+    // Only the latest version keeps it's predecessor, so that superseded versions can be collected
+    current.releasePrevious();
+
+    this.snapshot = result;
+    return result;
+  }
+
+  /**
+   * Get the entry to hold for a slot, which is the slot itself, or it's data if this dataset binds all of it's entries
+   */
+  private Object toEntry(DataBoundUISlot<DataType> slot) {
+    if (this.binding == null)
+      return slot;
+
+    if (slot.binding != this.binding)
+      throw new IllegalArgumentException("Slots of a dataset which binds it's entries have to be created by it's binding");
+
+    return slot.data;
+  }
+
+  private Object[] toEntries(Collection<DataBoundUISlot<DataType>> slots) {
+    Object[] entries = new Object[slots.size()];
+    int index = 0;
+
+    for (DataBoundUISlot<DataType> slot : slots)
+      entries[index++] = toEntry(slot);
+
+    return entries;
+  }
+
+  /**
+   * Derives the changes between the current snapshot and a new set of slots by slot identity, where every run of slots
+   * which is not part of the current snapshot replaces the run of skipped current slots at the same spot, as far as
+   * there are enough of them, while the remaining slots of the run are inserted
+   * @return Changes, null if retained slots changed their order, which cannot be derived by removals, updates and insertions
+   */
+  private static <DataType extends Comparable<DataType>> @Nullable DatasetChange deriveChange(DatasetSnapshot<DataType> current, Object[] slots) {
+    Map<Object, Integer> previousPositions = new IdentityHashMap<>(current.size() * 2);
+
+    for (int position = 0; position < current.size(); position++) {
+      if (previousPositions.put(current.getEntry(position), position) != null)
+        return null;
+    }
+
+    int[] removedPositions = new int[current.size()];
+    int[] updatedPositions = new int[current.size()];
+    int[] insertedPositions = new int[slots.length];
+    int numberOfRemoved = 0, numberOfUpdated = 0, numberOfInserted = 0;
+
+    // Next position within the current snapshot which has not been accounted for, as well as the number of slots since
+    int nextPreviousPosition = 0;
+    int numberOfUnknown = 0;
+
+    for (int position = 0; position <= slots.length; position++) {
+      int previousPosition;
+
+      // The trailing run is matched against all remaining slots
+      if (position == slots.length)
+        previousPosition = current.size();
+
+      else {
+        // Slots which occur more than once are only retained on their first occurrence
+        Integer knownPosition = previousPositions.remove(slots[position]);
+
+        if (knownPosition == null) {
+          ++numberOfUnknown;
+          continue;
+        }
+
+        previousPosition = knownPosition;
+      }
+
+      // Retained slots have to keep their order
+      if (previousPosition < nextPreviousPosition)
+        return null;
+
+      int numberOfSkipped = previousPosition - nextPreviousPosition;
+
+      for (int skipped = 0; skipped < numberOfSkipped; skipped++) {
+        if (skipped < numberOfUnknown)
+          updatedPositions[numberOfUpdated++] = nextPreviousPosition + skipped;
+        else
+          removedPositions[numberOfRemoved++] = nextPreviousPosition + skipped;
+      }
+
+      // Unknown slots which did not replace skipped slots have been inserted right after those which did
+      for (int unknown = numberOfSkipped; unknown < numberOfUnknown; unknown++)
+        insertedPositions[numberOfInserted++] = position - numberOfUnknown + unknown;
+
+      nextPreviousPosition = previousPosition + 1;
+      numberOfUnknown = 0;
+    }
+
+    return new DatasetChange(
+      current.size(),
+      Arrays.copyOf(removedPositions, numberOfRemoved),
+      Arrays.copyOf(updatedPositions, numberOfUpdated),
+      Arrays.copyOf(insertedPositions, numberOfInserted)
+    );
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.pageable;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface IPageSource<DataType extends Comparable<DataType>> {
+
+  /**
+   * Size to be reported by {@link #getSize()} if the total number of entries is not known
+   */
+  int UNKNOWN_SIZE = -1;
+
+  /**
+   * Get the total number of entries this source provides
+   * @return Number of entries or {@link #UNKNOWN_SIZE} if it cannot be determined up-front
+   */
+  int getSize();
+
+  /**
+   * Fetch a window of entries, where slots are only to be created for the requested range.
+   * The callback may either be invoked synchronously, before this call returns, or at any
+   * later point in time from any thread, as the UI will hand it over to the main thread itself.
+   * @param offset Index of the first entry within the window
+   * @param length Maximum number of entries within the window
+   * @param callback Receives the window's slots, which may be less than requested if the end
+   *                 of the source has been reached
+   */
+  void fetchWindow(int offset, int length, Consumer<List<DataBoundUISlot<DataType>>> callback);
+
+}
@@ -25,13 +25,63 @@
 package me.blvckbytes.bukkitinventoryui.pageable;
 
 import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.base.DataSlotBinding;
 import me.blvckbytes.bukkitinventoryui.base.IInventoryUI;
 import me.blvckbytes.bukkitinventoryui.base.ITickHandler;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface IPageableInventoryUI<DataType extends Comparable<DataType>> extends IInventoryUI, ITickHandler {
 
   void setPageableSlots(Collection<DataBoundUISlot<DataType>> items);
 
+  /**
+   * Display a list of plain entries, which are all rendered and handled by a single binding,
+   * where slots are only created for the entries of the currently visible window
+   * @param binding Binding to create the slots of visible entries with
+   * @param entries Entries to display, which are not copied
+   */
+  void setPageableEntries(DataSlotBinding<DataType> binding, List<DataType> entries);
+
+  /**
+   * Set the source to lazily fetch the currently visible window of pageables from,
+   * which will reset the current page to the first page
+   */
+  void setPageSource(IPageSource<DataType> source);
+
+  /**
+   * Display all entries of a shared dataset without copying them, where newly published
+   * versions are picked up automatically while staying on the current page
+   */
+  void setDataset(SharedDataset<DataType> dataset);
+
+  /**
+   * Insert a pageable at the given index of the list set by {@link #setPageableSlots(Collection)}, or of the dataset
+   * set by {@link #setDataset(SharedDataset)}, where the change is published to all UIs displaying that dataset,
+   * while staying on the current page and only redrawing visible slots which actually changed, which is why
+   * a {@link SharedDataset#fork()} is to be displayed in order to alter a dataset without affecting others
+   * @throws IllegalStateException If the pageables have been set as entries or as a page source, which are read-only
+   */
+  void insertPageableSlot(int index, DataBoundUISlot<DataType> slot);
+
+  /**
+   * Remove the pageable at the given index, see {@link #insertPageableSlot(int, DataBoundUISlot)}
+   * @return The removed pageable
+   */
+  DataBoundUISlot<DataType> removePageableSlot(int index);
+
+  /**
+   * Replace the pageable at the given index and always re-render it, even if the
+   * same instance has been passed, see {@link #insertPageableSlot(int, DataBoundUISlot)}
+   * @return The replaced pageable
+   */
+  DataBoundUISlot<DataType> updatePageableSlot(int index, DataBoundUISlot<DataType> slot);
+
+  /**
+   * Move a pageable to another index, see {@link #insertPageableSlot(int, DataBoundUISlot)}
+   */
+  void movePageableSlot(int fromIndex, int toIndex);
+
 }
@@ -40,4 +40,20 @@ public interface IPageableParameterProvider extends IInventoryUIParameterProvide
 
   List<Integer> getPaginationSlots(IEvaluationEnvironment environment);
 
+  /**
+   * Get how many pages in each direction of the current page should be rendered ahead of time
+   */
+  int getPrefetchDepth();
+
+  /**
+   * Get how many rendered pages should be kept per viewer, zero disables caching
+   */
+  int getPageCacheSize();
+
+  /**
+   * Get whether the previous- and next-page items scroll by a single row of pagination
+   * slots instead of jumping by whole pages, where right-clicking scrolls by a whole page
+   */
+  boolean isScrollingRows();
+
 }
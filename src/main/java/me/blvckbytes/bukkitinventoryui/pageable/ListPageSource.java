@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.pageable;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class ListPageSource<EntryType, DataType extends Comparable<DataType>> implements IPageSource<DataType> {
+
+  private final List<EntryType> entries;
+  private final Function<EntryType, DataBoundUISlot<DataType>> slotFactory;
+
+  /**
+   * Create a new page source which is backed by a list of entries, where slots are
+   * only created when the window they're located within is fetched
+   * @param entries List of entries, which is not copied
+   * @param slotFactory Factory used to create the slot of an entry on demand
+   */
+  public ListPageSource(List<EntryType> entries, Function<EntryType, DataBoundUISlot<DataType>> slotFactory) {
+    this.entries = entries;
+    this.slotFactory = slotFactory;
+  }
+
+  @Override
+  public int getSize() {
+    return this.entries.size();
+  }
+
+  @Override
+  public void fetchWindow(int offset, int length, Consumer<List<DataBoundUISlot<DataType>>> callback) {
+    int windowEnd = Math.min(this.entries.size(), offset + length);
+    List<DataBoundUISlot<DataType>> window = new ArrayList<>(Math.max(0, windowEnd - offset));
+
+    for (int i = Math.max(0, offset); i < windowEnd; i++)
+      window.add(this.slotFactory.apply(this.entries.get(i)));
+
+    callback.accept(window);
+  }
+}
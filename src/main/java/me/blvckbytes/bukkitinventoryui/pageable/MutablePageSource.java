@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.pageable;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class MutablePageSource<DataType extends Comparable<DataType>> implements IPageSource<DataType> {
+
+  private final List<DataBoundUISlot<DataType>> slots;
+
+  public MutablePageSource(Collection<DataBoundUISlot<DataType>> slots) {
+    this.slots = new ArrayList<>(slots);
+  }
+
+  @Override
+  public int getSize() {
+    return this.slots.size();
+  }
+
+  @Override
+  public void fetchWindow(int offset, int length, Consumer<List<DataBoundUISlot<DataType>>> callback) {
+    int windowStart = Math.max(0, Math.min(offset, this.slots.size()));
+    int windowEnd = Math.max(windowStart, Math.min(this.slots.size(), offset + length));
+    callback.accept(new ArrayList<>(this.slots.subList(windowStart, windowEnd)));
+  }
+
+  public DataBoundUISlot<DataType> get(int index) {
+    return this.slots.get(index);
+  }
+
+  public void insert(int index, DataBoundUISlot<DataType> slot) {
+    this.slots.add(index, slot);
+  }
+
+  public DataBoundUISlot<DataType> remove(int index) {
+    return this.slots.remove(index);
+  }
+
+  public DataBoundUISlot<DataType> update(int index, DataBoundUISlot<DataType> slot) {
+    return this.slots.set(index, slot);
+  }
+
+  public void move(int fromIndex, int toIndex) {
+    this.slots.add(toIndex, this.slots.remove(fromIndex));
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.pageable;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PageCache<DataType extends Comparable<DataType>> {
+
+  private final int capacity;
+  private final LinkedHashMap<Integer, RenderedPage<DataType>> pageByIndex;
+
+  private long hits, misses;
+
+  /**
+   * Create a new least-recently-used cache of rendered pages
+   * @param capacity Maximum number of pages to keep, zero disables caching
+   */
+  public PageCache(int capacity) {
+    this.capacity = Math.max(0, capacity);
+    this.pageByIndex = new LinkedHashMap<Integer, RenderedPage<DataType>>(16, .75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, RenderedPage<DataType>> eldest) {
+        return size() > PageCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Look up a page and count the access as either a hit or a miss
+   */
+  public @Nullable RenderedPage<DataType> get(int page) {
+    RenderedPage<DataType> result = this.pageByIndex.get(page);
+
+    if (result == null)
+      ++this.misses;
+    else
+      ++this.hits;
+
+    return result;
+  }
+
+  /**
+   * Check whether a page is cached, without affecting the metrics or the eviction order
+   */
+  public boolean contains(int page) {
+    return this.pageByIndex.containsKey(page);
+  }
+
+  public void put(int page, RenderedPage<DataType> renderedPage) {
+    if (this.capacity == 0)
+      return;
+
+    this.pageByIndex.put(page, renderedPage);
+  }
+
+  public void invalidate(int page) {
+    this.pageByIndex.remove(page);
+  }
+
+  /**
+   * Invalidates all pages within the range [fromPage;toPage]
+   */
+  public void invalidateRange(int fromPage, int toPage) {
+    this.pageByIndex.keySet().removeIf(page -> page >= fromPage && page <= toPage);
+  }
+
+  public void clear() {
+    this.pageByIndex.clear();
+  }
+
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  public long getHits() {
+    return this.hits;
+  }
+
+  public long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Get the ratio of hits to total lookups, within the range [0;1]
+   */
+  public double getHitRate() {
+    long lookups = this.hits + this.misses;
+
+    if (lookups == 0)
+      return 0;
+
+    return this.hits / (double) lookups;
+  }
+}
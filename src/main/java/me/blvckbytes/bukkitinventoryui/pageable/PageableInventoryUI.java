@@ -25,6 +25,10 @@
 package me.blvckbytes.bukkitinventoryui.pageable;
 
 import me.blvckbytes.bukkitinventoryui.base.*;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetPageSource;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
 import me.blvckbytes.gpeee.interpreter.EvaluationEnvironmentBuilder;
 import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
 import org.bukkit.entity.Player;
@@ -33,6 +37,10 @@ import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class PageableInventoryUI<DataType extends Comparable<DataType>> implements IPageableInventoryUI<DataType> {
 
@@ -41,6 +49,9 @@ public class PageableInventoryUI<DataType extends Comparable<DataType>> implemen
     KEY_CURRENT_PAGE = "currentPage",
     KEY_NEXT_PAGE = "nextPage";
 
+  // Number of ticks after which an unanswered prefetch is given up on
+  private static final long PREFETCH_TIMEOUT_TICKS = 20 * 5;
+
   private final InventoryAnimator animator;
   private final IInventoryUI handle;
   private final List<Integer> paginationSlotIndices;
@@ -48,48 +59,256 @@ public class PageableInventoryUI<DataType extends Comparable<DataType>> implemen
   private final long animationPeriod;
   private final boolean animationsEnabled;
 
-  private List<DataBoundUISlot<DataType>> pageableSlots;
+  private IPageSource<DataType> pageSource;
+  private @Nullable RenderedPage<DataType> currentRenderedPage;
   private int numberOfPageables;
   private boolean isFirstPageRender;
 
   private int currentPage;
   private int numberOfPages;
+  private boolean hasNextPage;
+
+  // Index of the first entry within the visible window
+  private int windowOffset;
+
+  // Scrolling by rows shifts the window by the number of pagination slots within the first row
+  private final boolean scrollingRows;
+  private final int rowWidth;
+
+  // Window requests are numbered, so that responses of superseded requests can be dropped
+  private int windowRequestId;
+  private final Queue<Runnable> pendingWindows;
+
+  // Rendered pages are only valid for the source they've been fetched from
+  private final PageCache<DataType> pageCache;
+  private final int prefetchDepth;
+  private int sourceGeneration;
+  private int prefetchingPage;
+
+  // Prefetches are numbered, so that a source which never responds cannot stall prefetching forever
+  private int prefetchRequestId;
+  private long prefetchStartTime;
+
+  // Shared dataset the page source views, which is followed on new publications
+  private @Nullable SharedDataset<DataType> dataset;
+  private @Nullable DatasetSnapshot<DataType> datasetSnapshot;
 
   private final IPageableParameterProvider parameterProvider;
 
   public PageableInventoryUI(IPageableParameterProvider parameterProvider, IInventoryUI handle) {
-    this.pageableSlots = new ArrayList<>();
+    this.pageSource = new ListPageSource<>(Collections.emptyList(), Function.identity());
+    this.pendingWindows = new ConcurrentLinkedQueue<>();
+    this.pageCache = new PageCache<>(parameterProvider.getPageCacheSize());
+    this.prefetchDepth = parameterProvider.getPrefetchDepth();
+    this.prefetchingPage = -1;
     this.handle = handle;
     this.parameterProvider = parameterProvider;
     this.paginationSlotIndices = parameterProvider.getPaginationSlots(handle.getInventoryEnvironment());
     this.animationPeriod = parameterProvider.getAnimationPeriod();
     this.animationsEnabled = parameterProvider.isAnimating();
     this.pageSize = this.paginationSlotIndices.size();
+    this.scrollingRows = parameterProvider.isScrollingRows();
+    this.rowWidth = computeRowWidth(this.paginationSlotIndices);
     this.isFirstPageRender = true;
-    this.animator = new InventoryAnimator(handle::setItem);
+    this.animator = new InventoryAnimator(handle::setItem, handle::copyItems);
   }
 
   @Override
   public void setPageableSlots(Collection<DataBoundUISlot<DataType>> items) {
-    this.pageableSlots = new ArrayList<>(items);
-    this.numberOfPageables = this.pageableSlots.size();
+    setPageSource(new MutablePageSource<>(items));
+  }
 
-    if (this.pageSize == 0)
-      this.numberOfPages = 0;
-    else
-      this.numberOfPages = (int) Math.ceil(this.numberOfPageables / (float) this.pageSize);
+  @Override
+  public void setPageableEntries(DataSlotBinding<DataType> binding, List<DataType> entries) {
+    setPageSource(new ListPageSource<>(entries, binding::bind));
+  }
 
+  @Override
+  public void setPageSource(IPageSource<DataType> source) {
+    this.dataset = null;
+    this.datasetSnapshot = null;
+    this.pageSource = source;
+    this.pageCache.clear();
+    ++this.sourceGeneration;
+    this.prefetchingPage = -1;
     setCurrentPage(0, null);
   }
 
+  @Override
+  public void setDataset(SharedDataset<DataType> dataset) {
+    DatasetSnapshot<DataType> snapshot = dataset.getSnapshot();
+    setPageSource(new DatasetPageSource<>(snapshot));
+    this.dataset = dataset;
+    this.datasetSnapshot = snapshot;
+  }
+
+  /**
+   * Swap in an updated version of the current page source while staying on the current page,
+   * where only cached pages overlapping the changed range of entries are invalidated and only
+   * visible slots whose entries actually changed are redrawn
+   * @param source Updated page source, which has to respond synchronously in order to be patched in place
+   * @param fromIndex Index of the first changed entry
+   * @param toIndex Index of the last changed entry, {@link Integer#MAX_VALUE} if all following entries shifted
+   * @param forcedIndex Index of an entry to re-render in any case, -1 for none
+   */
+  public void updatePageSource(IPageSource<DataType> source, int fromIndex, int toIndex, int forcedIndex) {
+    updatePageSource(source, fromIndex, toIndex, forcedIndex < 0 ? new int[0] : new int[] { forcedIndex });
+  }
+
+  /**
+   * Swap in an updated version of the current page source like {@link #updatePageSource(IPageSource, int, int, int)},
+   * where the window is only patched once, no matter how many entries have to be re-rendered in any case
+   * @param forcedIndices Indices of entries to re-render in any case
+   */
+  public void updatePageSource(IPageSource<DataType> source, int fromIndex, int toIndex, int[] forcedIndices) {
+    this.pageSource = source;
+
+    // Prefetches which are still in flight would carry outdated entries
+    ++this.sourceGeneration;
+    this.prefetchingPage = -1;
+
+    this.pageCache.invalidateRange(getPageOf(fromIndex), toIndex == Integer.MAX_VALUE ? Integer.MAX_VALUE : getPageOf(toIndex));
+    patchWindow(this.windowOffset, forcedIndices);
+  }
+
+  private void followDataset(int forcedIndex) {
+    if (this.dataset == null || this.datasetSnapshot == null || this.dataset.getSnapshot() == this.datasetSnapshot)
+      return;
+
+    DatasetSnapshot<DataType> snapshot = this.dataset.getSnapshot();
+    DatasetChange change = snapshot.getChange();
+
+    // Entries before the first change are still the same, if the version directly follows the displayed version
+    boolean isFollowing = change != null && this.datasetSnapshot.getVersion() + 1 == snapshot.getVersion();
+
+    this.datasetSnapshot = snapshot;
+
+    if (!isFollowing) {
+      updatePageSource(new DatasetPageSource<>(snapshot), 0, Integer.MAX_VALUE, forcedIndex);
+      return;
+    }
+
+    int fromIndex = change.getFirstChangedPosition();
+    updatePageSource(new DatasetPageSource<>(snapshot), fromIndex, Math.max(fromIndex, change.getLastChangedPosition()), forcedIndex);
+  }
+
+  @Override
+  public void insertPageableSlot(int index, DataBoundUISlot<DataType> slot) {
+    if (this.dataset != null) {
+      this.dataset.insert(index, slot);
+      followDataset(-1);
+      return;
+    }
+
+    MutablePageSource<DataType> source = getMutablePageSource();
+    source.insert(index, slot);
+
+    // All following entries shifted by one
+    updatePageSource(source, index, Integer.MAX_VALUE, -1);
+  }
+
+  @Override
+  public DataBoundUISlot<DataType> removePageableSlot(int index) {
+    if (this.dataset != null) {
+      DataBoundUISlot<DataType> result = this.dataset.getSnapshot().getSlot(index);
+      this.dataset.removeAt(index);
+      followDataset(-1);
+      return result;
+    }
+
+    MutablePageSource<DataType> source = getMutablePageSource();
+    DataBoundUISlot<DataType> result = source.remove(index);
+
+    // All following entries shifted by one
+    updatePageSource(source, index, Integer.MAX_VALUE, -1);
+    return result;
+  }
+
+  @Override
+  public DataBoundUISlot<DataType> updatePageableSlot(int index, DataBoundUISlot<DataType> slot) {
+    if (this.dataset != null) {
+      DataBoundUISlot<DataType> result = this.dataset.getSnapshot().getSlot(index);
+      this.dataset.updateAt(index, slot);
+      followDataset(index);
+      return result;
+    }
+
+    MutablePageSource<DataType> source = getMutablePageSource();
+    DataBoundUISlot<DataType> result = source.update(index, slot);
+
+    updatePageSource(source, index, index, index);
+    return result;
+  }
+
+  @Override
+  public void movePageableSlot(int fromIndex, int toIndex) {
+    if (this.dataset != null) {
+      this.dataset.move(fromIndex, toIndex);
+      followDataset(-1);
+      return;
+    }
+
+    MutablePageSource<DataType> source = getMutablePageSource();
+    source.move(fromIndex, toIndex);
+
+    // Only entries in between both indices shifted
+    updatePageSource(source, Math.min(fromIndex, toIndex), Math.max(fromIndex, toIndex), -1);
+  }
+
+  /**
+   * Get the list of pageables as set by {@link #setPageableSlots(Collection)}
+   */
+  public DataBoundUISlot<DataType> getPageableSlot(int index) {
+    return getMutablePageSource().get(index);
+  }
+
+  /**
+   * Get the cache of rendered pages, which also keeps track of it's hit-rate
+   */
+  public PageCache<DataType> getPageCache() {
+    return this.pageCache;
+  }
+
+  /**
+   * Get the index of the first entry which is currently displayed
+   */
+  public int getWindowOffset() {
+    return this.windowOffset;
+  }
+
+  /**
+   * Get the number of pagination slots, which is the number of entries shown at once
+   */
+  public int getPageSize() {
+    return this.pageSize;
+  }
+
   public void setSlotOffset(int offset) {
     this.animator.setSlotOffset(offset);
   }
 
   @Override
   public void handleTick(long time) {
+    Runnable pendingWindow;
+
+    while ((pendingWindow = this.pendingWindows.poll()) != null)
+      pendingWindow.run();
+
+    // Follow new publications of the dataset, while staying on the current page
+    followDataset(-1);
+
     if (time % animationPeriod == 0)
       this.animator.tick();
+
+    // Make use of idle ticks to render adjacent pages ahead of time
+    // Give up on prefetches which have not been responded to in time, dropping their late responses
+    if (this.prefetchingPage >= 0 && time - this.prefetchStartTime >= PREFETCH_TIMEOUT_TICKS) {
+      ++this.prefetchRequestId;
+      this.prefetchingPage = -1;
+    }
+
+    if (!this.scrollingRows && !this.animator.isAnimating() && this.prefetchingPage < 0)
+      prefetchAdjacentPage(time);
   }
 
   @Override
@@ -122,6 +341,11 @@ public class PageableInventoryUI<DataType extends Comparable<DataType>> implemen
     return this.handle.getItem(slot);
   }
 
+  @Override
+  public void copyItems(int fromSlot, ItemStack[] buffer, int bufferOffset, int length) {
+    this.handle.copyItems(fromSlot, buffer, bufferOffset, length);
+  }
+
   @Override
   public void handleInteraction(UIInteraction interaction) {
     this.animator.fastForward();
@@ -167,17 +391,16 @@ public class PageableInventoryUI<DataType extends Comparable<DataType>> implemen
   private void drawCurrentPage() {
     for (int i = 0; i < pageSize; i++) {
       int slot = paginationSlotIndices.get(i);
-      int pageableSlotsIndex = this.currentPage * this.pageSize + i;
-
-      UISlot slotValue;
 
-      if (pageableSlotsIndex >= this.numberOfPageables)
-        slotValue = null;
-      else
-        slotValue = pageableSlots.get(pageableSlotsIndex);
+      if (this.currentRenderedPage == null || i >= this.currentRenderedPage.items.length) {
+        setSlotById(slot, null);
+        drawSlotById(slot);
+        continue;
+      }
 
-      setSlotById(slot, slotValue);
-      drawSlotById(slot);
+      // Items have been rendered when the page has been fetched, possibly ahead of time by prefetching
+      setSlotById(slot, this.currentRenderedPage.slots.get(i));
+      this.handle.setItem(slot, this.currentRenderedPage.items[i]);
     }
   }
 
@@ -185,7 +408,7 @@ public class PageableInventoryUI<DataType extends Comparable<DataType>> implemen
     int inventorySize = handle.getInventory().getSize() + 9 * 4;
 
     if (animationsEnabled)
-      animator.saveLayout(inventorySize, this.handle::getItem);
+      animator.saveLayout(inventorySize);
 
     this.drawCurrentPage();
     this.handle.drawSlotByName(KEY_PREVIOUS_PAGE);
@@ -193,20 +416,332 @@ public class PageableInventoryUI<DataType extends Comparable<DataType>> implemen
     this.handle.drawSlotByName(KEY_NEXT_PAGE);
 
     if (animationsEnabled && !isFirstPageRender && animationType != null)
-      animator.animateTo(animationType, paginationSlotIndices, inventorySize, this.handle::getItem);
+      animator.animateTo(animationType, paginationSlotIndices, inventorySize);
 
     isFirstPageRender = false;
   }
 
-  private void setCurrentPage(int slot, @Nullable EAnimationType animationType) {
-    this.currentPage = slot;
+  private void setCurrentPage(int page, @Nullable EAnimationType animationType) {
+    showWindow(page * this.pageSize, animationType);
+  }
+
+  private void showWindow(int offset, @Nullable EAnimationType animationType) {
+    int requestId = ++this.windowRequestId;
+
+    // Scrolled windows are not aligned to pages and thereby bypass the cache
+    int page = this.scrollingRows ? -1 : getPageOf(offset);
+    RenderedPage<DataType> cachedPage = page < 0 ? null : this.pageCache.get(page);
+
+    if (cachedPage != null) {
+      applyWindow(offset, cachedPage, animationType);
+      return;
+    }
+
+    int generation = this.sourceGeneration;
+
+    fetchRenderedWindow(offset, renderedPage -> {
+      if (generation != this.sourceGeneration)
+        return;
+
+      if (page >= 0)
+        this.pageCache.put(page, renderedPage);
+
+      // Another window has been requested in the meantime
+      if (requestId == this.windowRequestId)
+        applyWindow(offset, renderedPage, animationType);
+    });
+  }
+
+  /**
+   * Fetches and renders the window starting at the given offset, where the handler is always
+   * invoked on the main thread, either synchronously or within the next tick
+   */
+  private void fetchRenderedWindow(int offset, Consumer<RenderedPage<DataType>> handler) {
+    // Request one additional entry if the size is unknown, to find out whether there's a next page
+    int windowLength = this.pageSource.getSize() == IPageSource.UNKNOWN_SIZE ? this.pageSize + 1 : this.pageSize;
+
+    Thread callingThread = Thread.currentThread();
+
+    // Set as soon as the fetch returned, where responses on the calling thread before that have been synchronous
+    AtomicBoolean hasReturned = new AtomicBoolean();
+
+    try {
+      this.pageSource.fetchWindow(offset, windowLength, window -> {
+        // Responded synchronously, apply right away
+        if (!hasReturned.get() && Thread.currentThread() == callingThread) {
+          handler.accept(RenderedPage.render(window, this.pageSize));
+          return;
+        }
+
+        // Responded asynchronously, hand over to the next tick on the main thread
+        this.pendingWindows.add(() -> handler.accept(RenderedPage.render(window, this.pageSize)));
+      });
+    } finally {
+      hasReturned.set(true);
+    }
+  }
+
+  private void prefetchAdjacentPage(long time) {
+    // Prefetching more pages than the cache can hold would only evict the current page
+    int maxDistance = Math.min(this.prefetchDepth, (this.pageCache.getCapacity() - 1) / 2);
+
+    for (int distance = 1; distance <= maxDistance; distance++) {
+      // Look ahead first, as paging forwards is far more common
+      for (int direction = 1; direction >= -1; direction -= 2) {
+        int page = this.currentPage + direction * distance;
+
+        if (!isExistingPage(page) || this.pageCache.contains(page))
+          continue;
+
+        int generation = this.sourceGeneration;
+        int requestId = ++this.prefetchRequestId;
+
+        this.prefetchingPage = page;
+        this.prefetchStartTime = time;
+
+        fetchRenderedWindow(page * this.pageSize, renderedPage -> {
+          if (generation != this.sourceGeneration || requestId != this.prefetchRequestId)
+            return;
+
+          this.pageCache.put(page, renderedPage);
+          this.prefetchingPage = -1;
+        });
+
+        return;
+      }
+    }
+  }
+
+  private boolean isExistingPage(int page) {
+    if (page < 0)
+      return false;
+
+    // Pages past the next page cannot be known to exist ahead of time
+    if (this.pageSource.getSize() == IPageSource.UNKNOWN_SIZE)
+      return page < this.currentPage || (page == this.currentPage + 1 && this.hasNextPage);
+
+    return page < this.numberOfPages;
+  }
+
+  private void applyWindow(int offset, RenderedPage<DataType> renderedPage, @Nullable EAnimationType animationType) {
+    this.windowOffset = offset;
+    this.currentRenderedPage = renderedPage;
+
+    updatePageCounts(offset, renderedPage);
     this.drawPagination(animationType);
   }
 
+  private void updatePageCounts(int offset, RenderedPage<DataType> renderedPage) {
+    int sourceSize = this.pageSource.getSize();
+    int page = getPageOf(offset);
+
+    if (sourceSize == IPageSource.UNKNOWN_SIZE) {
+      this.hasNextPage = renderedPage.hasMoreEntries;
+      this.numberOfPageables = offset + renderedPage.items.length;
+      this.numberOfPages = page + (this.hasNextPage ? 2 : 1);
+    }
+
+    else {
+      this.numberOfPageables = sourceSize;
+
+      if (this.pageSize == 0)
+        this.numberOfPages = 0;
+      else
+        this.numberOfPages = (int) Math.ceil(this.numberOfPageables / (float) this.pageSize);
+
+      this.hasNextPage = offset + this.pageSize < this.numberOfPageables;
+    }
+
+    // A scrolled window which reached the end counts as being on the last page
+    this.currentPage = this.hasNextPage ? page : Math.max(page, this.numberOfPages - 1);
+  }
+
+  /**
+   * Get the offset of the last window which still shows entries, where scrolled windows
+   * stop as soon as the last row has been revealed
+   */
+  private int getLastWindowOffset() {
+    if (!this.scrollingRows)
+      return Math.max(0, this.numberOfPages - 1) * this.pageSize;
+
+    int numberOfRows = (this.numberOfPageables + this.rowWidth - 1) / this.rowWidth;
+    return Math.max(0, numberOfRows * this.rowWidth - this.pageSize);
+  }
+
+  private void scrollTo(int offset) {
+    int targetOffset = Math.max(0, offset);
+
+    // The end can only be clamped to if it's known
+    if (this.pageSource.getSize() != IPageSource.UNKNOWN_SIZE)
+      targetOffset = Math.min(targetOffset, getLastWindowOffset());
+
+    if (targetOffset != this.windowOffset)
+      patchWindow(targetOffset, new int[0]);
+  }
+
+  private static int computeRowWidth(List<Integer> paginationSlotIndices) {
+    if (paginationSlotIndices.isEmpty())
+      return 1;
+
+    int firstRow = paginationSlotIndices.get(0) / 9;
+    int rowWidth = 0;
+
+    for (int slot : paginationSlotIndices) {
+      if (slot / 9 != firstRow)
+        break;
+
+      ++rowWidth;
+    }
+
+    return rowWidth;
+  }
+
+  private MutablePageSource<DataType> getMutablePageSource() {
+    if (!(this.pageSource instanceof MutablePageSource))
+      throw new IllegalStateException("Pageables can only be mutated after having been set as slots or as a dataset");
+
+    return (MutablePageSource<DataType>) this.pageSource;
+  }
+
+  private static boolean isForcedIndex(int[] forcedIndices, int index) {
+    for (int forcedIndex : forcedIndices) {
+      if (forcedIndex == index)
+        return true;
+    }
+
+    return false;
+  }
+
+  private int getPageOf(int index) {
+    if (this.pageSize == 0)
+      return 0;
+
+    return index / this.pageSize;
+  }
+
+  /**
+   * Re-reads the window at the given offset from the page source, while reusing all already
+   * rendered items and only redrawing slots which actually changed their content, which
+   * covers both changes of the page source and scrolling over overlapping windows
+   * @param offset Index of the first entry to display
+   * @param forcedIndices Indices of entries to re-render in any case
+   */
+  private void patchWindow(int offset, int[] forcedIndices) {
+    RenderedPage<DataType> previousPage = this.currentRenderedPage;
+
+    int previousOffset = this.windowOffset;
+    int previousNumberOfPages = this.numberOfPages;
+    int previousNumberOfPageables = this.numberOfPageables;
+
+    boolean isSizeKnown = this.pageSource.getSize() != IPageSource.UNKNOWN_SIZE;
+
+    // Responses of windows which are still pending would draw over the patched window
+    ++this.windowRequestId;
+
+    List<List<DataBoundUISlot<DataType>>> responses = new ArrayList<>(1);
+    this.pageSource.fetchWindow(offset, isSizeKnown ? this.pageSize : this.pageSize + 1, responses::add);
+
+    // Asynchronous sources cannot be patched in place, fall back to re-requesting the window
+    if (responses.isEmpty()) {
+      showWindow(offset, null);
+      return;
+    }
+
+    List<DataBoundUISlot<DataType>> slots = responses.get(0);
+    ItemStack[] items = new ItemStack[Math.min(slots.size(), this.pageSize)];
+
+    RenderedPage<DataType> renderedPage = new RenderedPage<>(slots, items, slots.size() > this.pageSize);
+    updatePageCounts(offset, renderedPage);
+
+    // The window vanished, fall back to the last window
+    if (offset > 0 && offset > getLastWindowOffset()) {
+      showWindow(getLastWindowOffset(), null);
+      return;
+    }
+
+    // Don't let a running animation draw over the patched slots
+    this.animator.fastForward();
+
+    for (int i = 0; i < items.length; i++) {
+      DataBoundUISlot<DataType> slot = slots.get(i);
+      int inventorySlot = this.paginationSlotIndices.get(i);
+      int previousIndex = -1;
+
+      // Entries which stayed visible are most likely found where they've been shifted to
+      if (!isForcedIndex(forcedIndices, offset + i))
+        previousIndex = indexOfRenderedSlot(previousPage, slot, offset + i - previousOffset);
+
+      if (previousIndex >= 0) {
+        items[i] = previousPage.items[previousIndex];
+
+        // Still at the same position, nothing to redraw
+        if (previousIndex == i)
+          continue;
+      }
+
+      else
+        items[i] = slot.itemSupplier.get();
+
+      setSlotById(inventorySlot, slot);
+
+      // The very same item instance is displayed already, don't send it again
+      if (previousPage != null && i < previousPage.items.length && previousPage.items[i] == items[i])
+        continue;
+
+      this.handle.setItem(inventorySlot, items[i]);
+    }
+
+    // Clear slots which are no longer occupied
+    int numberOfPreviousItems = previousPage == null ? 0 : previousPage.items.length;
+    for (int i = items.length; i < numberOfPreviousItems; i++) {
+      int inventorySlot = this.paginationSlotIndices.get(i);
+      setSlotById(inventorySlot, null);
+      drawSlotById(inventorySlot);
+    }
+
+    this.windowOffset = offset;
+    this.currentRenderedPage = renderedPage;
+
+    if (!this.scrollingRows)
+      this.pageCache.put(getPageOf(offset), renderedPage);
+
+    if (
+      previousNumberOfPages == this.numberOfPages &&
+      previousNumberOfPageables == this.numberOfPageables &&
+      previousOffset == offset
+    )
+      return;
+
+    this.handle.drawSlotByName(KEY_PREVIOUS_PAGE);
+    this.handle.drawSlotByName(KEY_CURRENT_PAGE);
+    this.handle.drawSlotByName(KEY_NEXT_PAGE);
+  }
+
+  private int indexOfRenderedSlot(@Nullable RenderedPage<DataType> renderedPage, DataBoundUISlot<DataType> slot, int expectedIndex) {
+    if (renderedPage == null)
+      return -1;
+
+    if (expectedIndex >= 0 && expectedIndex < renderedPage.items.length && renderedPage.slots.get(expectedIndex).isSameEntry(slot))
+      return expectedIndex;
+
+    for (int i = 0; i < renderedPage.items.length; i++) {
+      if (renderedPage.slots.get(i).isSameEntry(slot))
+        return i;
+    }
+
+    return -1;
+  }
+
   private EnumSet<EClickResultFlag> handlePreviousPageClick(UIInteraction action) {
-    if (this.currentPage == 0)
+    if (this.windowOffset == 0)
       return null;
 
+    // Right-clicking scrolls by a whole page
+    if (this.scrollingRows) {
+      scrollTo(this.windowOffset - (action.clickType.isRightClick() ? this.pageSize : this.rowWidth));
+      return null;
+    }
+
     if (action.clickType.isRightClick()) {
       setCurrentPage(0, EAnimationType.SLIDE_RIGHT);
       return null;
@@ -217,10 +752,17 @@ public class PageableInventoryUI<DataType extends Comparable<DataType>> implemen
   }
 
   private EnumSet<EClickResultFlag> handleNextPageClick(UIInteraction action) {
-    if (this.currentPage >= numberOfPages - 1)
+    if (!this.hasNextPage)
       return null;
 
-    if (action.clickType.isRightClick()) {
+    // Right-clicking scrolls by a whole page
+    if (this.scrollingRows) {
+      scrollTo(this.windowOffset + (action.clickType.isRightClick() ? this.pageSize : this.rowWidth));
+      return null;
+    }
+
+    // The last page can only be jumped to if it's known
+    if (action.clickType.isRightClick() && this.pageSource.getSize() != IPageSource.UNKNOWN_SIZE) {
       setCurrentPage(this.numberOfPages - 1, EAnimationType.SLIDE_LEFT);
       return null;
     }
@@ -32,17 +32,33 @@ import me.blvckbytes.bukkitinventoryui.base.BaseUILayoutSection;
 import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
 public class PageableUISection extends BaseUILayoutSection implements IConfigSection, IPageableParameterProvider {
 
+  private static final int DEFAULT_PREFETCH_DEPTH = 1;
+  private static final int DEFAULT_PAGE_CACHE_SIZE = 5;
+
   private IItemBuildable previousPage;
   private IItemBuildable currentPage;
   private IItemBuildable nextPage;
 
   private @Nullable IEvaluable paginationSlots;
 
+  // Null as long as they've not been specified, where defaults are applied after parsing
+  private @Nullable Integer prefetchDepth;
+  private @Nullable Integer pageCacheSize;
+  private boolean scrollingRows;
+
+  @Override
+  public void afterParsing(List<Field> fields) throws Exception {
+    super.afterParsing(fields);
+    this.prefetchDepth = prefetchDepth == null ? DEFAULT_PREFETCH_DEPTH : Math.max(0, prefetchDepth);
+    this.pageCacheSize = pageCacheSize == null ? DEFAULT_PAGE_CACHE_SIZE : Math.max(0, pageCacheSize);
+  }
+
   @Override
   public IItemBuildable getPreviousPage() {
     return previousPage;
@@ -64,4 +80,19 @@ public class PageableUISection extends BaseUILayoutSection implements IConfigSec
       return new ArrayList<>();
     return paginationSlots.asList(ScalarType.INT, environment);
   }
+
+  @Override
+  public int getPrefetchDepth() {
+    return prefetchDepth;
+  }
+
+  @Override
+  public int getPageCacheSize() {
+    return pageCacheSize;
+  }
+
+  @Override
+  public boolean isScrollingRows() {
+    return scrollingRows;
+  }
 }
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.pageable;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+public class RenderedPage<DataType extends Comparable<DataType>> {
+
+  public final List<DataBoundUISlot<DataType>> slots;
+
+  // Items which have been rendered for each slot ahead of drawing, so that drawing a cached page doesn't build any
+  // items, where slots whose items render live state are refreshed by updating them or publishing their dataset
+  public final ItemStack[] items;
+  public final boolean hasMoreEntries;
+
+  public RenderedPage(List<DataBoundUISlot<DataType>> slots, ItemStack[] items, boolean hasMoreEntries) {
+    this.slots = slots;
+    this.items = items;
+    this.hasMoreEntries = hasMoreEntries;
+  }
+
+  /**
+   * Renders the items of a fetched window, where entries past the page size only
+   * signal that there are more entries, but are not rendered themselves
+   * @param window Window of slots, as fetched from the page source
+   * @param pageSize Number of slots per page
+   */
+  public static <DataType extends Comparable<DataType>> RenderedPage<DataType> render(List<DataBoundUISlot<DataType>> window, int pageSize) {
+    int numberOfItems = Math.min(window.size(), pageSize);
+    ItemStack[] items = new ItemStack[numberOfItems];
+
+    for (int i = 0; i < numberOfItems; i++)
+      items[i] = window.get(i).itemSupplier.get();
+
+    return new RenderedPage<>(window, items, window.size() > pageSize);
+  }
+}
@@ -27,6 +27,8 @@ package me.blvckbytes.bukkitinventoryui.singlechoice;
 import me.blvckbytes.bukkitinventoryui.anvilsearch.*;
 import me.blvckbytes.bukkitinventoryui.base.AUIParameter;
 import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.base.DataSlotBinding;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Nullable;
 
@@ -36,7 +38,8 @@ import java.util.function.Consumer;
 public class SingleChoiceParameter<T extends Comparable<T>> extends AUIParameter<ISingleChoiceParameterProvider> {
 
   public final ISearchFilterEnum<?, T> filterEnum;
-  public final Collection<DataBoundUISlot<T>> slots;
+  public final @Nullable Collection<DataBoundUISlot<T>> slots;
+  public final @Nullable SharedDataset<T> dataset;
   private final IAnvilSearchParameterProvider anvilSearchProvider;
 
   public SingleChoiceParameter(
@@ -45,14 +48,54 @@ public class SingleChoiceParameter<T extends Comparable<T>> extends AUIParameter
     IAnvilSearchParameterProvider anvilSearchProvider,
     ISearchFilterEnum<?, T> filterEnum,
     Collection<DataBoundUISlot<T>> slots
+  ) {
+    this(provider, viewer, anvilSearchProvider, filterEnum, slots, null);
+  }
+
+  public SingleChoiceParameter(
+    ISingleChoiceParameterProvider provider,
+    Player viewer,
+    IAnvilSearchParameterProvider anvilSearchProvider,
+    ISearchFilterEnum<?, T> filterEnum,
+    SharedDataset<T> dataset
+  ) {
+    this(provider, viewer, anvilSearchProvider, filterEnum, null, dataset);
+  }
+
+  /**
+   * Choose from plain entries, which are all rendered and handled by a single binding,
+   * where slots are only created for the entries which are displayed
+   */
+  public SingleChoiceParameter(
+    ISingleChoiceParameterProvider provider,
+    Player viewer,
+    IAnvilSearchParameterProvider anvilSearchProvider,
+    ISearchFilterEnum<?, T> filterEnum,
+    DataSlotBinding<T> binding,
+    Collection<T> entries
+  ) {
+    this(provider, viewer, anvilSearchProvider, filterEnum, null, new SharedDataset<>(binding, entries));
+  }
+
+  private SingleChoiceParameter(
+    ISingleChoiceParameterProvider provider,
+    Player viewer,
+    IAnvilSearchParameterProvider anvilSearchProvider,
+    ISearchFilterEnum<?, T> filterEnum,
+    @Nullable Collection<DataBoundUISlot<T>> slots,
+    @Nullable SharedDataset<T> dataset
   ) {
     super(provider, viewer);
     this.filterEnum = filterEnum;
     this.slots = slots;
+    this.dataset = dataset;
     this.anvilSearchProvider = anvilSearchProvider;
   }
 
   public AnvilSearchParameter<T> makeAnvilSearchParameter(@Nullable Consumer<AnvilSearchUI<T>> backHandler) {
+    if (dataset != null)
+      return new AnvilSearchParameter<>(anvilSearchProvider, viewer, dataset, filterEnum, backHandler, null);
+
     return new AnvilSearchParameter<>(anvilSearchProvider, viewer, slots, filterEnum, backHandler, null);
   }
 }
@@ -27,6 +27,8 @@ package me.blvckbytes.bukkitinventoryui.singlechoice;
 import me.blvckbytes.bukkitinventoryui.IInventoryRegistry;
 import me.blvckbytes.bukkitinventoryui.anvilsearch.AnvilSearchUI;
 import me.blvckbytes.bukkitinventoryui.base.*;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import me.blvckbytes.bukkitinventoryui.pageable.IPageSource;
 import me.blvckbytes.bukkitinventoryui.pageable.IPageableInventoryUI;
 import me.blvckbytes.bukkitinventoryui.pageable.PageableInventoryUI;
 import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
@@ -37,6 +39,8 @@ import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public class SingleChoiceUI<DataType extends Comparable<DataType>> implements IPageableInventoryUI<DataType> {
 
@@ -47,12 +51,23 @@ public class SingleChoiceUI<DataType extends Comparable<DataType>> implements IP
   private final PageableInventoryUI<DataType> handle;
   private final SingleChoiceParameter<DataType> parameter;
 
+  // Dataset the search UI searches through, which is the displayed dataset itself, so that mutations of the
+  // list are published to the search as well, null as long as the parameter's slots or dataset are displayed
+  private @Nullable SharedDataset<DataType> searchDataset;
+  private boolean isSearchDatasetShared;
+
+  // Most recently set page source, which is only fetched as a whole as soon as the search UI is opened
+  private @Nullable IPageSource<DataType> unfetchedSearchSource;
+
   public SingleChoiceUI(SingleChoiceParameter<DataType> parameter, IInventoryRegistry registry) {
     this.parameter = parameter;
     this.registry = registry;
 
     BaseInventoryUI baseUI = new BaseInventoryUI(parameter.provider, this::createInventory, parameter.viewer, null);
     this.handle = new PageableInventoryUI<>(parameter.provider, baseUI);
+
+    if (parameter.dataset != null)
+      this.handle.setDataset(parameter.dataset);
   }
 
   private void setSingleChoiceSlots() {
@@ -63,8 +78,12 @@ public class SingleChoiceUI<DataType extends Comparable<DataType>> implements IP
         this.searchUI = new AnvilSearchUI<>(
           parameter.makeAnvilSearchParameter(ui -> this.show()), registry
         );
+
+        if (this.searchDataset != null)
+          this.searchUI.setDataset(this.searchDataset, this.isSearchDatasetShared);
       }
 
+      fetchSearchSource();
       this.searchUI.show();
       return null;
     }));
@@ -77,13 +96,107 @@ public class SingleChoiceUI<DataType extends Comparable<DataType>> implements IP
 
   @Override
   public void setPageableSlots(Collection<DataBoundUISlot<DataType>> items) {
-    this.handle.setPageableSlots(items);
+    displayDataset(new SharedDataset<>(items), false);
+  }
+
+  /**
+   * Displays the entries like {@link IPageableInventoryUI#setPageableEntries(DataSlotBinding, List)}, where they're
+   * copied into a dataset which is shared with the search UI and can thereby be mutated like a list of slots
+   */
+  @Override
+  public void setPageableEntries(DataSlotBinding<DataType> binding, List<DataType> entries) {
+    displayDataset(new SharedDataset<>(binding, entries), false);
+  }
+
+  /**
+   * Sets the source to display, where the search UI searches through all of it's entries, which are fetched as a
+   * whole once the search UI is first opened, while sources of unknown size might be unbounded and thus leave the
+   * search without any entries
+   */
+  @Override
+  public void setPageSource(IPageSource<DataType> source) {
+    this.handle.setPageSource(source);
+
+    // Entries of the previous source are no longer to be searched through, until the new source has been fetched
+    searchThrough(new SharedDataset<>(Collections.emptyList()), false);
+
+    if (source.getSize() == IPageSource.UNKNOWN_SIZE)
+      return;
+
+    this.unfetchedSearchSource = source;
 
-    // Only invoke the update if the search UI is actually active
     if (this.searchUI != null && this.searchUI.isOpen())
+      fetchSearchSource();
+  }
+
+  /**
+   * Fetches the whole content of the most recently set page source, if it hasn't yet been fetched
+   */
+  private void fetchSearchSource() {
+    IPageSource<DataType> source = this.unfetchedSearchSource;
+
+    if (source == null)
+      return;
+
+    // The search UI follows the dataset on it's ticks, while responses of superseded sources end
+    // up in a dataset which is no longer searched through
+    SharedDataset<DataType> dataset = new SharedDataset<>(Collections.emptyList());
+    searchThrough(dataset, false);
+    source.fetchWindow(0, source.getSize(), dataset::publish);
+  }
+
+  @Override
+  public void setDataset(SharedDataset<DataType> dataset) {
+    displayDataset(dataset, true);
+  }
+
+  private void displayDataset(SharedDataset<DataType> dataset, boolean isShared) {
+    this.handle.setDataset(dataset);
+    searchThrough(dataset, isShared);
+  }
+
+  /**
+   * Hands a dataset to search through to the search UI, now or as soon as it's been created
+   * @param isShared Whether the dataset is shared among viewers, see {@link AnvilSearchUI#setDataset(SharedDataset, boolean)}
+   */
+  private void searchThrough(SharedDataset<DataType> dataset, boolean isShared) {
+    this.searchDataset = dataset;
+    this.isSearchDatasetShared = isShared;
+    this.unfetchedSearchSource = null;
+
+    if (this.searchUI == null)
+      return;
+
+    this.searchUI.setDataset(dataset, isShared);
+
+    // Only invoke the update if the search UI is actually active
+    if (this.searchUI.isOpen())
       this.searchUI.invokeFilterFunctionAndUpdatePageSlots();
   }
 
+  // Mutations are published to the displayed dataset, which the search UI follows on it's next tick, so
+  // that blank searches, which keep the dataset's order, always list entries in the very same order
+
+  @Override
+  public void insertPageableSlot(int index, DataBoundUISlot<DataType> slot) {
+    this.handle.insertPageableSlot(index, slot);
+  }
+
+  @Override
+  public DataBoundUISlot<DataType> removePageableSlot(int index) {
+    return this.handle.removePageableSlot(index);
+  }
+
+  @Override
+  public DataBoundUISlot<DataType> updatePageableSlot(int index, DataBoundUISlot<DataType> slot) {
+    return this.handle.updatePageableSlot(index, slot);
+  }
+
+  @Override
+  public void movePageableSlot(int fromIndex, int toIndex) {
+    this.handle.movePageableSlot(fromIndex, toIndex);
+  }
+
   @Override
   public void setSlotById(int slot, @Nullable UISlot value) {
     this.handle.setSlotById(slot, value);
@@ -114,6 +227,11 @@ public class SingleChoiceUI<DataType extends Comparable<DataType>> implements IP
     return this.handle.getItem(slot);
   }
 
+  @Override
+  public void copyItems(int fromSlot, ItemStack[] buffer, int bufferOffset, int length) {
+    this.handle.copyItems(fromSlot, buffer, bufferOffset, length);
+  }
+
   @Override
   public void handleInteraction(UIInteraction interaction) {
     this.handle.handleInteraction(interaction);
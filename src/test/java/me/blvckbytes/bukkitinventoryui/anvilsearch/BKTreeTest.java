@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BKTreeTest {
+
+  @Test
+  public void shouldCalculateDistances() {
+    assertEquals(0, BKTree.distance("sword", "sword"));
+    assertEquals(3, BKTree.distance("kitten", "sitting"));
+    assertEquals(5, BKTree.distance("", "glass"));
+    assertEquals(1, BKTree.distance("diamnd", "diamond"));
+
+    assertEquals(3, BKTree.boundedDistance("kitten", "sitting", 3));
+    assertEquals(-1, BKTree.boundedDistance("kitten", "sitting", 2));
+    assertEquals(-1, BKTree.boundedDistance("oak", "pickaxe", 3));
+  }
+
+  @Test
+  public void shouldFindAllTermsWithinDistance() {
+    Random random = new Random(5);
+    Set<String> distinctTerms = new LinkedHashSet<>();
+
+    while (distinctTerms.size() < 500)
+      distinctTerms.add(randomWord(random));
+
+    String[] terms = distinctTerms.toArray(new String[0]);
+    BKTree tree = new BKTree(terms);
+
+    for (int i = 0; i < 200; i++) {
+      String query = randomWord(random);
+      int maxDistance = random.nextInt(3);
+
+      List<Long> expected = new ArrayList<>();
+
+      for (int termId = 0; termId < terms.length; termId++) {
+        int distance = BKTree.distance(query, terms[termId]);
+
+        if (distance <= maxDistance)
+          expected.add(((long) termId << 32) | distance);
+      }
+
+      long[] matches = tree.search(query, maxDistance);
+      assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), matches, query + " within " + maxDistance);
+    }
+  }
+
+  @Test
+  public void shouldSearchEmptyDictionary() {
+    assertEquals(0, new BKTree(new String[0]).search("glass", 2).length);
+  }
+
+  private static String randomWord(Random random) {
+    char[] word = new char[2 + random.nextInt(6)];
+
+    // Few letters, so that many words are close to each other
+    for (int i = 0; i < word.length; i++)
+      word[i] = (char) ('a' + random.nextInt(4));
+
+    return new String(word);
+  }
+}
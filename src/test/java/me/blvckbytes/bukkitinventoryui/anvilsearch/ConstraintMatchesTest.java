@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.anvilsearch.SearchIndexTest.TestFilter;
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConstraintMatchesTest {
+
+  private static final ITextNormalizer NORMALIZER = new TextNormalizer(true, true, true);
+
+  @Test
+  public void shouldMatchLikeTestingEveryEntry() {
+    SharedDataset<String> dataset = new SharedDataset<>(SearchIndexTest.createSlots(new Random(11), 500));
+    Map<String, ISearchConstraint<String>> facets = createFacets();
+
+    for (int round = 0; round < 50; round++) {
+      DatasetSnapshot<String> snapshot = dataset.getSnapshot();
+
+      for (ISearchConstraint<String> facet : facets.values()) {
+        PositionSet matches = ConstraintMatches.of(snapshot, facet);
+        assertSame(matches, ConstraintMatches.of(snapshot, facet));
+
+        for (int position = 0; position < snapshot.size(); position++)
+          assertEquals(facet.test(snapshot.getData(position)), matches.contains(position), "position " + position + " in round " + round);
+      }
+
+      // Matches of the next version are derived from the changed entries only
+      applyRandomChange(dataset, new Random(round));
+    }
+  }
+
+  @Test
+  public void shouldCountResultsPerFacet() {
+    DatasetSnapshot<String> snapshot = new SharedDataset<>(SearchIndexTest.createSlots(new Random(12), 500)).getSnapshot();
+    Map<String, ISearchConstraint<String>> facets = createFacets();
+
+    SearchResults<String> results = search(snapshot, "dia");
+    assertArrayEquals(countByTesting(snapshot, facets, results), ConstraintMatches.countFacets(snapshot, facets, results));
+
+    // Results of blank searches contain every entry, so that the matches are counted as a whole
+    SearchResults<String> all = SearchResults.all(snapshot, null);
+    assertArrayEquals(countByTesting(snapshot, facets, all), ConstraintMatches.countFacets(snapshot, facets, all));
+  }
+
+  @Test
+  public void shouldPatchCountsLikeRecounting() {
+    SharedDataset<String> dataset = new SharedDataset<>(SearchIndexTest.createSlots(new Random(13), 500));
+    Map<String, ISearchConstraint<String>> facets = createFacets();
+    String[] searchWords = NORMALIZER.normalize("oak");
+
+    SearchResults<String> results = search(dataset.getSnapshot(), "oak");
+    int[] facetCounts = ConstraintMatches.countFacets(dataset.getSnapshot(), facets, results);
+
+    for (int round = 0; round < 50; round++) {
+      DatasetSnapshot<String> previous = results.getSnapshot();
+      DatasetSnapshot<String> next = applyRandomChange(dataset, new Random(round));
+      DatasetChange change = next.getChange();
+
+      if (change == null) {
+        results = search(next, "oak");
+        facetCounts = ConstraintMatches.countFacets(next, facets, results);
+        continue;
+      }
+
+      // Patch the counts like results are patched, by removing dropped entries and adding changed ones
+      int[] patchedCounts = facetCounts;
+      results.rebase(next, change.mapRetainedPositions(), position -> ConstraintMatches.updateFacetCounts(facets, patchedCounts, previous.getData(position), -1));
+
+      for (int position : change.getChangedPositions()) {
+        int difference = SearchIndex.calculateDifference(searchWords, NORMALIZER.normalize(TestFilter.NAME.getWords().apply(next.getData(position))[0]), 0);
+
+        if (difference < 0)
+          continue;
+
+        results.insert(position, difference);
+        ConstraintMatches.updateFacetCounts(facets, patchedCounts, next.getData(position), 1);
+      }
+
+      assertArrayEquals(countByTesting(next, facets, results), patchedCounts, "round " + round);
+    }
+  }
+
+  /**
+   * Applies a random mix of removals, updates and additions, or a single positional change
+   */
+  private static DatasetSnapshot<String> applyRandomChange(SharedDataset<String> dataset, Random random) {
+    DatasetSnapshot<String> previous = dataset.getSnapshot();
+
+    switch (random.nextInt(4)) {
+      case 0:
+        return dataset.insert(random.nextInt(previous.size() + 1), SearchIndexTest.randomSlot(random));
+
+      case 1:
+        return dataset.removeAt(random.nextInt(previous.size()));
+
+      case 2:
+        return dataset.move(random.nextInt(previous.size()), random.nextInt(previous.size()));
+    }
+
+    List<DataBoundUISlot<String>> removed = new ArrayList<>(), added = new ArrayList<>();
+    Map<DataBoundUISlot<String>, DataBoundUISlot<String>> updated = new IdentityHashMap<>();
+
+    for (int i = random.nextInt(10); i > 0; i--) {
+      DataBoundUISlot<String> target = previous.getSlot(random.nextInt(previous.size()));
+
+      if (random.nextBoolean())
+        removed.add(target);
+      else
+        updated.put(target, SearchIndexTest.randomSlot(random));
+    }
+
+    for (int i = random.nextInt(10); i > 0; i--)
+      added.add(SearchIndexTest.randomSlot(random));
+
+    return dataset.apply(added, removed, updated);
+  }
+
+  private static int[] countByTesting(DatasetSnapshot<String> snapshot, Map<String, ISearchConstraint<String>> facets, SearchResults<String> results) {
+    int[] counts = new int[facets.size()];
+    int[] positions = results.copyPositions();
+    int facetIndex = 0;
+
+    for (ISearchConstraint<String> facet : facets.values()) {
+      for (int position : positions) {
+        if (facet.test(snapshot.getData(position)))
+          ++counts[facetIndex];
+      }
+
+      ++facetIndex;
+    }
+
+    return counts;
+  }
+
+  private static Map<String, ISearchConstraint<String>> createFacets() {
+    Map<String, ISearchConstraint<String>> facets = new LinkedHashMap<>();
+
+    facets.put("diamond lore", data -> data.split(";")[1].contains("diamond"));
+    facets.put("red lore", data -> data.split(";")[1].contains("red"));
+    facets.put("none", data -> false);
+
+    return facets;
+  }
+
+  private static SearchResults<String> search(DatasetSnapshot<String> snapshot, String text) {
+    String[] searchWords = NORMALIZER.normalize(text);
+    SearchIndex<String> index = SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER);
+    int[][] matches = SearchIndexTest.search(index, searchWords, 0, null, 0);
+    return new SearchResults<>(snapshot, searchWords, TestFilter.NAME, null, matches[0], matches[1], matches[0].length);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionSetTest {
+
+  private static final int UNIVERSE = 3 << 16;
+
+  @Test
+  public void shouldHoldPositions() {
+    Random random = new Random(3);
+
+    // Densities which result in array containers, bitmap containers and a mix of both
+    for (double density : new double[] { .001, .03, .2, .9 }) {
+      TreeSet<Integer> expected = randomPositions(random, density);
+      PositionSet set = toSet(expected);
+
+      assertEquals(expected.size(), set.size());
+      assertArrayEquals(toArray(expected), toArray(set));
+
+      for (int i = 0; i < 2000; i++) {
+        int position = random.nextInt(UNIVERSE);
+        assertEquals(expected.contains(position), set.contains(position), "position " + position);
+      }
+    }
+  }
+
+  @Test
+  public void shouldIntersectAndUnite() {
+    Random random = new Random(4);
+    double[] densities = { .001, .05, .5 };
+
+    for (double aDensity : densities) {
+      for (double bDensity : densities) {
+        TreeSet<Integer> a = randomPositions(random, aDensity), b = randomPositions(random, bDensity);
+
+        TreeSet<Integer> intersection = new TreeSet<>(a);
+        intersection.retainAll(b);
+
+        TreeSet<Integer> union = new TreeSet<>(a);
+        union.addAll(b);
+
+        assertArrayEquals(toArray(intersection), toArray(toSet(a).and(toSet(b))));
+        assertArrayEquals(toArray(union), toArray(toSet(a).or(toSet(b))));
+      }
+    }
+
+    assertEquals(0, PositionSet.EMPTY.and(toSet(randomPositions(random, .1))).size());
+  }
+
+  @Test
+  public void shouldRetainContainedPositions() {
+    PositionSet set = PositionSet.of(new int[] { 1, 4, 70_000 }, 3);
+    int[] positions = { 0, 1, 2, 4, 69_999, 70_000 };
+
+    assertEquals(3, set.retainAll(positions, positions.length));
+    assertArrayEquals(new int[] { 1, 4, 70_000 }, Arrays.copyOf(positions, 3));
+  }
+
+  @Test
+  public void shouldRemapPositions() {
+    PositionSet set = PositionSet.of(new int[] { 0, 2, 3, 5 }, 4);
+
+    // Position 2 has been dropped, while two positions have been added in between
+    int[] positionMap = { 0, 1, -1, 4, 5, 6 };
+    int[] additions = { 2, 3, 9 };
+
+    assertArrayEquals(new int[] { 0, 2, 3, 4, 6 }, toArray(set.remap(positionMap, additions, 2)));
+  }
+
+  private static TreeSet<Integer> randomPositions(Random random, double density) {
+    TreeSet<Integer> positions = new TreeSet<>();
+
+    for (int position = 0; position < UNIVERSE; position++) {
+      if (random.nextDouble() < density)
+        positions.add(position);
+    }
+
+    return positions;
+  }
+
+  private static PositionSet toSet(TreeSet<Integer> positions) {
+    int[] array = toArray(positions);
+    return PositionSet.of(array, array.length);
+  }
+
+  private static int[] toArray(TreeSet<Integer> positions) {
+    return positions.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static int[] toArray(PositionSet set) {
+    int[] buffer = new int[set.size()];
+    assertEquals(buffer.length, set.toArray(buffer));
+    return buffer;
+  }
+}
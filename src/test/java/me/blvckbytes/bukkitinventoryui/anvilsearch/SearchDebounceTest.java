@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchDebounceTest {
+
+  private static final long TICK_NANOS = 50_000_000L;
+
+  @Test
+  public void shouldStartOutAtTheFloor() {
+    assertEquals(100, new SearchDebounce(100, 1000).getDelayMs());
+  }
+
+  @Test
+  public void shouldGrowWithSearchCost() {
+    SearchDebounce debounce = new SearchDebounce(0, 1000);
+
+    for (int i = 0; i < 50; i++)
+      debounce.recordSearch(40);
+
+    // Searches are held back for about twice as long as they take
+    assertEquals(80, debounce.getDelayMs());
+
+    // A single slow search only moves the average by a fraction
+    debounce.recordSearch(440);
+    assertEquals(280, debounce.getDelayMs());
+
+    for (int i = 0; i < 50; i++)
+      debounce.recordSearch(10);
+
+    assertEquals(20, debounce.getDelayMs());
+  }
+
+  @Test
+  public void shouldGrowWithServerLoad() {
+    SearchDebounce debounce = new SearchDebounce(0, 10_000);
+
+    for (int i = 0; i < 50; i++)
+      debounce.recordSearch(40);
+
+    long tickNanos = 1;
+
+    // Ticks faster than nominal never shorten the delay
+    for (int i = 0; i < 50; i++)
+      debounce.recordTick(tickNanos += TICK_NANOS / 2);
+
+    assertEquals(80, debounce.getDelayMs());
+
+    // Ticks which take twice as long double the delay
+    for (int i = 0; i < 50; i++)
+      debounce.recordTick(tickNanos += TICK_NANOS * 2);
+
+    assertEquals(160, debounce.getDelayMs());
+  }
+
+  @Test
+  public void shouldStayWithinBounds() {
+    SearchDebounce debounce = new SearchDebounce(50, 300);
+
+    debounce.recordSearch(1);
+    assertEquals(50, debounce.getDelayMs());
+
+    for (int i = 0; i < 50; i++)
+      debounce.recordSearch(10_000);
+
+    assertEquals(300, debounce.getDelayMs());
+  }
+}
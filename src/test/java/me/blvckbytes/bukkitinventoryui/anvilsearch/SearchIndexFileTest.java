@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetOrdering;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexFileTest {
+
+  // Magic, format version, fingerprint, number of entries and checksum
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+  private static final ITextNormalizer NORMALIZER = new TextNormalizer(true, true, true);
+
+  private static final DatasetOrdering<String> BY_LENGTH = DatasetOrdering.numeric("length", String::length, false);
+
+  private final List<DataBoundUISlot<String>> slots = SearchIndexTest.createSlots(new Random(10), 2000);
+
+  @Test
+  public void shouldReadBackWrittenStructures() throws IOException {
+    Path path = createTempPath();
+
+    try {
+      DatasetSnapshot<String> built = attach(path, 1, false);
+      DatasetSnapshot<String> read = attach(path, 1, true);
+
+      for (SearchIndexTest.TestFilter filter : SearchIndexTest.TestFilter.values()) {
+        SearchIndex<String> builtIndex = SearchIndex.of(built, filter, NORMALIZER);
+        SearchIndex<String> readIndex = SearchIndex.of(read, filter, NORMALIZER);
+
+        assertEquals(builtIndex.size(), readIndex.size());
+
+        for (int position = 0; position < built.size(); position++)
+          assertArrayEquals(builtIndex.getWords(position), readIndex.getWords(position));
+
+        for (String query : new String[] { "dia", "sword oak", "diamnd", "blau" }) {
+          String[] searchWords = NORMALIZER.normalize(query);
+          int[][] expected = SearchIndexTest.search(builtIndex, searchWords, 1, null, 0);
+          int[][] actual = SearchIndexTest.search(readIndex, searchWords, 1, null, 0);
+
+          assertArrayEquals(expected[0], actual[0], query);
+          assertArrayEquals(expected[1], actual[1], query);
+        }
+      }
+
+      for (DatasetOrdering<String> ordering : Arrays.asList(BY_LENGTH, DatasetOrdering.<String>natural())) {
+        assertArrayEquals(ordering.getPermutation(built).positions, ordering.getPermutation(read).positions);
+        assertArrayEquals(ordering.getPermutation(built).ranks, ordering.getPermutation(read).ranks);
+      }
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void shouldRebuildOutdatedFiles() throws IOException {
+    Path path = createTempPath();
+
+    try {
+      attach(path, 1, false);
+      attach(path, 2, false);
+      attach(path, 2, true);
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void shouldRebuildDamagedFiles() throws IOException {
+    Path path = createTempPath();
+
+    try {
+      attach(path, 1, false);
+
+      byte[] bytes = Files.readAllBytes(path);
+      bytes[bytes.length / 2] ^= 1;
+      Files.write(path, bytes);
+
+      attach(path, 1, false);
+
+      bytes = Files.readAllBytes(path);
+      Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+
+      attach(path, 1, false);
+      attach(path, 1, true);
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void shouldRejectLengthsExceedingTheFile() throws IOException {
+    Path path = createTempPath();
+
+    try {
+      attach(path, 1, false);
+
+      // The length of the first filter's name, with a checksum which matches, so that only the length is off
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+      buffer.putInt(HEADER_SIZE, Integer.MAX_VALUE);
+
+      CRC32 checksum = new CRC32();
+      checksum.update(buffer.array(), HEADER_SIZE, buffer.capacity() - HEADER_SIZE);
+      buffer.putInt(HEADER_SIZE - 4, (int) checksum.getValue());
+
+      Files.write(path, buffer.array());
+
+      attach(path, 1, false);
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  /**
+   * Attaches all structures to a new snapshot of the same slots
+   * @return Snapshot which has been attached to
+   */
+  private DatasetSnapshot<String> attach(Path path, long fingerprint, boolean expectUpToDate) throws IOException {
+    DatasetSnapshot<String> snapshot = new SharedDataset<>(this.slots).getSnapshot();
+    boolean isUpToDate = SearchIndexFile.attach(path, fingerprint, snapshot, SearchIndexTest.TestFilter.NAME, NORMALIZER, Collections.singletonList(BY_LENGTH));
+    assertEquals(expectUpToDate, isUpToDate);
+    return snapshot;
+  }
+
+  private static Path createTempPath() throws IOException {
+    Path path = Files.createTempFile("search-index", ".bin");
+    Files.delete(path);
+    return path;
+  }
+}
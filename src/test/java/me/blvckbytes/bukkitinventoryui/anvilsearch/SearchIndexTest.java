@@ -0,0 +1,324 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexTest {
+
+  private static final String[] VOCABULARY = {
+    "diamond", "diamonds", "dia", "sword", "oak", "oaks", "stained", "glass", "pickaxe", "iron", "red", "redstone", "bläu"
+  };
+
+  private static final String[] QUERIES = {
+    "dia", "sword oak", "diamnd", "red red", "iron4", "oak oak oak", "x", "stained glass 12", "blau",
+    "diamnod swrod", "redstome pickaxx", "glasss oak"
+  };
+
+  private static final ITextNormalizer NORMALIZER = new TextNormalizer(true, true, true);
+
+  // Entries are held as name;lore
+  enum TestFilter implements ISearchFilterEnum<TestFilter, String> {
+    NAME, LORE;
+
+    @Override
+    public ISearchFilterEnum<TestFilter, String>[] listValues() {
+      return values();
+    }
+
+    @Override
+    public Function<String, String[]> getWords() {
+      return data -> new String[] { data.split(";")[ordinal()] };
+    }
+  }
+
+  @Test
+  public void shouldMatchLikeCalculatedDifferences() {
+    Random random = new Random(7);
+    DatasetSnapshot<String> snapshot = new SharedDataset<>(createSlots(random, 3000)).getSnapshot();
+    SearchIndex<String> index = SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER);
+
+    assertEquals(snapshot.size(), index.size());
+
+    for (String query : QUERIES) {
+      for (int maxEditDistance = 0; maxEditDistance <= 2; maxEditDistance++) {
+        // Scoring sequentially as well as split up into parallel ranges
+        for (int parallelThreshold : new int[] { 0, 100 }) {
+          String[] searchWords = NORMALIZER.normalize(query);
+          int[][] expected = searchByCalculation(index, searchWords, maxEditDistance);
+          int[][] actual = search(index, searchWords, maxEditDistance, null, parallelThreshold);
+
+          String message = query + " within " + maxEditDistance;
+          assertArrayEquals(expected[0], actual[0], message);
+          assertArrayEquals(expected[1], actual[1], message);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldScoreLikeGreedyMatching() {
+    Random random = new Random(10);
+
+    for (int round = 0; round < 2000; round++) {
+      String[] searchWords = randomWords(random, 1 + random.nextInt(3), 5);
+      String[] words = randomWords(random, 1 + random.nextInt(5), VOCABULARY.length);
+      int greedyDifference = calculateGreedyDifference(searchWords, words);
+      int difference = SearchIndex.calculateDifference(searchWords, words, 0);
+      String message = String.join(" ", searchWords) + " in " + String.join(" ", words);
+
+      // Entries which greedy matching admits are scored just the same
+      if (greedyDifference >= 0) {
+        assertEquals(greedyDifference, difference, message);
+        continue;
+      }
+
+      // Entries which it rejects are only admitted if they're matched regardless of the search words' order
+      String[] reversedWords = searchWords.clone();
+      Collections.reverse(Arrays.asList(reversedWords));
+      assertEquals(difference >= 0, SearchIndex.calculateDifference(reversedWords, words, 0) >= 0, message);
+    }
+
+    // Greedily matching "a" to "ab" would leave no word for "ab"
+    assertEquals(-1, calculateGreedyDifference(new String[] { "a", "ab" }, new String[] { "ab", "ac" }));
+    assertEquals(1, SearchIndex.calculateDifference(new String[] { "a", "ab" }, new String[] { "ab", "ac" }, 0));
+    assertEquals(1, SearchIndex.calculateDifference(new String[] { "ab", "a" }, new String[] { "ab", "ac" }, 0));
+  }
+
+  @Test
+  public void shouldRestrictAndRefineMatches() {
+    Random random = new Random(8);
+    DatasetSnapshot<String> snapshot = new SharedDataset<>(createSlots(random, 2000)).getSnapshot();
+    SearchIndex<String> index = SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER);
+
+    int[] evenPositions = new int[snapshot.size() / 2];
+
+    for (int i = 0; i < evenPositions.length; i++)
+      evenPositions[i] = i * 2;
+
+    String[] searchWords = NORMALIZER.normalize("dia");
+    int[][] all = search(index, searchWords, 0, null, 0);
+    int[][] restricted = search(index, searchWords, 0, PositionSet.of(evenPositions, evenPositions.length), 0);
+
+    assertArrayEquals(Arrays.stream(all[0]).filter(position -> position % 2 == 0).toArray(), restricted[0]);
+
+    String[] refinedWords = NORMALIZER.normalize("diam");
+    assertTrue(SearchIndex.isRefinement(searchWords, refinedWords));
+    assertFalse(SearchIndex.isRefinement(refinedWords, searchWords));
+
+    int[] positions = Arrays.copyOf(all[0], snapshot.size());
+    int[] differences = new int[snapshot.size()];
+    int numberOfRefined = index.refine(refinedWords, positions, differences, all[0].length, 0, () -> false);
+    int[][] refined = search(index, refinedWords, 0, null, 0);
+
+    assertArrayEquals(refined[0], Arrays.copyOf(positions, numberOfRefined));
+    assertArrayEquals(refined[1], Arrays.copyOf(differences, numberOfRefined));
+  }
+
+  @Test
+  public void shouldIndexFiltersSeparately() {
+    DatasetSnapshot<String> snapshot = new SharedDataset<>(Arrays.asList(
+      slot("Diamond Sword;sharp"), slot("Oak Planks;Diamond")
+    )).getSnapshot();
+
+    assertArrayEquals(new int[] { 0 }, search(SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER), NORMALIZER.normalize("diamond"), 0, null, 0)[0]);
+    assertArrayEquals(new int[] { 1 }, search(SearchIndex.of(snapshot, TestFilter.LORE, NORMALIZER), NORMALIZER.normalize("diamond"), 0, null, 0)[0]);
+    assertSame(SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER), SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER));
+  }
+
+  @Test
+  public void shouldPatchLikeRebuild() {
+    Random random = new Random(9);
+    SharedDataset<String> dataset = new SharedDataset<>(createSlots(random, 2000));
+
+    SearchIndex.of(dataset.getSnapshot(), TestFilter.NAME, NORMALIZER);
+
+    for (int round = 0; round < 40; round++) {
+      DatasetSnapshot<String> previous = dataset.getSnapshot();
+      List<DataBoundUISlot<String>> removed = new ArrayList<>(), added = new ArrayList<>();
+      Map<DataBoundUISlot<String>, DataBoundUISlot<String>> updated = new IdentityHashMap<>();
+
+      // Few enough changes for the index to be patched instead of being built anew
+      for (int i = random.nextInt(20); i > 0; i--) {
+        DataBoundUISlot<String> target = previous.getSlot(random.nextInt(previous.size()));
+
+        if (random.nextBoolean())
+          removed.add(target);
+        else
+          updated.put(target, randomSlot(random));
+      }
+
+      for (int i = random.nextInt(20); i > 0; i--)
+        added.add(randomSlot(random));
+
+      DatasetSnapshot<String> snapshot;
+
+      // Positional changes insert and move entries in between retained entries
+      if (round % 3 == 0)
+        snapshot = dataset.apply(added, removed, updated);
+      else if (round % 3 == 1)
+        snapshot = dataset.insert(random.nextInt(previous.size() + 1), randomSlot(random));
+      else
+        snapshot = dataset.move(random.nextInt(previous.size()), random.nextInt(previous.size()));
+
+      assertNotNull(snapshot.getChange());
+      SearchIndex<String> patched = SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER);
+      SearchIndex<String> rebuilt = SearchIndex.of(new SharedDataset<>(copySlots(snapshot)).getSnapshot(), TestFilter.NAME, NORMALIZER);
+
+      assertEquals(rebuilt.size(), patched.size());
+
+      for (int position = 0; position < snapshot.size(); position++)
+        assertArrayEquals(rebuilt.getWords(position), patched.getWords(position), "words at " + position + " in round " + round);
+
+      for (String query : QUERIES) {
+        for (int maxEditDistance = 0; maxEditDistance <= 1; maxEditDistance++) {
+          String[] searchWords = NORMALIZER.normalize(query);
+          int[][] expected = search(rebuilt, searchWords, maxEditDistance, null, 0);
+          int[][] actual = search(patched, searchWords, maxEditDistance, null, 0);
+
+          String message = query + " within " + maxEditDistance + " in round " + round;
+          assertArrayEquals(expected[0], actual[0], message);
+          assertArrayEquals(expected[1], actual[1], message);
+        }
+      }
+    }
+  }
+
+  static List<DataBoundUISlot<String>> copySlots(DatasetSnapshot<String> snapshot) {
+    List<DataBoundUISlot<String>> slots = new ArrayList<>();
+
+    for (int position = 0; position < snapshot.size(); position++)
+      slots.add(snapshot.getSlot(position));
+
+    return slots;
+  }
+
+  static int[][] search(SearchIndex<String> index, String[] searchWords, int maxEditDistance, @Nullable PositionSet restriction, int parallelThreshold) {
+    int[] positions = new int[index.size()], differences = new int[index.size()];
+    int numberOfResults = index.search(searchWords, maxEditDistance, restriction, positions, differences, parallelThreshold, () -> false);
+    return new int[][] { Arrays.copyOf(positions, numberOfResults), Arrays.copyOf(differences, numberOfResults) };
+  }
+
+  private static int[][] searchByCalculation(SearchIndex<String> index, String[] searchWords, int maxEditDistance) {
+    int[] positions = new int[index.size()], differences = new int[index.size()];
+    int numberOfResults = 0;
+
+    for (int position = 0; position < index.size(); position++) {
+      int difference = SearchIndex.calculateDifference(searchWords, index.getWords(position), maxEditDistance);
+
+      if (difference < 0)
+        continue;
+
+      positions[numberOfResults] = position;
+      differences[numberOfResults++] = difference;
+    }
+
+    return new int[][] { Arrays.copyOf(positions, numberOfResults), Arrays.copyOf(differences, numberOfResults) };
+  }
+
+  /**
+   * Matches each search word to the remaining word with the least padding, one after the other
+   */
+  private static int calculateGreedyDifference(String[] searchWords, String[] words) {
+    boolean[] matchedWords = new boolean[words.length];
+    int totalDifference = 0;
+
+    for (String searchWord : searchWords) {
+      int bestDifference = Integer.MAX_VALUE;
+      int bestIndex = -1;
+
+      for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+        if (matchedWords[wordIndex] || !words[wordIndex].contains(searchWord))
+          continue;
+
+        int difference = words[wordIndex].length() - searchWord.length();
+
+        if (difference < bestDifference) {
+          bestDifference = difference;
+          bestIndex = wordIndex;
+        }
+      }
+
+      if (bestIndex < 0)
+        return -1;
+
+      matchedWords[bestIndex] = true;
+      totalDifference += bestDifference;
+    }
+
+    return totalDifference;
+  }
+
+  private static String[] randomWords(Random random, int count, int vocabularyLength) {
+    String[] words = new String[count];
+
+    for (int i = 0; i < count; i++)
+      words[i] = NORMALIZER.normalize(VOCABULARY[random.nextInt(vocabularyLength)])[0];
+
+    return words;
+  }
+
+  static List<DataBoundUISlot<String>> createSlots(Random random, int count) {
+    List<DataBoundUISlot<String>> slots = new ArrayList<>();
+
+    for (int i = 0; i < count; i++)
+      slots.add(randomSlot(random));
+
+    return slots;
+  }
+
+  static DataBoundUISlot<String> randomSlot(Random random) {
+    return slot(randomText(random) + ";" + randomText(random));
+  }
+
+  static DataBoundUISlot<String> slot(String data) {
+    return new DataBoundUISlot<>(() -> null, null, data);
+  }
+
+  private static String randomText(Random random) {
+    StringBuilder text = new StringBuilder();
+
+    for (int i = 1 + random.nextInt(4); i > 0; i--) {
+      text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+
+      if (random.nextInt(4) == 0)
+        text.append(random.nextInt(100));
+
+      text.append(' ');
+    }
+
+    return text.toString();
+  }
+}
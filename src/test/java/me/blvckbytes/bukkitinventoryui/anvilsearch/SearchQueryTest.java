@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchQueryTest {
+
+  // Entries are held as name;price;seller, where a price of - has no value and a blank seller has no keyword
+  private static final SearchField<String> PRICE = SearchField.numeric("price", data -> {
+    String price = data.split(";")[1];
+    return price.equals("-") ? Double.NaN : Double.parseDouble(price);
+  });
+
+  private static final SearchField<String> SELLER = SearchField.keyword("seller", data -> {
+    String[] parts = data.split(";");
+    return parts.length > 2 ? parts[2] : null;
+  });
+
+  private static final List<SearchField<String>> FIELDS = Arrays.asList(PRICE, SELLER);
+
+  private static final String[] QUERIES = {
+    "price<50", "price<=50", "price>50", "price>=50", "price=50", "price:50",
+    "seller:notch", "seller=NOTCH price>20", "price>10 price<30 seller:jeb"
+  };
+
+  @Test
+  public void shouldSeparateTermsFromFreeText() {
+    SearchQuery<String> query = SearchQuery.parse("diamond PRICE<=100 seller:Notch amount>5 price<cheap sword", FIELDS);
+
+    assertTrue(query.hasTerms());
+    assertEquals("diamond amount>5 price<cheap sword", query.freeText);
+    assertTrue(query.matches("diamond sword;100;notch"));
+    assertFalse(query.matches("diamond sword;101;notch"));
+    assertFalse(query.matches("diamond sword;100;jeb"));
+  }
+
+  @Test
+  public void shouldKeepMalformedTermsAsFreeText() {
+    assertFalse(SearchQuery.parse("seller<notch", FIELDS).hasTerms());
+    assertFalse(SearchQuery.parse("price=NaN", FIELDS).hasTerms());
+    assertFalse(SearchQuery.parse("price>", FIELDS).hasTerms());
+    assertFalse(SearchQuery.parse("price<5", Collections.emptyList()).hasTerms());
+    assertEquals("seller<notch", SearchQuery.parse("seller<notch", FIELDS).freeText);
+  }
+
+  @Test
+  public void shouldCompareTermsRegardlessOfFreeText() {
+    SearchQuery<String> query = SearchQuery.parse("sword price<5 seller:notch", FIELDS);
+
+    assertTrue(query.hasSameTerms(SearchQuery.parse("seller:NOTCH pickaxe price<5.0", FIELDS)));
+    assertFalse(query.hasSameTerms(SearchQuery.parse("sword price<=5 seller:notch", FIELDS)));
+    assertSame(query, SearchQuery.parse("sword price<5 seller:notch", FIELDS));
+  }
+
+  @Test
+  public void shouldNotMatchEntriesWithoutValues() {
+    assertFalse(SearchQuery.parse("price<50", FIELDS).matches("sword;-;notch"));
+    assertFalse(SearchQuery.parse("seller:notch", FIELDS).matches("sword;5"));
+  }
+
+  @Test
+  public void shouldFindMatchesOfPatchedSnapshots() {
+    Random random = new Random(6);
+    List<DataBoundUISlot<String>> slots = new ArrayList<>();
+
+    for (int i = 0; i < 500; i++)
+      slots.add(randomSlot(random));
+
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+
+    for (int round = 0; round < 60; round++) {
+      DatasetSnapshot<String> snapshot = dataset.getSnapshot();
+
+      for (String text : QUERIES) {
+        SearchQuery<String> query = SearchQuery.parse(text, FIELDS);
+        PositionSet matches = query.findMatches(snapshot);
+
+        assertNotNull(matches);
+
+        for (int position = 0; position < snapshot.size(); position++) {
+          String message = text + " at " + position + " in round " + round;
+          assertEquals(query.matches(snapshot.getData(position)), matches.contains(position), message);
+        }
+      }
+
+      List<DataBoundUISlot<String>> removed = new ArrayList<>(), added = new ArrayList<>();
+      Map<DataBoundUISlot<String>, DataBoundUISlot<String>> updated = new IdentityHashMap<>();
+
+      for (int i = 0; i < 5; i++) {
+        DataBoundUISlot<String> target = snapshot.getSlot(random.nextInt(snapshot.size()));
+
+        if (random.nextBoolean())
+          removed.add(target);
+        else
+          updated.put(target, randomSlot(random));
+
+        added.add(randomSlot(random));
+      }
+
+      dataset.apply(added, removed, updated);
+    }
+
+    assertNull(SearchQuery.parse("sword", FIELDS).findMatches(dataset.getSnapshot()));
+  }
+
+  private static DataBoundUISlot<String> randomSlot(Random random) {
+    String price = random.nextInt(10) == 0 ? "-" : String.valueOf(random.nextInt(100));
+    String seller = new String[] { "notch", "Jeb", "dinnerbone", "" }[random.nextInt(4)];
+    return new DataBoundUISlot<>(() -> null, null, "item;" + price + (seller.isEmpty() ? "" : ";" + seller));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.anvilsearch.SearchIndexTest.TestFilter;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetOrdering;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchResultCacheTest {
+
+  private static final ITextNormalizer NORMALIZER = new TextNormalizer(true, true, true);
+
+  @Test
+  public void shouldHandOutCopiesOfStoredResults() {
+    SearchResultCache cache = new SearchResultCache(1000);
+    DatasetSnapshot<String> snapshot = createSnapshot(100);
+    String[] searchWords = NORMALIZER.normalize("dia");
+    SearchResults<String> results = search(snapshot, searchWords);
+
+    assertNull(cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, searchWords, null));
+    cache.put(results, NORMALIZER, 0);
+
+    SearchResults<String> hit = cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, NORMALIZER.normalize("dia"), null);
+
+    assertNotNull(hit);
+    assertArrayEquals(results.copyPositions(), hit.copyPositions());
+    assertArrayEquals(results.copyDifferences(), hit.copyDifferences());
+
+    // Patching a copy leaves the stored results untouched
+    int[] droppedPositions = new int[snapshot.size()];
+    Arrays.fill(droppedPositions, -1);
+    hit.rebase(snapshot, droppedPositions, position -> {});
+    assertEquals(0, hit.size());
+    assertEquals(results.size(), cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, searchWords, null).size());
+
+    // The ordering does not affect what's being matched, so it's applied to the copy
+    DatasetOrdering<String> ordering = DatasetOrdering.natural();
+    assertSame(ordering, cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, searchWords, ordering).getOrdering());
+
+    assertEquals(3, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(.75, cache.getHitRatio());
+  }
+
+  @Test
+  public void shouldOnlyHitTheSameQuery() {
+    SearchResultCache cache = new SearchResultCache(1000);
+    DatasetSnapshot<String> snapshot = createSnapshot(100);
+    String[] searchWords = NORMALIZER.normalize("dia");
+
+    cache.put(search(snapshot, searchWords), NORMALIZER, 0);
+
+    assertNull(cache.get(snapshot, TestFilter.LORE, NORMALIZER, 0, searchWords, null));
+    assertNull(cache.get(snapshot, TestFilter.NAME, new TextNormalizer(false, true, true), 0, searchWords, null));
+    assertNull(cache.get(snapshot, TestFilter.NAME, NORMALIZER, 1, searchWords, null));
+    assertNull(cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, NORMALIZER.normalize("diam"), null));
+    assertNull(cache.get(createSnapshot(100), TestFilter.NAME, NORMALIZER, 0, searchWords, null));
+
+    // Blank searches are trivial to compute and thus never stored
+    cache.put(SearchResults.all(snapshot, null), NORMALIZER, 0);
+    assertEquals(1, cache.getEntryCount());
+  }
+
+  @Test
+  public void shouldDropResultsOfOutdatedVersions() {
+    SearchResultCache cache = new SearchResultCache(1000);
+    SharedDataset<String> dataset = new SharedDataset<>(SearchIndexTest.createSlots(new Random(2), 100));
+    DatasetSnapshot<String> previous = dataset.getSnapshot();
+    String[] searchWords = NORMALIZER.normalize("dia");
+
+    cache.put(search(previous, searchWords), NORMALIZER, 0);
+
+    DatasetSnapshot<String> next = dataset.add(SearchIndexTest.slot("diamond;lore"));
+
+    // Looking up a newer version drops all entries of older versions
+    assertNull(cache.get(next, TestFilter.NAME, NORMALIZER, 0, searchWords, null));
+    assertEquals(0, cache.getEntryCount());
+
+    // Results of versions older than the latest stored version are never looked up again
+    cache.put(search(next, searchWords), NORMALIZER, 0);
+    cache.put(search(previous, NORMALIZER.normalize("oak")), NORMALIZER, 0);
+
+    assertEquals(1, cache.getEntryCount());
+    assertNotNull(cache.get(next, TestFilter.NAME, NORMALIZER, 0, searchWords, null));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedResults() {
+    DatasetSnapshot<String> snapshot = createSnapshot(300);
+    String[] first = NORMALIZER.normalize("dia"), second = NORMALIZER.normalize("oak"), third = NORMALIZER.normalize("red");
+
+    SearchResults<String> firstResults = search(snapshot, first);
+    SearchResults<String> secondResults = search(snapshot, second);
+    SearchResults<String> thirdResults = search(snapshot, third);
+
+    // The capacity is counted in matches, which only fits two of the three results
+    SearchResultCache cache = new SearchResultCache(firstResults.size() + secondResults.size() + thirdResults.size() - 1);
+
+    cache.put(firstResults, NORMALIZER, 0);
+    cache.put(secondResults, NORMALIZER, 0);
+
+    // Looking up the first results makes the second results the least recently used
+    assertNotNull(cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, first, null));
+    cache.put(thirdResults, NORMALIZER, 0);
+
+    assertEquals(1, cache.getEvictionCount());
+    assertNotNull(cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, first, null));
+    assertNull(cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, second, null));
+    assertNotNull(cache.get(snapshot, TestFilter.NAME, NORMALIZER, 0, third, null));
+
+    cache.setCapacity(0);
+    assertEquals(0, cache.getEntryCount());
+  }
+
+  private static DatasetSnapshot<String> createSnapshot(int size) {
+    return new SharedDataset<>(SearchIndexTest.createSlots(new Random(size), size)).getSnapshot();
+  }
+
+  private static SearchResults<String> search(DatasetSnapshot<String> snapshot, String[] searchWords) {
+    SearchIndex<String> index = SearchIndex.of(snapshot, TestFilter.NAME, NORMALIZER);
+    int[][] matches = SearchIndexTest.search(index, searchWords, 0, null, 0);
+    assertTrue(matches[0].length > 0);
+    return new SearchResults<>(snapshot, searchWords, TestFilter.NAME, null, matches[0], matches[1], matches[0].length);
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetOrdering;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchResultsTest {
+
+  private static final String[] SEARCH_WORDS = { "dia" };
+
+  // Few distinct lengths, so that ties are broken by difference and position
+  private static final DatasetOrdering<String> BY_LENGTH = DatasetOrdering.numeric("length", data -> data.length() % 7, true);
+
+  @Test
+  public void shouldOrderLikeFullSort() {
+    for (DatasetOrdering<String> ordering : Arrays.asList(null, BY_LENGTH)) {
+      Random random = new Random(11);
+      DatasetSnapshot<String> snapshot = new SharedDataset<>(SearchIndexTest.createSlots(random, 1000)).getSnapshot();
+      int[][] matches = randomMatches(random, snapshot.size());
+
+      SearchResults<String> results = createResults(snapshot, ordering, matches);
+      int[] expected = sortFully(snapshot, ordering, matches[0], matches[1]);
+
+      // Ordering on demand, as when paging through the results
+      for (int count = 0; count <= results.size(); count += 1 + random.nextInt(50)) {
+        results.order(count);
+        assertTrue(results.getNumberOfOrdered() >= count);
+        assertArrayEquals(Arrays.copyOf(expected, count), Arrays.copyOf(results.copyPositions(), count));
+      }
+
+      results.order(results.size());
+      assertArrayEquals(expected, results.copyPositions());
+    }
+  }
+
+  @Test
+  public void shouldInsertLikeFullSort() {
+    for (DatasetOrdering<String> ordering : Arrays.asList(null, BY_LENGTH)) {
+      Random random = new Random(12);
+      DatasetSnapshot<String> snapshot = new SharedDataset<>(SearchIndexTest.createSlots(random, 1000)).getSnapshot();
+      int[][] matches = randomMatches(random, snapshot.size());
+
+      // Half of the matches are inserted after partially ordering the other half
+      int numberOfInitial = matches[0].length / 2;
+      SearchResults<String> results = createResults(snapshot, ordering, new int[][] {
+        Arrays.copyOf(matches[0], numberOfInitial), Arrays.copyOf(matches[1], numberOfInitial)
+      });
+
+      results.order(numberOfInitial / 3);
+
+      for (int i = numberOfInitial; i < matches[0].length; i++) {
+        int index = results.insert(matches[0][i], matches[1][i]);
+        assertEquals(matches[0][i], results.copyPositions()[index]);
+      }
+
+      results.order(results.size());
+      assertArrayEquals(sortFully(snapshot, ordering, matches[0], matches[1]), results.copyPositions());
+    }
+  }
+
+  @Test
+  public void shouldRebaseOntoNextSnapshot() {
+    for (DatasetOrdering<String> ordering : Arrays.asList(null, BY_LENGTH)) {
+      Random random = new Random(13);
+      SharedDataset<String> dataset = new SharedDataset<>(SearchIndexTest.createSlots(random, 1000));
+      DatasetSnapshot<String> previous = dataset.getSnapshot();
+      int[][] matches = randomMatches(random, previous.size());
+
+      SearchResults<String> results = createResults(previous, ordering, matches);
+      results.order(results.size() / 2);
+
+      List<DataBoundUISlot<String>> removed = new ArrayList<>();
+      Map<DataBoundUISlot<String>, DataBoundUISlot<String>> updated = new IdentityHashMap<>();
+
+      for (int i = 0; i < 30; i++) {
+        DataBoundUISlot<String> target = previous.getSlot(random.nextInt(previous.size()));
+
+        if (i % 2 == 0)
+          removed.add(target);
+        else
+          updated.put(target, SearchIndexTest.randomSlot(random));
+      }
+
+      DatasetSnapshot<String> next = dataset.apply(Collections.emptyList(), removed, updated);
+      DatasetChange change = next.getChange();
+      assertNotNull(change);
+
+      int[] retainedPositions = change.mapRetainedPositions();
+      Set<Integer> dropped = new HashSet<>();
+
+      results.rebase(next, retainedPositions, dropped::add);
+
+      int[] expectedPositions = new int[matches[0].length], expectedDifferences = new int[matches[0].length];
+      int numberOfExpected = 0;
+
+      for (int i = 0; i < matches[0].length; i++) {
+        int position = retainedPositions[matches[0][i]];
+
+        if (position < 0) {
+          assertTrue(dropped.contains(matches[0][i]));
+          continue;
+        }
+
+        expectedPositions[numberOfExpected] = position;
+        expectedDifferences[numberOfExpected++] = matches[1][i];
+      }
+
+      assertSame(next, results.getSnapshot());
+      assertEquals(numberOfExpected, results.size());
+
+      results.order(results.size());
+
+      int[] expected = sortFully(
+        next, ordering,
+        Arrays.copyOf(expectedPositions, numberOfExpected),
+        Arrays.copyOf(expectedDifferences, numberOfExpected)
+      );
+
+      assertArrayEquals(expected, results.copyPositions());
+    }
+  }
+
+  @Test
+  public void shouldListAllEntriesOfBlankSearches() {
+    DatasetSnapshot<String> snapshot = new SharedDataset<>(SearchIndexTest.createSlots(new Random(14), 100)).getSnapshot();
+
+    assertArrayEquals(BY_LENGTH.getPermutation(snapshot).positions, SearchResults.all(snapshot, BY_LENGTH).copyPositions());
+
+    SearchResults<String> results = SearchResults.all(snapshot, null);
+    assertEquals(snapshot.size(), results.getNumberOfOrdered());
+    assertEquals(5, results.getWindow(95, 10).size());
+    assertSame(snapshot.getSlot(95), results.getWindow(95, 10).get(0));
+  }
+
+  /**
+   * Picks a random half of all positions, each with a random difference
+   * @return Ascending positions and their differences
+   */
+  private static int[][] randomMatches(Random random, int size) {
+    int[] positions = new int[size], differences = new int[size];
+    int numberOfMatches = 0;
+
+    for (int position = 0; position < size; position++) {
+      if (random.nextBoolean())
+        continue;
+
+      positions[numberOfMatches] = position;
+      differences[numberOfMatches++] = random.nextInt(6);
+    }
+
+    return new int[][] { Arrays.copyOf(positions, numberOfMatches), Arrays.copyOf(differences, numberOfMatches) };
+  }
+
+  private static SearchResults<String> createResults(DatasetSnapshot<String> snapshot, @Nullable DatasetOrdering<String> ordering, int[][] matches) {
+    return new SearchResults<>(snapshot, SEARCH_WORDS, SearchIndexTest.TestFilter.NAME, ordering, matches[0].clone(), matches[1].clone(), matches[0].length);
+  }
+
+  /**
+   * Sorts matches by the ordering, then by difference, then by the data's natural order if there's no ordering and
+   * finally by position, which is the order results are expected in
+   */
+  private static int[] sortFully(DatasetSnapshot<String> snapshot, @Nullable DatasetOrdering<String> ordering, int[] positions, int[] differences) {
+    Integer[] indices = new Integer[positions.length];
+
+    for (int i = 0; i < indices.length; i++)
+      indices[i] = i;
+
+    Arrays.sort(indices, (a, b) -> {
+      String aData = snapshot.getData(positions[a]), bData = snapshot.getData(positions[b]);
+      int result;
+
+      if (ordering != null && (result = ordering.compare(aData, bData)) != 0)
+        return result;
+
+      if ((result = Integer.compare(differences[a], differences[b])) != 0)
+        return result;
+
+      if (ordering == null && (result = aData.compareTo(bData)) != 0)
+        return result;
+
+      return Integer.compare(positions[a], positions[b]);
+    });
+
+    return Arrays.stream(indices).mapToInt(index -> positions[index]).toArray();
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTextInputTest {
+
+  @Test
+  public void shouldCoalesceRenamesIntoTheLatestText() {
+    SearchTextInput input = new SearchTextInput(" ");
+
+    input.offer("d");
+    input.offer("di");
+    input.offer("dia");
+
+    assertTrue(input.poll());
+    assertEquals("dia", input.getText());
+
+    // Nothing has been renamed since
+    assertFalse(input.poll());
+    assertEquals("dia", input.getText());
+  }
+
+  @Test
+  public void shouldIgnoreRenamesBackToTheSameText() {
+    SearchTextInput input = new SearchTextInput("dia");
+
+    input.offer("diam");
+    input.offer("dia");
+
+    assertFalse(input.poll());
+    assertEquals("dia", input.getText());
+  }
+
+  @Test
+  public void shouldKeepTheLatestTextOfConcurrentRenames() throws InterruptedException {
+    SearchTextInput input = new SearchTextInput(" ");
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+
+    for (int thread = 0; thread < 4; thread++) {
+      String prefix = "thread " + thread + " ";
+
+      threads.add(new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+
+        for (int i = 0; i < 1000; i++)
+          input.offer(prefix + i);
+      }));
+    }
+
+    threads.forEach(Thread::start);
+    start.countDown();
+
+    for (Thread thread : threads)
+      thread.join();
+
+    // Whichever thread renamed last, it's last text is the one which is taken over
+    assertTrue(input.poll());
+    assertTrue(input.getText().endsWith(" 999"), input.getText());
+    assertFalse(input.poll());
+  }
+}
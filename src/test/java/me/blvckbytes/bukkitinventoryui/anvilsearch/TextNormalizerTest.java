@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.anvilsearch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextNormalizerTest {
+
+  @Test
+  public void shouldSplitIntoLowerCaseWords() {
+    ITextNormalizer normalizer = new TextNormalizer(false, false, false);
+
+    assertArrayEquals(new String[] { "diamond", "sword", "12" }, normalizer.normalize("  Diamond-SWORD (12) "));
+    assertArrayEquals(new String[] { "oak", "planks", "stone" }, normalizer.normalize("Oak Planks", "", "stone"));
+    assertArrayEquals(new String[0], normalizer.normalize(" - ", ""));
+  }
+
+  @Test
+  public void shouldStripColors() {
+    assertArrayEquals(new String[] { "red", "wool" }, new TextNormalizer(true, false, false).normalize("§cRed §lWool"));
+    assertArrayEquals(new String[] { "cred", "lwool" }, new TextNormalizer(false, false, false).normalize("§cRed §lWool"));
+  }
+
+  @Test
+  public void shouldFoldDiacritics() {
+    assertArrayEquals(new String[] { "blau", "creme" }, new TextNormalizer(false, true, false).normalize("Bläu Crème"));
+    assertArrayEquals(new String[] { "bläu", "crème" }, new TextNormalizer(false, false, false).normalize("Bläu Crème"));
+  }
+
+  @Test
+  public void shouldStemPlurals() {
+    ITextNormalizer normalizer = new TextNormalizer(false, false, true);
+
+    assertArrayEquals(
+      new String[] { "diamond", "berry", "torche", "glass", "status", "oak" },
+      normalizer.normalize("Diamonds Berries Torches Glass Status Oak")
+    );
+
+    // Words which are still being typed are stemmed just like whole words
+    assertArrayEquals(new String[] { "dia", "diamond" }, normalizer.normalize("dia diamonds"));
+  }
+
+  @Test
+  public void shouldCompareBySettings() {
+    assertEquals(new TextNormalizer(true, false, true), new TextNormalizer(true, false, true));
+    assertEquals(new TextNormalizer(true, false, true).hashCode(), new TextNormalizer(true, false, true).hashCode());
+    assertNotEquals(new TextNormalizer(true, false, true), new TextNormalizer(true, true, true));
+  }
+}
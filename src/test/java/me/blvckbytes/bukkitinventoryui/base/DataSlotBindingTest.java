@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.blvckbytes.bukkitinventoryui.base;
+
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataSlotBindingTest {
+
+  @Test
+  public void shouldDelegateToBinding() {
+    List<String> renderedEntries = new ArrayList<>();
+    AtomicReference<String> interactedEntry = new AtomicReference<>();
+    EnumSet<EClickResultFlag> result = EnumSet.noneOf(EClickResultFlag.class);
+
+    DataSlotBinding<String> binding = new DataSlotBinding<>(
+      data -> { renderedEntries.add(data); return null; },
+      (data, interaction) -> { interactedEntry.set(data); return result; }
+    );
+
+    DataBoundUISlot<String> slot = binding.bind("entry");
+
+    assertNull(slot.itemSupplier.get());
+    assertEquals(Arrays.asList("entry"), renderedEntries);
+
+    assertNotNull(slot.interactionHandler);
+    assertSame(result, slot.interactionHandler.handle(new UIInteraction(null, 0, true, () -> {}, null, null)));
+    assertEquals("entry", interactedEntry.get());
+
+    assertNull(new DataSlotBinding<String>(data -> null, null).bind("entry").interactionHandler);
+  }
+
+  @Test
+  public void shouldIdentifyEntriesByBindingAndData() {
+    DataSlotBinding<String> binding = new DataSlotBinding<>(data -> null, null);
+    DataSlotBinding<String> otherBinding = new DataSlotBinding<>(data -> null, null);
+    String data = "entry";
+
+    // Slots of bound entries are created on demand, which still represent the same entry
+    assertTrue(binding.bind(data).isSameEntry(binding.bind(data)));
+    assertFalse(binding.bind(data).isSameEntry(otherBinding.bind(data)));
+    assertFalse(binding.bind(data).isSameEntry(binding.bind(new String(data))));
+
+    DataBoundUISlot<String> slot = new DataBoundUISlot<>(() -> null, null, data);
+    assertTrue(slot.isSameEntry(slot));
+    assertFalse(slot.isSameEntry(new DataBoundUISlot<>(() -> null, null, data)));
+  }
+
+  @Test
+  public void shouldHoldBoundEntriesAsData() {
+    DataSlotBinding<String> binding = new DataSlotBinding<>(data -> null, null);
+    SharedDataset<String> dataset = new SharedDataset<>(binding, Arrays.asList("a", "b", "c"));
+
+    dataset.insert(1, binding.bind("d"));
+    dataset.updateAt(3, binding.bind("e"));
+    dataset.move(0, 3);
+
+    DatasetSnapshot<String> snapshot = dataset.getSnapshot();
+    String[] entries = new String[snapshot.size()];
+
+    for (int position = 0; position < snapshot.size(); position++) {
+      entries[position] = snapshot.getData(position);
+      assertSame(binding, snapshot.getSlot(position).binding);
+    }
+
+    assertArrayEquals(new String[] { "d", "b", "e", "a" }, entries);
+    assertSame(binding, dataset.fork().getBinding());
+
+    // Slots which carry handlers of their own cannot be held as plain data
+    assertThrows(IllegalArgumentException.class, () -> dataset.insert(0, new DataBoundUISlot<>(() -> null, null, "f")));
+    assertThrows(IllegalArgumentException.class, () -> dataset.insert(0, new DataSlotBinding<String>(data -> null, null).bind("f")));
+  }
+}
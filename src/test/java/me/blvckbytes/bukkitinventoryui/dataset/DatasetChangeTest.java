@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetChangeTest {
+
+  // Removes positions 1 and 5, replaces positions 3 and 6 and appends two entries
+  private final DatasetChange change = new DatasetChange(8, new int[] { 1, 5 }, new int[] { 3, 6 }, 2);
+
+  @Test
+  public void shouldCountEntries() {
+    assertEquals(8, change.getPreviousSize());
+    assertEquals(8, change.getNextSize());
+    assertEquals(2, change.getNumberOfRemoved());
+    assertEquals(2, change.getNumberOfUpdated());
+    assertEquals(2, change.getNumberOfAdded());
+    assertFalse(change.isEmpty());
+  }
+
+  @Test
+  public void shouldMapPositions() {
+    int[] expected = { 0, -1, 1, 2, 3, -1, 4, 5 };
+
+    for (int position = 0; position < expected.length; position++)
+      assertEquals(expected[position], change.mapPosition(position), "position " + position);
+  }
+
+  @Test
+  public void shouldOnlyMapRetainedPositions() {
+    assertArrayEquals(new int[] { 0, -1, 1, -1, 3, -1, -1, 5 }, change.mapRetainedPositions());
+  }
+
+  @Test
+  public void shouldListUpdatedAndAddedPositions() {
+    assertArrayEquals(new int[] { 3, 6 }, change.getUpdatedPositions());
+    assertArrayEquals(new int[] { 2, 4, 6, 7 }, change.getChangedPositions());
+  }
+
+  @Test
+  public void shouldFindFirstChangedPosition() {
+    assertEquals(1, change.getFirstChangedPosition());
+    assertEquals(2, new DatasetChange(4, new int[0], new int[] { 2 }, 0).getFirstChangedPosition());
+    assertEquals(4, new DatasetChange(4, new int[0], new int[0], 3).getFirstChangedPosition());
+  }
+
+  @Test
+  public void shouldMapAroundInsertions() {
+    // Removes position 2, replaces position 4 and inserts at the next positions 0, 3 and 7
+    DatasetChange insertion = new DatasetChange(6, new int[] { 2 }, new int[] { 4 }, new int[] { 0, 3, 7 });
+
+    assertEquals(8, insertion.getNextSize());
+    assertEquals(3, insertion.getNumberOfAdded());
+
+    int[] expected = { 1, 2, -1, 4, 5, 6 };
+
+    for (int position = 0; position < expected.length; position++)
+      assertEquals(expected[position], insertion.mapPosition(position), "position " + position);
+
+    assertArrayEquals(new int[] { 1, 2, -1, 4, -1, 6 }, insertion.mapRetainedPositions());
+    assertArrayEquals(new int[] { 0, 3, 5, 7 }, insertion.getChangedPositions());
+    assertEquals(0, insertion.getFirstChangedPosition());
+    assertEquals(Integer.MAX_VALUE, insertion.getLastChangedPosition());
+  }
+
+  @Test
+  public void shouldBoundMoves() {
+    // Moves the entry at position 2 to position 5
+    DatasetChange move = new DatasetChange(7, new int[] { 2 }, new int[0], new int[] { 5 });
+
+    assertArrayEquals(new int[] { 0, 1, -1, 2, 3, 4, 6 }, move.mapRetainedPositions());
+    assertEquals(2, move.getFirstChangedPosition());
+    assertEquals(5, move.getLastChangedPosition());
+    assertEquals(3, new DatasetChange(4, new int[0], new int[] { 1, 3 }, 0).getLastChangedPosition());
+  }
+
+  @Test
+  public void shouldDescribeEmptyChange() {
+    DatasetChange empty = new DatasetChange(3, new int[0], new int[0], 0);
+
+    assertTrue(empty.isEmpty());
+    assertEquals(3, empty.getFirstChangedPosition());
+    assertArrayEquals(new int[] { 0, 1, 2 }, empty.mapRetainedPositions());
+    assertArrayEquals(new int[0], empty.getChangedPositions());
+  }
+}
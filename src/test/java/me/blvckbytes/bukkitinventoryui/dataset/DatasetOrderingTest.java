@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetOrderingTest {
+
+  // Few distinct keys, so that the order of equal entries is covered as well
+  private static final DatasetOrdering<String> BY_NUMBER = DatasetOrdering.numeric(
+    "number", data -> Double.parseDouble(data.split(" ")[1]), true
+  );
+
+  private static final DatasetOrdering<String> BY_TEXT = DatasetOrdering.text(
+    "text", data -> data.split(" ")[2], Locale.ROOT, false
+  );
+
+  @Test
+  public void shouldSortStably() {
+    SharedDataset<String> dataset = new SharedDataset<>(Arrays.asList(
+      SharedDatasetTest.slot("entry 1 b"), SharedDatasetTest.slot("entry 3 a"),
+      SharedDatasetTest.slot("entry 1 a"), SharedDatasetTest.slot("entry 2 c")
+    ));
+
+    DatasetOrdering.Permutation<String> permutation = BY_NUMBER.getPermutation(dataset.getSnapshot());
+
+    assertArrayEquals(new int[] { 1, 3, 0, 2 }, permutation.positions);
+    assertArrayEquals(new int[] { 2, 0, 2, 1 }, permutation.ranks);
+  }
+
+  @Test
+  public void shouldPatchLikeRebuild() {
+    for (DatasetOrdering<String> ordering : Arrays.asList(BY_NUMBER, BY_TEXT, DatasetOrdering.<String>natural())) {
+      Random random = new Random(2);
+      SharedDataset<String> dataset = new SharedDataset<>(SharedDatasetTest.createSlots(300));
+
+      ordering.getPermutation(dataset.getSnapshot());
+
+      for (int round = 0; round < 100; round++) {
+        DatasetSnapshot<String> snapshot = SharedDatasetTest.applyRandomChange(dataset, random, round);
+        DatasetOrdering.Permutation<String> patched = ordering.getPermutation(snapshot);
+        DatasetOrdering.Permutation<String> rebuilt = ordering.getPermutation(new SharedDataset<>(SharedDatasetTest.toList(snapshot)).getSnapshot());
+
+        String message = ordering.name + " in round " + round;
+        assertArrayEquals(rebuilt.positions, patched.positions, message);
+        assertArrayEquals(rebuilt.ranks, patched.ranks, message);
+      }
+    }
+  }
+}
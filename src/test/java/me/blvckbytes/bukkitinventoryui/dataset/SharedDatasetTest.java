@@ -0,0 +1,322 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.dataset;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.base.DataSlotBinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedDatasetTest {
+
+  @Test
+  public void shouldDeriveRemovalsUpdatesAndAppends() {
+    List<DataBoundUISlot<String>> slots = createSlots(6);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+    DatasetSnapshot<String> previous = dataset.getSnapshot();
+
+    List<DataBoundUISlot<String>> nextSlots = new ArrayList<>(slots);
+    nextSlots.remove(4);
+    nextSlots.set(2, slot("replacement"));
+    nextSlots.remove(0);
+    nextSlots.add(slot("first added"));
+    nextSlots.add(slot("second added"));
+
+    DatasetSnapshot<String> next = dataset.publish(nextSlots);
+    DatasetChange change = next.getChange();
+
+    assertNotNull(change);
+    assertEquals(previous.getVersion() + 1, next.getVersion());
+    assertArrayEquals(new int[] { 2 }, change.getUpdatedPositions());
+    assertEquals(2, change.getNumberOfRemoved());
+    assertEquals(2, change.getNumberOfAdded());
+    assertChangeDescribes(previous, next);
+  }
+
+  @Test
+  public void shouldNotDeriveReorderedSlots() {
+    List<DataBoundUISlot<String>> slots = createSlots(4);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+
+    List<DataBoundUISlot<String>> nextSlots = new ArrayList<>(slots);
+    Collections.swap(nextSlots, 0, 3);
+
+    assertNull(dataset.publish(nextSlots).getChange());
+  }
+
+  @Test
+  public void shouldDeriveInsertionsBetweenRetainedSlots() {
+    List<DataBoundUISlot<String>> slots = createSlots(4);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+    DatasetSnapshot<String> previous = dataset.getSnapshot();
+
+    List<DataBoundUISlot<String>> nextSlots = new ArrayList<>(slots);
+    nextSlots.set(1, slot("replacement"));
+    nextSlots.add(2, slot("inserted"));
+    nextSlots.add(0, slot("prepended"));
+
+    DatasetSnapshot<String> next = dataset.publish(nextSlots);
+    DatasetChange change = next.getChange();
+
+    assertNotNull(change);
+    assertArrayEquals(new int[] { 1 }, change.getUpdatedPositions());
+    assertArrayEquals(new int[] { 0, 3 }, change.getInsertedPositions());
+    assertChangeDescribes(previous, next);
+  }
+
+  @Test
+  public void shouldPublishPositionalChanges() {
+    List<DataBoundUISlot<String>> slots = createSlots(5);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+    List<DataBoundUISlot<String>> expected = new ArrayList<>(slots);
+
+    DataBoundUISlot<String> inserted = slot("inserted"), replacement = slot("replacement");
+
+    DatasetSnapshot<String> previous = dataset.getSnapshot();
+    DatasetSnapshot<String> next = dataset.insert(2, inserted);
+    expected.add(2, inserted);
+    assertEquals(expected, toList(next));
+    assertChangeDescribes(previous, next);
+
+    previous = next;
+    next = dataset.move(4, 0);
+    expected.add(0, expected.remove(4));
+    assertEquals(expected, toList(next));
+    assertChangeDescribes(previous, next);
+    assertEquals(4, next.getChange().getLastChangedPosition());
+
+    previous = next;
+    next = dataset.updateAt(3, replacement);
+    expected.set(3, replacement);
+    assertEquals(expected, toList(next));
+    assertChangeDescribes(previous, next);
+
+    previous = next;
+    next = dataset.removeAt(5);
+    expected.remove(5);
+    assertEquals(expected, toList(next));
+    assertChangeDescribes(previous, next);
+
+    assertSame(next, dataset.move(1, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> dataset.insert(7, slot("out of bounds")));
+    assertThrows(IndexOutOfBoundsException.class, () -> dataset.removeAt(-1));
+  }
+
+  @Test
+  public void shouldOnlyPublishActualChanges() {
+    List<DataBoundUISlot<String>> slots = createSlots(4);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+    DatasetSnapshot<String> current = dataset.getSnapshot();
+
+    assertSame(current, dataset.publishChanges(new ArrayList<>(slots)));
+    assertSame(current, dataset.remove(slot("not contained")));
+
+    // Publishing the same slots announces in-place alterations, which affect all entries
+    DatasetSnapshot<String> republished = dataset.publish(new ArrayList<>(slots));
+    assertNotSame(current, republished);
+    assertNull(republished.getChange());
+  }
+
+  @Test
+  public void shouldDeriveChangesOfBoundEntries() {
+    DataSlotBinding<String> binding = new DataSlotBinding<>(data -> null, null);
+    List<String> entries = new ArrayList<>(Arrays.asList("a", "b", "c"));
+    SharedDataset<String> dataset = new SharedDataset<>(binding, entries);
+    DatasetSnapshot<String> previous = dataset.getSnapshot();
+
+    entries.remove(1);
+    entries.add("d");
+
+    DatasetSnapshot<String> next = dataset.publishEntries(entries);
+
+    assertNotNull(next.getChange());
+    assertEquals(1, next.getChange().getNumberOfRemoved());
+    assertEquals(1, next.getChange().getNumberOfAdded());
+    assertChangeDescribes(previous, next);
+
+    assertThrows(IllegalArgumentException.class, () -> dataset.add(slot("unbound")));
+  }
+
+  @Test
+  public void shouldDescribeRandomChanges() {
+    Random random = new Random(1);
+    List<DataBoundUISlot<String>> slots = createSlots(200);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+
+    for (int round = 0; round < 200; round++) {
+      DatasetSnapshot<String> previous = dataset.getSnapshot();
+      DatasetSnapshot<String> next = applyRandomChange(dataset, random, round);
+
+      if (next != previous)
+        assertChangeDescribes(previous, next);
+    }
+  }
+
+  @Test
+  public void shouldLeaveForksUnaffected() {
+    List<DataBoundUISlot<String>> slots = createSlots(3);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+    SharedDataset<String> fork = dataset.fork();
+
+    fork.add(slot("added"));
+
+    assertEquals(3, dataset.getSnapshot().size());
+    assertEquals(4, fork.getSnapshot().size());
+    assertSame(slots.get(0), fork.getSnapshot().getSlot(0));
+  }
+
+  /**
+   * Applies a random mix of removals, updates and appends, through either
+   * {@link SharedDataset#apply} or by publishing the resulting slots as a whole
+   */
+  static DatasetSnapshot<String> applyRandomChange(SharedDataset<String> dataset, Random random, int round) {
+    List<DataBoundUISlot<String>> slots = toList(dataset.getSnapshot());
+    List<DataBoundUISlot<String>> added = new ArrayList<>(), removed = new ArrayList<>();
+    Map<DataBoundUISlot<String>, DataBoundUISlot<String>> updated = new IdentityHashMap<>();
+
+    for (int i = random.nextInt(4); i > 0 && !slots.isEmpty(); i--) {
+      DataBoundUISlot<String> target = slots.get(random.nextInt(slots.size()));
+
+      if (random.nextBoolean())
+        removed.add(target);
+      else
+        updated.put(target, slot(randomData(random, round)));
+    }
+
+    for (int i = random.nextInt(4); i > 0; i--)
+      added.add(slot(randomData(random, round)));
+
+    switch (random.nextInt(4)) {
+      case 0:
+        return dataset.apply(added, removed, updated);
+
+      // Positional changes, which may take place anywhere
+      case 1:
+        return dataset.insert(random.nextInt(slots.size() + 1), slot(randomData(random, round)));
+
+      case 2:
+        if (slots.size() > 1)
+          return dataset.move(random.nextInt(slots.size()), random.nextInt(slots.size()));
+        break;
+    }
+
+    Set<DataBoundUISlot<String>> removedSlots = Collections.newSetFromMap(new IdentityHashMap<>());
+    removedSlots.addAll(removed);
+
+    List<DataBoundUISlot<String>> nextSlots = new ArrayList<>();
+
+    for (DataBoundUISlot<String> slot : slots) {
+      if (!removedSlots.contains(slot))
+        nextSlots.add(updated.getOrDefault(slot, slot));
+    }
+
+    // Added slots are spread out, so that changes are derived with insertions in between retained slots
+    for (DataBoundUISlot<String> slot : added)
+      nextSlots.add(random.nextInt(nextSlots.size() + 1), slot);
+
+    return dataset.publishChanges(nextSlots);
+  }
+
+  static String randomData(Random random, int round) {
+    return "entry " + random.nextInt(50) + " " + (char) ('a' + random.nextInt(8)) + round;
+  }
+
+  static DataBoundUISlot<String> slot(String data) {
+    return new DataBoundUISlot<>(() -> null, null, data);
+  }
+
+  static List<DataBoundUISlot<String>> createSlots(int count) {
+    List<DataBoundUISlot<String>> slots = new ArrayList<>();
+
+    for (int i = 0; i < count; i++)
+      slots.add(slot("entry " + (i % 50) + " " + (char) ('a' + i % 8)));
+
+    return slots;
+  }
+
+  static List<DataBoundUISlot<String>> toList(DatasetSnapshot<String> snapshot) {
+    List<DataBoundUISlot<String>> slots = new ArrayList<>();
+
+    for (int position = 0; position < snapshot.size(); position++)
+      slots.add(snapshot.getSlot(position));
+
+    return slots;
+  }
+
+  /**
+   * Checks that applying the snapshot's change onto the previous snapshot's entries yields the snapshot's entries
+   */
+  private static void assertChangeDescribes(DatasetSnapshot<String> previous, DatasetSnapshot<String> next) {
+    DatasetChange change = next.getChange();
+
+    assertNotNull(change);
+    assertEquals(previous.size(), change.getPreviousSize());
+    assertEquals(next.size(), change.getNextSize());
+
+    int[] retainedPositions = change.mapRetainedPositions();
+    boolean[] isChanged = new boolean[next.size()];
+
+    for (int position : change.getChangedPositions())
+      isChanged[position] = true;
+
+    int numberOfRetained = 0;
+
+    for (int position = 0; position < previous.size(); position++) {
+      int nextPosition = retainedPositions[position];
+
+      if (nextPosition < 0)
+        continue;
+
+      ++numberOfRetained;
+      assertFalse(isChanged[nextPosition]);
+      assertTrue(previous.isSameEntry(position, next, nextPosition), "retained entry at " + position);
+    }
+
+    assertEquals(next.size(), numberOfRetained + change.getNumberOfUpdated() + change.getNumberOfAdded());
+
+    for (int position = 0; position < previous.size(); position++) {
+      if (retainedPositions[position] >= 0)
+        assertEquals(retainedPositions[position], change.mapPosition(position));
+    }
+
+    // Changed positions are exactly those of inserted and updated entries
+    int[] changedPositions = change.getChangedPositions();
+    int[] insertedPositions = change.getInsertedPositions();
+    int[] updatedPositions = change.getUpdatedPositions();
+
+    for (int i = 0; i < updatedPositions.length; i++)
+      updatedPositions[i] = change.mapPosition(updatedPositions[i]);
+
+    int[] expectedChanged = Arrays.copyOf(insertedPositions, insertedPositions.length + updatedPositions.length);
+    System.arraycopy(updatedPositions, 0, expectedChanged, insertedPositions.length, updatedPositions.length);
+    Arrays.sort(expectedChanged);
+
+    assertArrayEquals(expectedChanged, changedPositions);
+  }
+}
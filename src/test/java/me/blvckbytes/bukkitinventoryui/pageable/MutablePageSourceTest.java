@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.blvckbytes.bukkitinventoryui.pageable;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetChange;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetPageSource;
+import me.blvckbytes.bukkitinventoryui.dataset.DatasetSnapshot;
+import me.blvckbytes.bukkitinventoryui.dataset.SharedDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MutablePageSourceTest {
+
+  @Test
+  public void shouldMutateLikeDataset() {
+    Random random = new Random(3);
+    List<DataBoundUISlot<String>> slots = createSlots(random, 40);
+    MutablePageSource<String> source = new MutablePageSource<>(slots);
+    SharedDataset<String> dataset = new SharedDataset<>(slots);
+
+    for (int round = 0; round < 500; round++) {
+      int size = source.getSize();
+      DatasetSnapshot<String> previous = dataset.getSnapshot();
+
+      switch (size == 0 ? 0 : random.nextInt(4)) {
+        case 0: {
+          int index = random.nextInt(size + 1);
+          DataBoundUISlot<String> slot = slot("inserted " + round);
+          source.insert(index, slot);
+          dataset.insert(index, slot);
+          break;
+        }
+
+        case 1: {
+          int index = random.nextInt(size);
+          assertSame(source.get(index), dataset.getSnapshot().getSlot(index));
+          source.remove(index);
+          dataset.removeAt(index);
+          break;
+        }
+
+        case 2: {
+          int index = random.nextInt(size);
+          DataBoundUISlot<String> slot = slot("updated " + round);
+          source.update(index, slot);
+          dataset.updateAt(index, slot);
+          break;
+        }
+
+        default: {
+          int fromIndex = random.nextInt(size), toIndex = random.nextInt(size);
+          source.move(fromIndex, toIndex);
+          dataset.move(fromIndex, toIndex);
+          break;
+        }
+      }
+
+      DatasetSnapshot<String> next = dataset.getSnapshot();
+      List<DataBoundUISlot<String>> expected = fetch(source, 0, source.getSize());
+
+      assertEquals(expected, fetch(new DatasetPageSource<>(next), 0, next.size()), "round " + round);
+
+      if (next != previous)
+        assertChangedRangeCovers(previous, next);
+    }
+  }
+
+  @Test
+  public void shouldClampWindowsToSlots() {
+    List<DataBoundUISlot<String>> slots = createSlots(new Random(4), 5);
+    MutablePageSource<String> source = new MutablePageSource<>(slots);
+
+    assertEquals(slots.subList(3, 5), fetch(source, 3, 10));
+    assertEquals(slots.subList(0, 2), fetch(source, -1, 3));
+    assertTrue(fetch(source, 7, 3).isEmpty());
+
+    // Windows are copies, which are not affected by later mutations
+    List<DataBoundUISlot<String>> window = fetch(source, 0, 5);
+    source.remove(0);
+    assertEquals(slots, window);
+  }
+
+  /**
+   * Checks that all entries outside of the change's range of positions, which is the range of
+   * cached pages a pageable UI invalidates, are still the very same entries at the very same positions
+   */
+  private static void assertChangedRangeCovers(DatasetSnapshot<String> previous, DatasetSnapshot<String> next) {
+    DatasetChange change = next.getChange();
+
+    assertNotNull(change);
+
+    int fromPosition = change.getFirstChangedPosition();
+    int toPosition = change.getLastChangedPosition();
+
+    for (int position = 0; position < Math.min(previous.size(), next.size()); position++) {
+      if (position >= fromPosition && position <= toPosition)
+        continue;
+
+      assertSame(previous.getSlot(position), next.getSlot(position), "position " + position + " outside of " + Arrays.asList(fromPosition, toPosition));
+    }
+  }
+
+  private static List<DataBoundUISlot<String>> fetch(IPageSource<String> source, int offset, int length) {
+    AtomicReference<List<DataBoundUISlot<String>>> window = new AtomicReference<>();
+    source.fetchWindow(offset, length, window::set);
+    assertNotNull(window.get());
+    return window.get();
+  }
+
+  private static List<DataBoundUISlot<String>> createSlots(Random random, int count) {
+    List<DataBoundUISlot<String>> slots = new ArrayList<>();
+
+    for (int i = 0; i < count; i++)
+      slots.add(slot("entry " + random.nextInt(100)));
+
+    return slots;
+  }
+
+  private static DataBoundUISlot<String> slot(String data) {
+    return new DataBoundUISlot<>(() -> null, null, data);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.blvckbytes.bukkitinventoryui.pageable;
+
+import me.blvckbytes.bukkitinventoryui.base.DataBoundUISlot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageCacheTest {
+
+  @Test
+  public void shouldRenderItemsOnceAheadOfDrawing() {
+    AtomicInteger numberOfRendered = new AtomicInteger();
+    List<DataBoundUISlot<String>> window = new ArrayList<>();
+
+    for (int i = 0; i < 4; i++)
+      window.add(new DataBoundUISlot<>(() -> { numberOfRendered.incrementAndGet(); return null; }, null, "entry " + i));
+
+    // The additional entry only signals that there's a next page
+    RenderedPage<String> page = RenderedPage.render(window, 3);
+
+    assertEquals(3, numberOfRendered.get());
+    assertEquals(3, page.items.length);
+    assertTrue(page.hasMoreEntries);
+    assertFalse(RenderedPage.render(window.subList(0, 3), 3).hasMoreEntries);
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedPages() {
+    PageCache<String> cache = new PageCache<>(2);
+
+    cache.put(0, createPage());
+    cache.put(1, createPage());
+    assertNotNull(cache.get(0));
+
+    // Page 1 has been used least recently
+    cache.put(2, createPage());
+
+    assertTrue(cache.contains(0));
+    assertFalse(cache.contains(1));
+    assertTrue(cache.contains(2));
+  }
+
+  @Test
+  public void shouldCountHitsAndMisses() {
+    PageCache<String> cache = new PageCache<>(4);
+    assertEquals(0.0, cache.getHitRate());
+
+    cache.put(0, createPage());
+    cache.get(0);
+    cache.get(0);
+    cache.get(1);
+
+    // Checking for presence does not count as a lookup
+    cache.contains(1);
+
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(2 / 3.0, cache.getHitRate());
+  }
+
+  @Test
+  public void shouldInvalidatePages() {
+    PageCache<String> cache = new PageCache<>(8);
+
+    for (int page = 0; page < 6; page++)
+      cache.put(page, createPage());
+
+    cache.invalidate(0);
+    cache.invalidateRange(2, 4);
+
+    assertFalse(cache.contains(0));
+    assertTrue(cache.contains(1));
+    assertFalse(cache.contains(3));
+    assertTrue(cache.contains(5));
+
+    PageCache<String> disabled = new PageCache<>(0);
+    disabled.put(0, createPage());
+    assertFalse(disabled.contains(0));
+  }
+
+  private static RenderedPage<String> createPage() {
+    return RenderedPage.render(Collections.emptyList(), 1);
+  }
+}